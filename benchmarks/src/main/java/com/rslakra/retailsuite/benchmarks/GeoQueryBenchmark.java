@@ -0,0 +1,130 @@
+package com.rslakra.retailsuite.benchmarks;
+
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreRepository;
+import com.rslakra.retailsuite.stores.StoreServiceApplication;
+import com.rslakra.retailsuite.stores.catalog.StoreCatalogReader;
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the location searches of the {@link StoreRepository} against MongoDB, i.e. the {@code $nearSphere} and
+ * {@code $geoNear} queries behind {@code by-location} and {@code nearest} with the indexes store-service creates. The
+ * store-service context is started without a web server against the database given by the
+ * {@value #MONGODB_URI_PROPERTY} system property, a local mongod by default, and the catalog is inserted unless the
+ * database already holds stores. Query points are spread around the stores of the catalog, so that most searches find
+ * stores as they do in production.
+ *
+ * @author Rohtash Lakra
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoQueryBenchmark {
+
+    static final String MONGODB_URI_PROPERTY = "benchmarks.mongodb.uri";
+
+    private static final int POINTS = 1024;
+
+    @Param({ "5", "50" })
+    private double kilometers;
+
+    private ConfigurableApplicationContext context;
+    private StoreRepository repository;
+    private Point[] points;
+    private Distance distance;
+    private Pageable page;
+    private StoreFilter driveThrough;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        String uri = System.getProperty(MONGODB_URI_PROPERTY, "mongodb://localhost:27017/stores-benchmarks");
+        // command line arguments, which take precedence over the application.yml of either service on the class path
+        context = new SpringApplicationBuilder(StoreServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.data.mongodb.uri=" + uri,
+                 "--spring.config.import=",
+                 "--spring.cloud.config.enabled=false",
+                 "--eureka.client.enabled=false",
+                 "--stores.import.enabled=false",
+                 "--stores.index.enabled=false",
+                 "--stores.cache.enabled=false");
+
+        List<Store> stores = StoreCatalogReader.readAll(new ClassPathResource("starbucks.csv"));
+        MongoTemplate template = context.getBean(MongoTemplate.class);
+        if (template.count(new Query(), Store.class) == 0) {
+            template.insertAll(stores);
+        }
+        repository = context.getBean(StoreRepository.class);
+
+        Random random = new Random(42);
+        points = new Point[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            Point location = stores.get(random.nextInt(stores.size())).getAddress().getLocation();
+            points[i] = new Point(location.getX() + random.nextGaussian() * 0.05,
+                                  location.getY() + random.nextGaussian() * 0.05);
+        }
+
+        distance = new Distance(kilometers, Metrics.KILOMETERS);
+        page = PageRequest.of(0, 20);
+        driveThrough = StoreFilter.of(List.of("Drive-Through"), null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Store> findByLocation() {
+        return repository.findByAddressLocationNear(nextPoint(), distance, page);
+    }
+
+    @Benchmark
+    public Page<Store> findByLocationFiltered() {
+        return repository.findByAddressLocationNear(nextPoint(), distance, driveThrough, page);
+    }
+
+    @Benchmark
+    public GeoResults<Store> findNearest() {
+        return repository.findNearest(nextPoint(), distance, 10);
+    }
+
+    private Point nextPoint() {
+        return points[next++ & (POINTS - 1)];
+    }
+}
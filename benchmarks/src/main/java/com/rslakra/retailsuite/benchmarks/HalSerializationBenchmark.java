@@ -0,0 +1,137 @@
+package com.rslakra.retailsuite.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rslakra.retailsuite.customers.Address;
+import com.rslakra.retailsuite.customers.Customer;
+import com.rslakra.retailsuite.customers.Location;
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.catalog.StoreCatalogReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.PagedModel.PageMetadata;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.LinkRelationProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of {@link Store}s and of {@link Customer}s to HAL, shaped like the Spring Data REST
+ * collection resources: every item with its self and item links, customers with their {@code stores-nearby} link, and
+ * the page with its navigation links and metadata.
+ *
+ * @author Rohtash Lakra
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HalSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int size;
+
+    private ObjectMapper mapper;
+    private PagedModel<EntityModel<Store>> stores;
+    private PagedModel<EntityModel<Customer>> customers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        mapper = new ObjectMapper();
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new RepositoryRelations(),
+                                                                                   CurieProvider.NONE,
+                                                                                   MessageResolver.DEFAULTS_ONLY));
+
+        List<EntityModel<Store>> storeModels = new ArrayList<>(size);
+        for (Store store : StoreCatalogReader.readAll(new ClassPathResource("starbucks.csv")).subList(0, size)) {
+            store.setId(Integer.toHexString(storeModels.size()) + "5f1d7a0c3e4b2a1f");
+            storeModels.add(EntityModel.of(store, itemLinks("stores", store.getId(), "store")));
+        }
+        stores = PagedModel.of(storeModels, new PageMetadata(size, 0, 25_600), pageLinks("stores"));
+
+        List<EntityModel<Customer>> customerModels = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Customer customer = new Customer();
+            customer.setId(id);
+            customer.setFirstname("Dave");
+            customer.setLastname("Matthews " + id);
+            customer.setAddress(new Address("157 Ninth Avenue", "10011", "New York", new Location(40.740337, -73.995146)));
+
+            List<Link> links = new ArrayList<>(itemLinks("customers", String.valueOf(id), "customer"));
+            links.add(Link.of("http://localhost:8081/stores/search/by-location?location=40.740337,-73.995146"
+                              + "&distance=50km", "stores-nearby"));
+            customerModels.add(EntityModel.of(customer, links));
+        }
+        customers = PagedModel.of(customerModels, new PageMetadata(size, 0, 1_000), pageLinks("customers"));
+    }
+
+    @Benchmark
+    public byte[] storePage() throws Exception {
+        return mapper.writeValueAsBytes(stores);
+    }
+
+    @Benchmark
+    public byte[] customerPage() throws Exception {
+        return mapper.writeValueAsBytes(customers);
+    }
+
+    private static List<Link> itemLinks(String collection, String id, String rel) {
+
+        String href = "http://localhost:8080/" + collection + "/" + id;
+        return List.of(Link.of(href), Link.of(href, rel));
+    }
+
+    private static List<Link> pageLinks(String collection) {
+
+        String href = "http://localhost:8080/" + collection;
+        return List.of(Link.of(href + "?page=0&size=20", IanaLinkRelations.FIRST),
+                       Link.of(href + "{?page,size,sort}"),
+                       Link.of(href + "?page=1&size=20", IanaLinkRelations.NEXT),
+                       Link.of(href + "?page=1279&size=20", IanaLinkRelations.LAST),
+                       Link.of("http://localhost:8080/profile/" + collection, "profile"));
+    }
+
+    /**
+     * Names the embedded collections like Spring Data REST's repository rels do.
+     */
+    private static class RepositoryRelations implements LinkRelationProvider {
+
+        @Override
+        public LinkRelation getItemResourceRelFor(Class<?> type) {
+            return LinkRelation.of(type == Store.class ? "store" : "customer");
+        }
+
+        @Override
+        public LinkRelation getCollectionResourceRelFor(Class<?> type) {
+            return LinkRelation.of(type == Store.class ? "stores" : "customers");
+        }
+
+        @Override
+        public boolean supports(LookupContext context) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.rslakra.retailsuite.benchmarks;
+
+import com.rslakra.retailsuite.stores.PointConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.geo.Point;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the {@code location} request parameter of every location search by the {@link PointConverter}.
+ *
+ * @author Rohtash Lakra
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointConverterBenchmark {
+
+    private final PointConverter converter = new PointConverter();
+
+    @Param({ "40.7128,-74.0060", "-118.2437, 34.0522" })
+    private String location;
+
+    @Benchmark
+    public Point convert() {
+        return converter.convert(location);
+    }
+}
@@ -0,0 +1,127 @@
+package com.rslakra.retailsuite.benchmarks;
+
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreFieldSetMapper;
+import com.rslakra.retailsuite.stores.StoreInitializer;
+import com.rslakra.retailsuite.stores.catalog.StoreCatalogReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.PassThroughFieldSetMapper;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the store catalog {@code starbucks.csv}: mapping a single tokenized row with the
+ * {@link StoreFieldSetMapper}, and reading the whole catalog with {@link StoreInitializer#readStores()} and with the
+ * {@link StoreCatalogReader} the startup import uses.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogBenchmark {
+
+    private static final Resource CATALOG = new ClassPathResource("starbucks.csv");
+
+    /**
+     * The first rows of the catalog, tokenized into {@link FieldSet}s.
+     */
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        static final int SIZE = 1024;
+
+        FieldSet[] rows;
+
+        @Setup(Level.Trial)
+        public void tokenize() throws Exception {
+
+            String header;
+            try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(CATALOG.getInputStream(), StandardCharsets.UTF_8))) {
+                header = reader.readLine().replace("\uFEFF", "");
+            }
+
+            DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+            tokenizer.setNames(header.split(","));
+            tokenizer.setStrict(false);
+
+            DefaultLineMapper<FieldSet> lineMapper = new DefaultLineMapper<>();
+            lineMapper.setLineTokenizer(tokenizer);
+            lineMapper.setFieldSetMapper(new PassThroughFieldSetMapper());
+
+            FlatFileItemReader<FieldSet> reader = new FlatFileItemReader<>();
+            reader.setResource(CATALOG);
+            reader.setLineMapper(lineMapper);
+            reader.setRecordSeparatorPolicy(new DefaultRecordSeparatorPolicy());
+            reader.setLinesToSkip(1);
+            reader.open(new ExecutionContext());
+
+            List<FieldSet> fieldSets = new ArrayList<>(SIZE);
+            try {
+                for (FieldSet row = reader.read(); row != null && fieldSets.size() < SIZE; row = reader.read()) {
+                    fieldSets.add(row);
+                }
+            } finally {
+                reader.close();
+            }
+
+            rows = fieldSets.toArray(new FieldSet[0]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    @OperationsPerInvocation(Rows.SIZE)
+    public void mapFieldSet(Rows rows, Blackhole blackhole) throws Exception {
+        for (FieldSet row : rows.rows) {
+            blackhole.consume(StoreFieldSetMapper.INSTANCE.mapFieldSet(row));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    @Fork(1)
+    public List<Store> readStores() throws Exception {
+        return StoreInitializer.readStores();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    @Fork(1)
+    public List<Store> readAllWithCatalogReader() throws Exception {
+        return StoreCatalogReader.readAll(CATALOG);
+    }
+}
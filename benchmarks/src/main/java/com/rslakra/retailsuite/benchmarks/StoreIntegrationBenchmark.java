@@ -0,0 +1,193 @@
+package com.rslakra.retailsuite.benchmarks;
+
+import com.rslakra.retailsuite.customers.integration.StoreIntegration;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.hateoas.Link;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code StoreIntegration.getStoresByLocationLink} as called for every customer rendered with a store link: choosing
+ * the store-service instance, expanding its cached URI template and rewriting the link to the host the customer was
+ * requested through. The instance is a local stand-in serving the HAL documents the template is discovered from, which
+ * happens once during setup.
+ *
+ * @author Rohtash Lakra
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreIntegrationBenchmark {
+
+    private static final Map<String, Object> PARAMETERS = Map.of("location", "40.740337,-73.995146",
+                                                                 "distance", "50km");
+
+    @Param({ "localhost:8082", "10.0.0.12:8081" })
+    private String host;
+
+    private HttpServer server;
+    private StoreIntegration integration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        String uri = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/", exchange -> respond(exchange, links(exchange.getRequestURI().getPath(), uri)));
+        server.start();
+
+        ServiceInstance instance = new DefaultServiceInstance("stores-1", "stores", "localhost",
+                                                              server.getAddress().getPort(), false);
+        integration = new StoreIntegration(new SingleInstanceLoadBalancerClient(instance),
+                                           new SingleInstanceDiscoveryClient(instance));
+        integration.initialize();
+
+        // discovers and caches the URI template, so that the measured calls don't leave the JVM
+        integration.getStoresByLocationLink(PARAMETERS, host);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        integration.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public Link getStoresByLocationLink() {
+        return integration.getStoresByLocationLink(PARAMETERS, host);
+    }
+
+    /**
+     * The links of the store-service root, store collection and search resources, leading to the location search.
+     */
+    private static String links(String path, String uri) {
+
+        return switch (path) {
+            case "/" -> "{\"_links\":{\"stores\":{\"href\":\"" + uri + "/stores\"}}}";
+            case "/stores" -> "{\"_links\":{\"search\":{\"href\":\"" + uri + "/stores/search\"}}}";
+            case "/stores/search" -> "{\"_links\":{\"by-location\":{\"href\":\"" + uri
+                + "/stores/search/by-location{?location,distance}\",\"templated\":true}}}";
+            default -> null;
+        };
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+
+        try (exchange) {
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/hal+json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * A load balancer always choosing the given instance.
+     */
+    static class SingleInstanceLoadBalancerClient implements LoadBalancerClient {
+
+        private final ServiceInstance instance;
+
+        SingleInstanceLoadBalancerClient(ServiceInstance instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public ServiceInstance choose(String serviceId) {
+            return instance;
+        }
+
+        @Override
+        public <T> ServiceInstance choose(String serviceId, Request<T> request) {
+            return instance;
+        }
+
+        @Override
+        public <T> T execute(String serviceId, LoadBalancerRequest<T> request) throws IOException {
+            return execute(serviceId, instance, request);
+        }
+
+        @Override
+        public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request)
+            throws IOException {
+
+            try {
+                return request.apply(serviceInstance);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public URI reconstructURI(ServiceInstance instance, URI original) {
+            return original;
+        }
+    }
+
+    /**
+     * A service registry holding the given instance only.
+     */
+    static class SingleInstanceDiscoveryClient implements DiscoveryClient {
+
+        private final ServiceInstance instance;
+
+        SingleInstanceDiscoveryClient(ServiceInstance instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public String description() {
+            return "Single instance";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return List.of(instance);
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of(instance.getServiceId());
+        }
+    }
+}
@@ -1,22 +1,59 @@
 
 package com.rslakra.retailsuite.customers;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rslakra.retailsuite.customers.geo.GeoHash;
+
 import lombok.Data;
 
 /**
  * @author Rohtash Lakra
  */
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+		@Index(name = "idx_customers_lastname", columnList = "lastname, id"),
+		@Index(name = "idx_customers_city", columnList = "city, id"),
+		@Index(name = "idx_customers_zip_code", columnList = "zip_code, id"),
+		@Index(name = "idx_customers_geohash", columnList = "geohash") })
 @Data
 public class Customer {
 
-	@Id @GeneratedValue Long id;
+	/**
+	 * Drawn from a pooled sequence in blocks of 50, so inserts neither query the sequence per customer nor need the
+	 * generated key back, and can be batched.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+	@SequenceGenerator(name = "customer_seq", allocationSize = 50)
+	Long id;
+
 	String firstname, lastname;
 	Address address;
+
+	/**
+	 * The geohash of the customer's location, {@literal null} if there is none.
+	 */
+	@JsonIgnore
+	@Column(length = GeoHash.PRECISION)
+	String geohash;
+
+	@PrePersist
+	@PreUpdate
+	void updateGeohash() {
+
+		Location location = address == null ? null : address.getLocation();
+		geohash = location == null ? null
+				: GeoHash.encode(location.getLatitude(), location.getLongitude(), GeoHash.PRECISION);
+	}
 }
@@ -0,0 +1,79 @@
+package com.rslakra.retailsuite.customers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Exports all {@link Customer}s as newline-delimited JSON, one customer per line in id order. The customers are read
+ * from a JPA {@link Stream} fetching {@value CustomerRepository#FETCH_SIZE} rows per round trip and detached once
+ * written, so neither the result set nor the persistence context grows with the table. An interrupted export resumes
+ * after the id of the last customer received.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+public class CustomerExporter {
+
+	private final CustomerRepository repository;
+	private final EntityManager entityManager;
+	private final ObjectWriter writer;
+
+	@Autowired
+	public CustomerExporter(CustomerRepository repository, EntityManager entityManager, ObjectMapper mapper) {
+
+		this.repository = repository;
+		this.entityManager = entityManager;
+		this.writer = mapper.writerFor(Customer.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Writes the customers after the given id to the given output, one JSON document per line. The output is flushed but
+	 * left open.
+	 *
+	 * @param after may be {@literal null} to start with the first customer.
+	 * @param output
+	 * @return the number of customers written.
+	 * @throws IOException if writing to the output fails, e.g. because the client went away.
+	 */
+	@Transactional(readOnly = true)
+	public long export(Long after, OutputStream output) throws IOException {
+
+		long start = System.nanoTime();
+		long count = 0;
+
+		try (Stream<Customer> customers = repository.streamByIdGreaterThanOrderById(after == null ? Long.MIN_VALUE : after);
+				JsonGenerator json = writer.createGenerator(output)) {
+
+			json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			json.setRootValueSeparator(null);
+			for (Customer customer : (Iterable<Customer>) customers::iterator) {
+				writer.writeValue(json, customer);
+				json.writeRaw('\n');
+				entityManager.detach(customer);
+				count++;
+			}
+		}
+		finally {
+			log.info("Exported {} customers after {} in {} ms.", count, after,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,136 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Computes the geohash of the {@link Customer}s stored before it was introduced, in the background once the application
+ * is ready, so that it doesn't hold back readiness. New and updated customers get theirs when they are saved. Until the
+ * backfill has completed, {@code /customers/search/near} misses the customers it hasn't reached yet.
+ * <p>
+ * Each batch of customers is loaded, updated and flushed in a transaction of its own, and the persistence context is
+ * cleared afterwards, so memory use is bounded by the batch size.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+public class CustomerGeohashBackfill {
+
+	private final CustomerRepository repository;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "customer-geohash-backfill");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile boolean completed;
+
+	@Autowired
+	public CustomerGeohashBackfill(CustomerRepository repository, EntityManager entityManager,
+			PlatformTransactionManager transactionManager) {
+
+		this.repository = repository;
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		executor.execute(this::backfill);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Returns whether all customers with a location have their geohash, i.e. location searches find all of them.
+	 *
+	 * @return
+	 */
+	public boolean isCompleted() {
+		return completed;
+	}
+
+	/**
+	 * Computes the geohash of all customers with a location but without geohash, in batches of 1000.
+	 */
+	public void backfill() {
+
+		long start = System.nanoTime();
+		long updated = 0;
+		Long after = Long.MIN_VALUE;
+		List<Customer> customers;
+
+		try {
+			do {
+				Long from = after;
+				Batch batch = transactionTemplate.execute(status -> {
+					List<Customer> managed = repository.findTop1000ByIdGreaterThanAndGeohashIsNullOrderById(from);
+					long located = 0;
+					for (Customer customer : managed) {
+						customer.updateGeohash();
+						if (customer.getGeohash() != null) {
+							located++;
+						}
+					}
+					entityManager.flush();
+					entityManager.clear();
+					return new Batch(managed, located);
+				});
+
+				if (updated == 0 && batch.located > 0) {
+					log.info("Computing the geohash of existing customers, /customers/search/near misses those not "
+							+ "reached yet until it has completed.");
+				}
+
+				customers = batch.customers;
+				updated += batch.located;
+				after = customers.isEmpty() ? after : customers.get(customers.size() - 1).getId();
+			}
+			while (!customers.isEmpty() && !Thread.currentThread().isInterrupted());
+		}
+		catch (RuntimeException e) {
+			log.warn("Failed to compute the geohash of the customers after id {}, having updated {}.", after, updated, e);
+			return;
+		}
+
+		completed = !Thread.currentThread().isInterrupted();
+		if (updated > 0) {
+			log.info("Computed the geohash of {} customers in {} ms.", updated,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+	}
+
+	/**
+	 * The customers of a batch and how many of them got a geohash.
+	 */
+	private static class Batch {
+
+		private final List<Customer> customers;
+		private final long located;
+
+		private Batch(List<Customer> customers, long located) {
+			this.customers = customers;
+			this.located = located;
+		}
+	}
+}
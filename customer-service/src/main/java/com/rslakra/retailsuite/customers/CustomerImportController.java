@@ -0,0 +1,43 @@
+package com.rslakra.retailsuite.customers;
+
+import java.io.IOException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to import {@link Customer}s in bulk from newline-delimited JSON or CSV streamed in the request body.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CustomerImportController {
+
+	static final String TEXT_CSV_VALUE = "text/csv";
+
+	private final CustomerImporter importer;
+
+	@PostMapping(value = "/customers/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public CustomerImportResult importJson(HttpServletRequest request) throws IOException {
+		return importer.importJson(request.getInputStream());
+	}
+
+	@PostMapping(value = "/customers/import", consumes = TEXT_CSV_VALUE)
+	public CustomerImportResult importCsv(HttpServletRequest request) throws IOException {
+		return importer.importCsv(request.getInputStream());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+		return ResponseEntity.badRequest().body(e.getMessage());
+	}
+}
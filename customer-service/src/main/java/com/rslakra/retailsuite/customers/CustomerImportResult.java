@@ -0,0 +1,32 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * The outcome of a bulk import of {@link Customer}s: the number of customers imported and rejected, and what went wrong
+ * in which chunk.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class CustomerImportResult {
+
+	private final long imported;
+	private final long rejected;
+	private final int chunks;
+	private final List<Error> errors;
+
+	/**
+	 * A record that couldn't be parsed or a chunk that couldn't be inserted, spanning the given lines of the input.
+	 */
+	@Value
+	public static class Error {
+
+		private final int chunk;
+		private final long fromLine;
+		private final long toLine;
+		private final String message;
+	}
+}
@@ -0,0 +1,297 @@
+package com.rslakra.retailsuite.customers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Imports {@link Customer}s in bulk from newline-delimited JSON or CSV. The input is read line by line and inserted in
+ * chunks of {@link #getChunkSize()} customers, each in its own transaction and flushed as JDBC batches, so memory use
+ * doesn't grow with the input and a bad chunk is rolled back and reported without failing the chunks around it. Records
+ * that can't be parsed are reported and skipped.
+ * <p>
+ * CSV input starts with a header naming the columns, any of {@code firstname}, {@code lastname}, {@code street},
+ * {@code zipCode}, {@code city}, {@code latitude} and {@code longitude} in any order. Values may be quoted with double
+ * quotes but not span lines.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("customers.import")
+public class CustomerImporter {
+
+	private static final List<String> COLUMNS = List.of("firstname", "lastname", "street", "zipCode", "city", "latitude",
+			"longitude");
+
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectReader reader;
+
+	/**
+	 * Number of customers inserted per transaction.
+	 */
+	@Getter
+	@Setter
+	private int chunkSize = 1000;
+
+	/**
+	 * Maximum number of errors reported per import, further errors are only counted.
+	 */
+	@Getter
+	@Setter
+	private int maxErrors = 100;
+
+	@Autowired
+	public CustomerImporter(EntityManager entityManager, PlatformTransactionManager transactionManager,
+			ObjectMapper mapper) {
+
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.reader = mapper.readerFor(Customer.class);
+	}
+
+	/**
+	 * Imports the customers of the given newline-delimited JSON, one customer per line.
+	 *
+	 * @param input
+	 * @return
+	 * @throws IOException if reading the input fails.
+	 */
+	public CustomerImportResult importJson(InputStream input) throws IOException {
+		return importLines(input, false);
+	}
+
+	/**
+	 * Imports the customers of the given CSV.
+	 *
+	 * @param input
+	 * @return
+	 * @throws IOException if reading the input fails.
+	 * @throws IllegalArgumentException if the header names unknown columns.
+	 */
+	public CustomerImportResult importCsv(InputStream input) throws IOException {
+		return importLines(input, true);
+	}
+
+	private CustomerImportResult importLines(InputStream input, boolean csv) throws IOException {
+
+		long start = System.nanoTime();
+		Import state = new Import();
+		BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+		List<String> header = null;
+		long lineNumber = 0;
+
+		for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+			lineNumber++;
+			if (line.isBlank()) {
+				continue;
+			}
+			if (csv && header == null) {
+				header = parseHeader(line);
+				continue;
+			}
+
+			try {
+				state.add(csv ? parseCsv(header, line) : parseJson(line), lineNumber);
+			}
+			catch (IllegalArgumentException e) {
+				state.reject(lineNumber, e.getMessage());
+			}
+
+			if (state.chunk.size() >= chunkSize) {
+				insert(state);
+			}
+		}
+		insert(state);
+
+		log.info("Imported {} customers and rejected {} in {} chunks in {} ms.", state.imported, state.rejected,
+				state.chunks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		return new CustomerImportResult(state.imported, state.rejected, state.chunks, state.errors);
+	}
+
+	/**
+	 * Inserts the current chunk in a transaction of its own, flushing it as JDBC batches, and starts the next one.
+	 */
+	private void insert(Import state) {
+
+		if (state.chunk.isEmpty()) {
+			return;
+		}
+
+		List<Customer> chunk = state.chunk;
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				chunk.forEach(entityManager::persist);
+				entityManager.flush();
+				entityManager.clear();
+			});
+			state.imported += chunk.size();
+		}
+		catch (RuntimeException e) {
+			state.rejected += chunk.size();
+			state.error(state.fromLine, state.toLine, "Failed to insert " + chunk.size() + " customers: "
+					+ NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+		}
+
+		state.chunks++;
+		state.chunk = new ArrayList<>(chunkSize);
+	}
+
+	private Customer parseJson(String line) {
+
+		try {
+			Customer customer = reader.readValue(line);
+			if (customer == null) {
+				throw new IllegalArgumentException("Invalid customer: " + line.trim());
+			}
+			customer.setId(null);
+			return customer;
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid customer: " + e.getOriginalMessage());
+		}
+	}
+
+	private static List<String> parseHeader(String line) {
+
+		List<String> header = split(line);
+		for (String column : header) {
+			if (!COLUMNS.contains(column)) {
+				throw new IllegalArgumentException(String.format("Unknown column %s, expected any of %s", column, COLUMNS));
+			}
+		}
+
+		return header;
+	}
+
+	private static Customer parseCsv(List<String> header, String line) {
+
+		List<String> values = split(line);
+		if (values.size() != header.size()) {
+			throw new IllegalArgumentException(
+					String.format("Expected %d values, got: %d", header.size(), values.size()));
+		}
+
+		String[] fields = new String[COLUMNS.size()];
+		for (int i = 0; i < header.size(); i++) {
+			String value = values.get(i).trim();
+			fields[COLUMNS.indexOf(header.get(i))] = value.isEmpty() ? null : value;
+		}
+
+		Location location = null;
+		if (fields[5] != null || fields[6] != null) {
+			if (fields[5] == null || fields[6] == null) {
+				throw new IllegalArgumentException("Latitude and longitude must be given together");
+			}
+			location = new Location(Double.parseDouble(fields[5]), Double.parseDouble(fields[6]));
+		}
+
+		Customer customer = new Customer();
+		customer.setFirstname(fields[0]);
+		customer.setLastname(fields[1]);
+		if (location != null || Arrays.stream(fields, 2, 5).anyMatch(field -> field != null)) {
+			customer.setAddress(new Address(fields[2], fields[3], fields[4], location));
+		}
+
+		return customer;
+	}
+
+	/**
+	 * Splits a line of CSV into its values, unquoting those in double quotes.
+	 */
+	static List<String> split(String line) {
+
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				}
+				else if (c == '"') {
+					quoted = false;
+				}
+				else {
+					value.append(c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			}
+			else {
+				value.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Unterminated quote");
+		}
+		values.add(value.toString());
+
+		return values;
+	}
+
+	/**
+	 * The state of an import in progress.
+	 */
+	private class Import {
+
+		private List<Customer> chunk = new ArrayList<>(chunkSize);
+		private final List<CustomerImportResult.Error> errors = new ArrayList<>();
+		private long imported, rejected;
+		private int chunks;
+		private long fromLine, toLine;
+
+		void add(Customer customer, long line) {
+
+			if (chunk.isEmpty()) {
+				fromLine = line;
+			}
+			chunk.add(customer);
+			toLine = line;
+		}
+
+		void reject(long line, String message) {
+			rejected++;
+			error(line, line, message);
+		}
+
+		void error(long from, long to, String message) {
+			if (errors.size() < maxErrors) {
+				errors.add(new CustomerImportResult.Error(chunks + 1, from, to, message));
+			}
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.rslakra.retailsuite.customers.geo.GeoHash;
+
+/**
+ * Finds the {@link Customer}s within a distance of a location, e.g. of a store. The circle searched is covered with at
+ * most {@link #getMaxCells()} geohash cells of the finest precision that allows, the cells are merged into ranges of
+ * geohashes scanned on the geohash index, and the candidates are filtered by their exact great-circle distance. Only
+ * the {@code limit} nearest customers are kept while the candidates are streamed, so memory use doesn't grow with the
+ * number of matches.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("customers.near")
+public class CustomerLocationSearch {
+
+	private final CustomerRepository repository;
+	private final EntityManager entityManager;
+
+	/**
+	 * Maximum number of geohash cells covering the circle searched.
+	 */
+	@Getter
+	@Setter
+	private int maxCells = 32;
+
+	/**
+	 * Maximum number of customers returned.
+	 */
+	@Getter
+	@Setter
+	private int maxLimit = 10000;
+
+	@Autowired
+	public CustomerLocationSearch(CustomerRepository repository, EntityManager entityManager) {
+		this.repository = repository;
+		this.entityManager = entityManager;
+	}
+
+	/**
+	 * Returns the customers within the given distance of the given location, nearest first.
+	 *
+	 * @param latitude
+	 * @param longitude
+	 * @param distance must have a metric like kilometers or miles.
+	 * @param limit the maximum number of customers returned.
+	 * @return
+	 * @throws IllegalArgumentException for a location, distance or limit out of range.
+	 */
+	@Transactional(readOnly = true)
+	public NearbyCustomers findNear(double latitude, double longitude, Distance distance, int limit) {
+
+		if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+			throw new IllegalArgumentException(
+					String.format("Location must be a latitude and longitude, got: %s,%s", latitude, longitude));
+		}
+		if (Metrics.NEUTRAL.equals(distance.getMetric()) || distance.getValue() <= 0) {
+			throw new IllegalArgumentException("Distance must be positive with a unit like km or mi, got: " + distance);
+		}
+		if (limit < 1 || limit > maxLimit) {
+			throw new IllegalArgumentException(String.format("Limit must be between 1 and %d, got: %d", maxLimit, limit));
+		}
+
+		double radians = Math.min(distance.getNormalizedValue(), Math.PI);
+		List<GeoHash.Range> ranges = GeoHash.ranges(cover(latitude, longitude, radians));
+
+		Comparator<NearbyCustomer> byDistance = Comparator.comparingDouble(NearbyCustomer::getDistance);
+		PriorityQueue<NearbyCustomer> nearest = new PriorityQueue<>(byDistance.reversed());
+		long matches = 0;
+		long candidates = 0;
+
+		try (Stream<Customer> customers = repository.streamByGeohashIn(ranges)) {
+			for (Customer customer : (Iterable<Customer>) customers::iterator) {
+				candidates++;
+				entityManager.detach(customer);
+
+				Location location = customer.getAddress().getLocation();
+				double angle = angularDistance(latitude, longitude, location.getLatitude(), location.getLongitude());
+				if (angle > radians) {
+					continue;
+				}
+
+				matches++;
+				double value = angle * distance.getMetric().getMultiplier();
+				if (nearest.size() < limit || value < nearest.peek().getDistance()) {
+					nearest.add(new NearbyCustomer(customer, value, distance.getMetric().getAbbreviation()));
+					if (nearest.size() > limit) {
+						nearest.poll();
+					}
+				}
+			}
+		}
+
+		List<NearbyCustomer> result = new ArrayList<>(nearest);
+		result.sort(byDistance);
+		log.debug("Found {} of {} candidates in {} geohash ranges within {} of {},{}.", matches, candidates,
+				ranges.size(), distance, latitude, longitude);
+
+		return new NearbyCustomers(result, matches, candidates);
+	}
+
+	/**
+	 * Returns the geohashes of the cells covering the circle of the given angular radius around the given location, of
+	 * the finest precision requiring at most {@link #getMaxCells()} cells.
+	 *
+	 * @param latitude
+	 * @param longitude
+	 * @param radians
+	 * @return
+	 */
+	List<String> cover(double latitude, double longitude, double radians) {
+
+		double south = latitude - Math.toDegrees(radians);
+		double north = latitude + Math.toDegrees(radians);
+		double west = -180, east = 180;
+
+		double sin = Math.sin(radians), cos = Math.cos(Math.toRadians(latitude));
+		if (south > -90 && north < 90 && sin < cos) {
+			double span = Math.toDegrees(Math.asin(sin / cos));
+			west = longitude - span;
+			east = longitude + span;
+		}
+		south = Math.max(south, -90);
+		north = Math.min(north, 90);
+
+		int precision = GeoHash.PRECISION;
+		while (precision > 1 && (Math.ceil((east - west) / GeoHash.cellWidth(precision)) + 1)
+				* (Math.ceil((north - south) / GeoHash.cellHeight(precision)) + 1) > maxCells) {
+			precision--;
+		}
+
+		return GeoHash.cover(south, west, north, east, precision);
+	}
+
+	/**
+	 * Returns the great-circle distance between the given locations in radians.
+	 *
+	 * @param lat1
+	 * @param lon1
+	 * @param lat2
+	 * @param lon2
+	 * @return
+	 */
+	static double angularDistance(double lat1, double lon1, double lat2, double lon2) {
+
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLon = Math.toRadians(lon2 - lon1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+				* Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+		return 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+	}
+}
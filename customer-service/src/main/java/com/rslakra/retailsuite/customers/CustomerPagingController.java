@@ -0,0 +1,51 @@
+package com.rslakra.retailsuite.customers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to scroll through the {@link Customer}s with cursors instead of page numbers and to export all of them as
+ * newline-delimited JSON. Both read the customer table in bounded chunks however large it is.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CustomerPagingController {
+
+	private final CustomerScroll scroll;
+	private final CustomerExporter exporter;
+
+	@GetMapping("/customers/scroll")
+	public CustomerWindow scroll(@RequestParam(name = "sort", defaultValue = "lastname") String sort,
+			@RequestParam(name = "size", defaultValue = "20") int size,
+			@RequestParam(name = "cursor", required = false) String cursor) {
+		return scroll.scroll(sort, size, cursor);
+	}
+
+	@GetMapping(value = "/customers/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void export(@RequestParam(name = "after", required = false) Long after, HttpServletResponse response)
+			throws IOException {
+
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		exporter.export(after, response.getOutputStream());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+		return ResponseEntity.badRequest().body(e.getMessage());
+	}
+}
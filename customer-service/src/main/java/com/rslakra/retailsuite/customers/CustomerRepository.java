@@ -1,11 +1,83 @@
-
 package com.rslakra.retailsuite.customers;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.AvailableHints;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.rest.core.annotation.RestResource;
 
 /**
  * @author Rohtash Lakra
  */
-public interface CustomerRepository extends CrudRepository<Customer, Long> {
+public interface CustomerRepository
+		extends CrudRepository<Customer, Long>, PagingAndSortingRepository<Customer, Long>, CustomerRepositoryCustom {
+
+	/**
+	 * Number of customers fetched from the database per round trip when streaming.
+	 */
+	String FETCH_SIZE = "1000";
+
+	/**
+	 * Returns the window of customers with a last name after the given position in the given order.
+	 *
+	 * @param position
+	 * @param sort
+	 * @param limit
+	 * @return
+	 */
+	@RestResource(exported = false)
+	Window<Customer> findByLastnameNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+	/**
+	 * Returns the window of customers with a city after the given position in the given order.
+	 *
+	 * @param position
+	 * @param sort
+	 * @param limit
+	 * @return
+	 */
+	@RestResource(exported = false)
+	Window<Customer> findByAddressCityNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+	/**
+	 * Returns the window of customers with a zip code after the given position in the given order.
+	 *
+	 * @param position
+	 * @param sort
+	 * @param limit
+	 * @return
+	 */
+	@RestResource(exported = false)
+	Window<Customer> findByAddressZipCodeNotNull(ScrollPosition position, Sort sort, Limit limit);
+
+	/**
+	 * Streams the customers with an id greater than the given one in id order, fetching {@value #FETCH_SIZE} at a time.
+	 * Has to be consumed within a transaction and closed.
+	 *
+	 * @param id
+	 * @return
+	 */
+	@RestResource(exported = false)
+	@QueryHints({ @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+			@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true") })
+	Stream<Customer> streamByIdGreaterThanOrderById(Long id);
 
+	/**
+	 * Returns the next 1000 customers after the given id without a geohash, in id order.
+	 *
+	 * @param id
+	 * @return
+	 */
+	@RestResource(exported = false)
+	List<Customer> findTop1000ByIdGreaterThanAndGeohashIsNullOrderById(Long id);
 }
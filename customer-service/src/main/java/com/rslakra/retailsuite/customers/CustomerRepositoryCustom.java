@@ -0,0 +1,23 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.rslakra.retailsuite.customers.geo.GeoHash;
+
+/**
+ * Custom repository methods for {@link Customer}s.
+ *
+ * @author Rohtash Lakra
+ */
+public interface CustomerRepositoryCustom {
+
+	/**
+	 * Streams the customers whose geohash falls into any of the given ranges, each range being scanned on the geohash
+	 * index. Has to be consumed within a transaction and closed.
+	 *
+	 * @param ranges must not be empty.
+	 * @return
+	 */
+	Stream<Customer> streamByGeohashIn(List<GeoHash.Range> ranges);
+}
@@ -0,0 +1,59 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hibernate.jpa.AvailableHints;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.rslakra.retailsuite.customers.geo.GeoHash;
+
+/**
+ * Implementation of {@link CustomerRepositoryCustom}.
+ *
+ * @author Rohtash Lakra
+ */
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+	private final EntityManager entityManager;
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.rslakra.retailsuite.customers.CustomerRepositoryCustom#streamByGeohashIn(java.util.List)
+	 */
+	@Override
+	public Stream<Customer> streamByGeohashIn(List<GeoHash.Range> ranges) {
+
+		if (ranges.isEmpty()) {
+			throw new IllegalArgumentException("At least one geohash range is required");
+		}
+
+		StringBuilder jpql = new StringBuilder("select c from Customer c where ");
+		for (int i = 0; i < ranges.size(); i++) {
+			jpql.append(i == 0 ? "(" : " or (").append("c.geohash >= :from").append(i);
+			if (ranges.get(i).getTo() != null) {
+				jpql.append(" and c.geohash < :to").append(i);
+			}
+			jpql.append(")");
+		}
+
+		TypedQuery<Customer> query = entityManager.createQuery(jpql.toString(), Customer.class)
+				.setHint(AvailableHints.HINT_FETCH_SIZE, Integer.valueOf(CustomerRepository.FETCH_SIZE))
+				.setHint(AvailableHints.HINT_READ_ONLY, true);
+		for (int i = 0; i < ranges.size(); i++) {
+			query.setParameter("from" + i, ranges.get(i).getFrom());
+			if (ranges.get(i).getTo() != null) {
+				query.setParameter("to" + i, ranges.get(i).getTo());
+			}
+		}
+
+		return query.getResultStream();
+	}
+}
@@ -0,0 +1,136 @@
+package com.rslakra.retailsuite.customers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Scrolls through the {@link Customer}s ordered by one of the indexed sort keys with keyset pagination: every window
+ * is fetched by seeking past the sort key and id of the last customer of the previous one, so deep windows cost as much
+ * as the first one. The cursor handed out is the keyset of the last customer, encoded as base64url JSON. Customers
+ * without a value for the sort key are skipped.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@ConfigurationProperties("customers.scroll")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CustomerScroll {
+
+	/**
+	 * The sort keys customers can be scrolled by and the properties they stand for.
+	 */
+	static final Map<String, String> SORT_KEYS = Map.of("lastname", "lastname", "city", "address.city", "zip",
+			"address.zipCode");
+
+	private static final String ID = "id";
+
+	private final CustomerRepository repository;
+	private final ObjectMapper mapper;
+
+	/**
+	 * Maximum number of customers per window.
+	 */
+	@Getter
+	@Setter
+	private int maxSize = 1000;
+
+	/**
+	 * Returns the window of customers after the given cursor in the order of the given sort key.
+	 *
+	 * @param sortKey one of {@code lastname}, {@code city} and {@code zip}.
+	 * @param size
+	 * @param cursor the cursor of the previous window, may be {@literal null} to start with the first customer.
+	 * @return
+	 * @throws IllegalArgumentException for an unknown sort key, a size out of range or an invalid cursor.
+	 */
+	public CustomerWindow scroll(String sortKey, int size, String cursor) {
+
+		String property = SORT_KEYS.get(sortKey);
+		if (property == null) {
+			throw new IllegalArgumentException(String.format("Sort key must be one of %s, got: %s",
+					SORT_KEYS.keySet(), sortKey));
+		}
+		if (size < 1 || size > maxSize) {
+			throw new IllegalArgumentException(String.format("Size must be between 1 and %d, got: %d", maxSize, size));
+		}
+
+		ScrollPosition position = cursor == null ? ScrollPosition.keyset() : decode(cursor, property);
+		Sort sort = Sort.by(property, ID);
+		Window<Customer> window = switch (sortKey) {
+			case "city" -> repository.findByAddressCityNotNull(position, sort, Limit.of(size));
+			case "zip" -> repository.findByAddressZipCodeNotNull(position, sort, Limit.of(size));
+			default -> repository.findByLastnameNotNull(position, sort, Limit.of(size));
+		};
+
+		String next = null;
+		if (window.hasNext() && !window.isEmpty()) {
+			next = encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+		}
+
+		return new CustomerWindow(window.getContent(), next);
+	}
+
+	/**
+	 * Encodes the given position as a cursor.
+	 *
+	 * @param position
+	 * @return
+	 */
+	String encode(KeysetScrollPosition position) {
+
+		Map<String, String> keys = new LinkedHashMap<>();
+		position.getKeys().forEach((key, value) -> keys.put(key, value == null ? null : value.toString()));
+
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(mapper.writeValueAsBytes(keys));
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to encode a customer cursor", e);
+		}
+	}
+
+	/**
+	 * Decodes the given cursor into the position after the customer it was handed out for.
+	 *
+	 * @param cursor
+	 * @param property the property the customers are ordered by.
+	 * @return
+	 * @throws IllegalArgumentException if the cursor is invalid or for another sort key.
+	 */
+	KeysetScrollPosition decode(String cursor, String property) {
+
+		try {
+			Map<String, String> keys = mapper.readValue(new String(Base64.getUrlDecoder().decode(cursor),
+					StandardCharsets.UTF_8), new TypeReference<LinkedHashMap<String, String>>() {});
+			if (keys.size() != 2 || keys.get(property) == null || keys.get(ID) == null) {
+				throw new IllegalArgumentException("Cursor doesn't match the sort key: " + cursor);
+			}
+
+			Map<String, Object> position = new LinkedHashMap<>(keys);
+			position.put(ID, Long.valueOf(keys.get(ID)));
+			return ScrollPosition.forward(position);
+		}
+		catch (JsonProcessingException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.rslakra.retailsuite.customers;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.format.DistanceFormatter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to find the {@link Customer}s near a location, e.g. those living within a few kilometers of a store.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CustomerSearchController {
+
+	private final CustomerLocationSearch search;
+
+	@GetMapping("/customers/search/near")
+	public NearbyCustomers findNear(@RequestParam("location") String location,
+			@RequestParam("distance") String distance,
+			@RequestParam(name = "limit", defaultValue = "100") int limit) {
+
+		String[] coordinates = location.split(",");
+		if (coordinates.length != 2) {
+			throw new IllegalArgumentException("Location must be given as latitude,longitude, got: " + location);
+		}
+
+		return search.findNear(Double.parseDouble(coordinates[0].trim()), Double.parseDouble(coordinates[1].trim()),
+				toDistance(distance), limit);
+	}
+
+	/**
+	 * Parses a distance like {@code 5km} or {@code 3mi}.
+	 *
+	 * @param distance
+	 * @return
+	 */
+	static Distance toDistance(String distance) {
+		return DistanceFormatter.INSTANCE.convert(distance.trim());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+		return ResponseEntity.badRequest().body(e.getMessage());
+	}
+}
@@ -0,0 +1,19 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * A window of {@link Customer}s along with the opaque cursor to fetch the next window, which is {@literal null} on the
+ * last one. Unlike a page it tells neither the total number of customers nor the number of pages, so it never requires a
+ * count query.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class CustomerWindow {
+
+	private final List<Customer> content;
+	private final String next;
+}
@@ -0,0 +1,29 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+
+import com.rslakra.retailsuite.customers.integration.NearbyStore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.rest.core.config.Projection;
+
+/**
+ * Projection of a {@link Customer} embedding the stores nearest to it, e.g. {@code /customers?projection=withNearbyStores}.
+ * The stores of all customers of a page are looked up with a single call to the store-service.
+ *
+ * @author Rohtash Lakra
+ */
+@Projection(name = "withNearbyStores", types = Customer.class)
+public interface CustomerWithNearbyStores {
+
+	Long getId();
+
+	String getFirstname();
+
+	String getLastname();
+
+	Address getAddress();
+
+	@Value("#{@nearbyStoreLookup.find(target)}")
+	List<NearbyStore> getNearbyStores();
+}
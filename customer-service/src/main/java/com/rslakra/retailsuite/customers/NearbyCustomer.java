@@ -0,0 +1,16 @@
+package com.rslakra.retailsuite.customers;
+
+import lombok.Value;
+
+/**
+ * A {@link Customer} along with its distance to the location searched for.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class NearbyCustomer {
+
+	private final Customer customer;
+	private final double distance;
+	private final String unit;
+}
@@ -0,0 +1,19 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * The {@link Customer}s nearest to a location ordered by distance, along with the number of customers within the
+ * distance searched and the number of candidates read from the geohash ranges to find them.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class NearbyCustomers {
+
+	private final List<NearbyCustomer> customers;
+	private final long matches;
+	private final long candidates;
+}
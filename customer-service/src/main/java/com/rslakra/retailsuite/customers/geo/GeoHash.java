@@ -0,0 +1,207 @@
+package com.rslakra.retailsuite.customers.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import lombok.Value;
+
+/**
+ * Geohash encoding: each character of a geohash halves the cell of its prefix five times, alternating between longitude
+ * and latitude, so that a geohash names a cell of the world and each of its prefixes names an enclosing cell. As the
+ * characters of the {@link #ALPHABET} sort like the cells they name, the geohashes within a cell form a contiguous range
+ * of strings, which a B-tree index on a geohash column scans directly.
+ *
+ * @author Rohtash Lakra
+ */
+public final class GeoHash {
+
+	/**
+	 * The characters of a geohash in the order of the cells they name.
+	 */
+	public static final String ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+	/**
+	 * The precision of the geohashes stored, cells of about 3.7 by 1.9 cm.
+	 */
+	public static final int PRECISION = 12;
+
+	private GeoHash() {
+	}
+
+	/**
+	 * Returns the geohash of the given precision for the given location.
+	 *
+	 * @param latitude
+	 * @param longitude
+	 * @param precision
+	 * @return
+	 */
+	public static String encode(double latitude, double longitude, int precision) {
+
+		double south = -90, north = 90, west = -180, east = 180;
+		boolean isLongitude = true;
+		StringBuilder hash = new StringBuilder(precision);
+
+		while (hash.length() < precision) {
+			int index = 0;
+			for (int bit = 4; bit >= 0; bit--) {
+				if (isLongitude) {
+					double middle = (west + east) / 2;
+					if (longitude >= middle) {
+						index |= 1 << bit;
+						west = middle;
+					}
+					else {
+						east = middle;
+					}
+				}
+				else {
+					double middle = (south + north) / 2;
+					if (latitude >= middle) {
+						index |= 1 << bit;
+						south = middle;
+					}
+					else {
+						north = middle;
+					}
+				}
+				isLongitude = !isLongitude;
+			}
+			hash.append(ALPHABET.charAt(index));
+		}
+
+		return hash.toString();
+	}
+
+	/**
+	 * Returns the height of the cells of the given precision in degrees of latitude.
+	 *
+	 * @param precision
+	 * @return
+	 */
+	public static double cellHeight(int precision) {
+		return 180 / Math.pow(2, (5 * precision) / 2);
+	}
+
+	/**
+	 * Returns the width of the cells of the given precision in degrees of longitude.
+	 *
+	 * @param precision
+	 * @return
+	 */
+	public static double cellWidth(int precision) {
+		return 360 / Math.pow(2, (5 * precision + 1) / 2);
+	}
+
+	/**
+	 * Returns the geohashes of the cells of the given precision overlapping the given box, in order. The box may extend
+	 * beyond the antimeridian, in which case it wraps around.
+	 *
+	 * @param south
+	 * @param west
+	 * @param north
+	 * @param east
+	 * @param precision
+	 * @return
+	 */
+	public static List<String> cover(double south, double west, double north, double east, int precision) {
+
+		double height = cellHeight(precision);
+		double width = cellWidth(precision);
+		double top = Math.min(north, Math.nextDown(90.0));
+		if (east - west >= 360) {
+			west = -180;
+			east = Math.nextDown(180.0);
+		}
+
+		TreeSet<String> cells = new TreeSet<>();
+		for (double latitude = Math.max(south, -90); ; latitude = Math.min(latitude + height, top)) {
+			for (double longitude = west; ; longitude = Math.min(longitude + width, east)) {
+				cells.add(encode(latitude, wrap(longitude), precision));
+				if (longitude >= east) {
+					break;
+				}
+			}
+			if (latitude >= top) {
+				break;
+			}
+		}
+
+		return new ArrayList<>(cells);
+	}
+
+	/**
+	 * Returns the smallest string greater than all geohashes within the cell of the given geohash, or {@literal null}
+	 * if there is none.
+	 *
+	 * @param hash
+	 * @return
+	 */
+	public static String upperBound(String hash) {
+
+		for (int i = hash.length() - 1; i >= 0; i--) {
+			int index = ALPHABET.indexOf(hash.charAt(i));
+			if (index < ALPHABET.length() - 1) {
+				return hash.substring(0, i) + ALPHABET.charAt(index + 1);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Merges the cells of the given ordered geohashes into as few ranges as possible.
+	 *
+	 * @param hashes
+	 * @return
+	 */
+	public static List<Range> ranges(List<String> hashes) {
+
+		List<Range> ranges = new ArrayList<>();
+		for (String hash : hashes) {
+			Range last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+			if (last != null && adjoins(last.getTo(), hash)) {
+				ranges.set(ranges.size() - 1, new Range(last.getFrom(), upperBound(hash)));
+			}
+			else {
+				ranges.add(new Range(hash, upperBound(hash)));
+			}
+		}
+
+		return ranges;
+	}
+
+	/**
+	 * Returns whether no geohash of full precision sorts between the given upper bound and the given geohash, e.g.
+	 * between {@code dr6} and {@code dr60}.
+	 */
+	private static boolean adjoins(String to, String hash) {
+
+		if (to == null || !hash.startsWith(to)) {
+			return false;
+		}
+		for (int i = to.length(); i < hash.length(); i++) {
+			if (hash.charAt(i) != ALPHABET.charAt(0)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static double wrap(double longitude) {
+		return longitude >= 180 || longitude < -180 ? ((longitude + 540) % 360 + 360) % 360 - 180 : longitude;
+	}
+
+	/**
+	 * A range of geohashes, from the given one inclusive up to the given one exclusive or without upper bound if
+	 * {@literal null}.
+	 */
+	@Value
+	public static class Range {
+
+		private final String from;
+		private final String to;
+	}
+}
@@ -0,0 +1,164 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.rslakra.retailsuite.customers.Customer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enriches the {@link Customer}s rendered by a request concurrently. For requests marked by {@link #defer(HttpServletRequest)},
+ * every link is looked up on its own virtual thread as soon as the customer is processed, and all lookups of the request
+ * are awaited together right before the response is written, until at most {@link #getTimeout()} after the first one
+ * started. Customers whose link isn't there by then are rendered without it. Everywhere else, the link is looked up and
+ * added right away.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("integration.enrichment")
+public class CustomerEnrichment {
+
+	private static final String DEFERRED = CustomerEnrichment.class.getName() + ".DEFERRED";
+	private static final String PENDING = CustomerEnrichment.class.getName() + ".PENDING";
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Time to wait for the links of all customers of a request, counted from the first lookup.
+	 */
+	@Getter
+	@Setter
+	private Duration timeout = Duration.ofMillis(500);
+
+	/**
+	 * Marks the given request as one whose response is written through {@link #await(HttpServletRequest)}, so that the
+	 * links of its customers can be looked up concurrently.
+	 *
+	 * @param request
+	 */
+	public void defer(HttpServletRequest request) {
+		request.setAttribute(DEFERRED, Boolean.TRUE);
+	}
+
+	/**
+	 * Starts looking up a link for the given customer resource, to be added by {@link #await(HttpServletRequest)}, if
+	 * the request has been marked by {@link #defer(HttpServletRequest)}. Otherwise the link is looked up and added right
+	 * away.
+	 *
+	 * @param request may be {@literal null}.
+	 * @param model
+	 * @param link
+	 */
+	public void enrich(HttpServletRequest request, EntityModel<Customer> model, Supplier<Link> link) {
+
+		if (request == null || request.getAttribute(DEFERRED) == null) {
+			add(model, link.get());
+			return;
+		}
+
+		Pending pending = (Pending) request.getAttribute(PENDING);
+		if (pending == null) {
+			pending = new Pending(System.nanoTime() + timeout.toNanos());
+			request.setAttribute(PENDING, pending);
+		}
+
+		pending.models.add(model);
+		pending.links.add(CompletableFuture.supplyAsync(link, executor));
+	}
+
+	/**
+	 * Waits for the links looked up for the given request until the deadline and adds those found to their customers.
+	 *
+	 * @param request
+	 */
+	public void await(HttpServletRequest request) {
+
+		Pending pending = (Pending) request.getAttribute(PENDING);
+		if (pending == null) {
+			return;
+		}
+		request.removeAttribute(PENDING);
+
+		int missed = 0;
+		for (int i = 0; i < pending.links.size(); i++) {
+			CompletableFuture<Link> link = pending.links.get(i);
+			try {
+				add(pending.models.get(i), link.get(Math.max(0, pending.deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+			}
+			catch (TimeoutException | ExecutionException e) {
+				link.cancel(true);
+				missed++;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				pending.links.forEach(future -> future.cancel(true));
+				return;
+			}
+		}
+
+		if (missed > 0) {
+			log.warn("Rendering {} of {} customers without a stores-nearby link, not found within {}.", missed,
+					pending.links.size(), timeout);
+		}
+	}
+
+	/**
+	 * Cancels the lookups of the given request that haven't been awaited, e.g. because handling it failed before the
+	 * response was written.
+	 *
+	 * @param request
+	 */
+	public void cancel(HttpServletRequest request) {
+
+		Pending pending = (Pending) request.getAttribute(PENDING);
+		if (pending != null) {
+			request.removeAttribute(PENDING);
+			pending.links.forEach(link -> link.cancel(true));
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static void add(EntityModel<Customer> model, Link link) {
+		if (link != null) {
+			model.add(link.withRel("stores-nearby"));
+		}
+	}
+
+	/**
+	 * The links being looked up for a request, in the order of their customers.
+	 */
+	private static class Pending {
+
+		private final long deadline;
+		private final List<EntityModel<Customer>> models = new ArrayList<>();
+		private final List<CompletableFuture<Link>> links = new ArrayList<>();
+
+		private Pending(long deadline) {
+			this.deadline = deadline;
+		}
+	}
+}
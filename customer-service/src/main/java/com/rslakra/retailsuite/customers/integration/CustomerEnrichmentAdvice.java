@@ -0,0 +1,81 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Waits for the customer enrichments started while processing a response right before it is written, once for all
+ * customers of a page. As a {@link HandlerInterceptor}, registered for all handler mappings including those of Spring
+ * Data REST, it marks the requests it handles for deferred enrichment before their handler runs, and cancels the
+ * lookups left over when a request completes without its body having been written.
+ *
+ * @author Rohtash Lakra
+ * @see CustomerEnrichment
+ * @see CustomerEnrichmentConfiguration
+ */
+@ControllerAdvice
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class CustomerEnrichmentAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+	private final CustomerEnrichment enrichment;
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.web.servlet.HandlerInterceptor#preHandle(jakarta.servlet.http.HttpServletRequest, jakarta.servlet.http.HttpServletResponse, java.lang.Object)
+	 */
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+		enrichment.defer(request);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.web.servlet.HandlerInterceptor#afterCompletion(jakarta.servlet.http.HttpServletRequest, jakarta.servlet.http.HttpServletResponse, java.lang.Object, java.lang.Exception)
+	 */
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception exception) {
+		enrichment.cancel(request);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice#supports(org.springframework.core.MethodParameter, java.lang.Class)
+	 */
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice#beforeBodyWrite(java.lang.Object, org.springframework.core.MethodParameter, org.springframework.http.MediaType, java.lang.Class, org.springframework.http.server.ServerHttpRequest, org.springframework.http.server.ServerHttpResponse)
+	 */
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+
+		if (request instanceof ServletServerHttpRequest servletRequest) {
+			HttpServletRequest httpRequest = servletRequest.getServletRequest();
+			enrichment.await(httpRequest);
+		}
+
+		return body;
+	}
+}
@@ -0,0 +1,21 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+/**
+ * Registers the {@link CustomerEnrichmentAdvice} as a {@link MappedInterceptor}, which, unlike interceptors added
+ * through a {@link org.springframework.web.servlet.config.annotation.WebMvcConfigurer}, is picked up by the handler
+ * mappings of Spring Data REST as well.
+ *
+ * @author Rohtash Lakra
+ */
+@Configuration(proxyBeanMethods = false)
+class CustomerEnrichmentConfiguration {
+
+	@Bean
+	MappedInterceptor customerEnrichmentInterceptor(CustomerEnrichmentAdvice advice) {
+		return new MappedInterceptor(null, advice);
+	}
+}
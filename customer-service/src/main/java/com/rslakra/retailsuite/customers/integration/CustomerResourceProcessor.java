@@ -10,14 +10,17 @@ import com.rslakra.retailsuite.customers.Customer;
 import com.rslakra.retailsuite.customers.Location;
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityModel;
-import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelProcessor;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
+ * Adds a {@code stores-nearby} link to every {@link Customer} with a location. The links of all customers rendered by
+ * a request marked by the {@link CustomerEnrichmentAdvice} are looked up concurrently by {@link CustomerEnrichment}.
+ *
  * @author Rohtash Lakra
  */
 @Component
@@ -26,7 +29,7 @@ public class CustomerResourceProcessor implements RepresentationModelProcessor<E
 
 	private static final String X_FORWARDED_HOST = "X-Forwarded-Host";
 	private final StoreIntegration storeIntegration;
-	private final ObjectProvider<HttpServletRequest> request;
+	private final CustomerEnrichment enrichment;
 
 	@Override
 	public EntityModel<Customer> process(EntityModel<Customer> model) {
@@ -38,11 +41,11 @@ public class CustomerResourceProcessor implements RepresentationModelProcessor<E
 				Map<String, Object> parameters = new HashMap<>();
 				parameters.put("location", String.format("%s,%s", location.getLatitude(), location.getLongitude()));
 				parameters.put("distance", "50km");
-				String host = this.request.getIfAvailable() != null ? this.request.getIfAvailable().getHeader(X_FORWARDED_HOST) : null;
-				Link link = this.storeIntegration.getStoresByLocationLink(parameters, host);
-				if (link != null) {
-					model.add(link.withRel("stores-nearby"));
-				}
+				// no request attributes outside of a request, e.g. when processing models on another thread
+				HttpServletRequest request = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+						? attributes.getRequest() : null;
+				String host = request != null ? request.getHeader(X_FORWARDED_HOST) : null;
+				this.enrichment.enrich(request, model, () -> this.storeIntegration.getStoresByLocationLink(parameters, host));
 			}
 		}
 
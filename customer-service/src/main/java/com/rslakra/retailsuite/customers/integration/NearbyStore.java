@@ -0,0 +1,51 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Data;
+
+/**
+ * A store found near a customer by the store-service, along with its distance.
+ *
+ * @author Rohtash Lakra
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NearbyStore {
+
+	private Store store;
+	private double distance;
+	private String unit;
+
+	/**
+	 * The parts of a store embedded in a customer.
+	 */
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Store {
+
+		private String id, name;
+		private Address address;
+	}
+
+	/**
+	 * The address of a store, its location given as {@code x} (longitude) and {@code y} (latitude).
+	 */
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Address {
+
+		private String street, city, zip;
+		private Point location;
+	}
+
+	/**
+	 * A point as rendered by the store-service.
+	 */
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Point {
+
+		private double x, y;
+	}
+}
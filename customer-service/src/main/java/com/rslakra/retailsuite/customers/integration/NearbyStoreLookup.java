@@ -0,0 +1,162 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.rslakra.retailsuite.customers.Customer;
+import com.rslakra.retailsuite.customers.Location;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Looks up the stores nearest to the {@link Customer}s rendered by a request in batches. Customers are grouped by the
+ * grid cell of {@link #getCellDegrees()} their location falls into and share the stores nearest to the center of that
+ * cell. The cells of all customers {@link #register(Customer) registered} while processing a response are looked up with
+ * a single call to the store-service the first time the stores of one of them are {@link #find(Customer) asked for},
+ * i.e. when the first customer is serialized, in as many calls as {@link #getMaxLocations()} requires.
+ *
+ * @author Rohtash Lakra
+ */
+@Component("nearbyStoreLookup")
+@ConfigurationProperties("integration.nearby-stores")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class NearbyStoreLookup {
+
+	private static final String BATCH = NearbyStoreLookup.class.getName() + ".BATCH";
+
+	private final StoreIntegration storeIntegration;
+
+	/**
+	 * Number of stores embedded per customer.
+	 */
+	@Getter
+	@Setter
+	private int limit = 3;
+
+	/**
+	 * Maximum distance of the stores embedded.
+	 */
+	@Getter
+	@Setter
+	private String distance = "50km";
+
+	/**
+	 * Size of the grid cells customers are grouped by, in degrees of latitude and longitude.
+	 */
+	@Getter
+	@Setter
+	private double cellDegrees = 0.01;
+
+	/**
+	 * Maximum number of cells looked up per call, at most the {@code stores.search.max-locations} of the store-service.
+	 */
+	@Getter
+	@Setter
+	private int maxLocations = 1000;
+
+	/**
+	 * Registers the given customer for the next batched lookup of the current request.
+	 *
+	 * @param customer
+	 */
+	public void register(Customer customer) {
+
+		String cell = cell(customer);
+		if (cell != null) {
+			Batch batch = batch();
+			if (!batch.stores.containsKey(cell)) {
+				batch.pending.add(cell);
+			}
+		}
+	}
+
+	/**
+	 * Returns the stores nearest to the given customer, looking up those of all customers registered so far if
+	 * necessary.
+	 *
+	 * @param customer
+	 * @return
+	 */
+	public List<NearbyStore> find(Customer customer) {
+
+		String cell = cell(customer);
+		if (cell == null) {
+			return Collections.emptyList();
+		}
+
+		Batch batch = batch();
+		if (!batch.stores.containsKey(cell)) {
+			batch.pending.add(cell);
+			List<String> pending = new ArrayList<>(batch.pending);
+			for (int start = 0; start < pending.size(); start += maxLocations) {
+				List<String> cells = pending.subList(start, Math.min(start + maxLocations, pending.size()));
+				List<List<NearbyStore>> stores = storeIntegration.findNearbyStores(cells, distance, limit);
+				for (int i = 0; i < cells.size(); i++) {
+					batch.stores.put(cells.get(i), stores.get(i));
+				}
+			}
+			batch.pending.clear();
+		}
+
+		return batch.stores.get(cell);
+	}
+
+	/**
+	 * Returns the center of the grid cell of the given customer's location as {@code latitude,longitude}, or
+	 * {@literal null} if the customer has no location.
+	 *
+	 * @param customer
+	 * @return
+	 */
+	String cell(Customer customer) {
+
+		if (customer == null || customer.getAddress() == null || customer.getAddress().getLocation() == null) {
+			return null;
+		}
+
+		Location location = customer.getAddress().getLocation();
+		return String.format(Locale.ROOT, "%.6f,%.6f", center(location.getLatitude()), center(location.getLongitude()));
+	}
+
+	private double center(double degrees) {
+		return (Math.floor(degrees / cellDegrees) + 0.5) * cellDegrees;
+	}
+
+	private static Batch batch() {
+
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return new Batch();
+		}
+
+		Batch batch = (Batch) attributes.getAttribute(BATCH, RequestAttributes.SCOPE_REQUEST);
+		if (batch == null) {
+			batch = new Batch();
+			attributes.setAttribute(BATCH, batch, RequestAttributes.SCOPE_REQUEST);
+		}
+
+		return batch;
+	}
+
+	/**
+	 * The cells of a request, looked up or waiting for the next lookup.
+	 */
+	private static class Batch {
+
+		private final Set<String> pending = new LinkedHashSet<>();
+		private final Map<String, List<NearbyStore>> stores = new HashMap<>();
+	}
+}
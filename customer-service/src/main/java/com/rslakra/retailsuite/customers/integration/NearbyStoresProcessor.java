@@ -0,0 +1,34 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import com.rslakra.retailsuite.customers.Customer;
+import com.rslakra.retailsuite.customers.CustomerWithNearbyStores;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.projection.TargetAware;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.RepresentationModelProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers every {@link Customer} rendered with the {@link CustomerWithNearbyStores} projection for the batched lookup
+ * of its nearby stores, so the stores of a whole page are looked up together.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class NearbyStoresProcessor implements RepresentationModelProcessor<EntityModel<CustomerWithNearbyStores>> {
+
+	private final NearbyStoreLookup lookup;
+
+	@Override
+	public EntityModel<CustomerWithNearbyStores> process(EntityModel<CustomerWithNearbyStores> model) {
+
+		if (model.getContent() instanceof TargetAware projection && projection.getTarget() instanceof Customer customer) {
+			lookup.register(customer);
+		}
+
+		return model;
+	}
+}
@@ -3,8 +3,23 @@ package com.rslakra.retailsuite.customers.integration;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -13,16 +28,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.context.event.EventListener;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.client.Traverson;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 
 /**
+ * Builds links to the stores near a location. The URI template of the store-service's {@code by-location} search is
+ * discovered by following {@code stores -> search -> by-location} once per store-service instance and then expanded
+ * locally for every customer. Discovered templates are refreshed in the background every {@link #getRefreshInterval()}
+ * and dropped as soon as their instance leaves the service registry. The stores near many locations are looked up with
+ * a single call to {@code stores/search/by-locations}. All calls to the store-service time out after
+ * {@link #getConnectTimeout()} and {@link #getReadTimeout()}.
+ *
  * @author Rohtash Lakra
  */
 @Component
@@ -31,45 +61,202 @@ import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class StoreIntegration {
 
+	private static final String STORES = "stores";
+
 	private final LoadBalancerClient loadBalancer;
+	private final DiscoveryClient discoveryClient;
+	private final Map<URI, Link> templates = new ConcurrentHashMap<>();
+	private RestTemplate restTemplate;
+	private RestTemplate halRestTemplate;
+	private ScheduledExecutorService executor;
+
+	@Getter
+	@Setter
+	private String uri = "http://localhost:8081";
+
+	/**
+	 * How often to discover the URI templates of the known store-service instances again.
+	 */
+	@Getter
+	@Setter
+	private Duration refreshInterval = Duration.ofMinutes(5);
 
+	/**
+	 * Time to wait for a connection to the store-service.
+	 */
 	@Getter
 	@Setter
-	private String uri = "http://localhost:8081/stores";
+	private Duration connectTimeout = Duration.ofSeconds(2);
+
+	/**
+	 * Time to wait for a response of the store-service.
+	 */
+	@Getter
+	@Setter
+	private Duration readTimeout = Duration.ofSeconds(5);
+
+	@PostConstruct
+	public void initialize() {
+		// not built by the auto-configured RestTemplateBuilder, whose message converters depend on the customer
+		// resource processors, and so on this integration
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(connectTimeout);
+		requestFactory.setReadTimeout(readTimeout);
+		restTemplate = new RestTemplate(requestFactory);
+		halRestTemplate = new RestTemplate(Traverson.getDefaultMessageConverters(MediaTypes.HAL_JSON));
+		halRestTemplate.setRequestFactory(requestFactory);
+
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "store-integration");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = refreshInterval.toMillis();
+		executor.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
 
 	@CircuitBreaker(name = "storeIntegration", fallbackMethod = "defaultLink")
 	public Link getStoresByLocationLink(Map<String, Object> parameters, String host) {
-		URI storesUri = URI.create(uri);
+		ServiceInstance instance = chooseInstance();
+		URI storesUri = instance == null ? URI.create(uri) : toUri(instance);
 
-		ServiceInstance instance = null;
-		try {
-			instance = loadBalancer.choose("stores");
-			if (instance != null) {
-				storesUri = URI.create(String.format("http://%s:%s", instance.getHost(),
-						instance.getPort()));
-			}
+		Link template = templates.get(storesUri);
+		if (template == null) {
+			// discovered outside of the map, whose bin lock would otherwise be held for the HTTP calls it takes
+			Link discovered = discover(storesUri);
+			Link previous = templates.putIfAbsent(storesUri, discovered);
+			template = previous == null ? discovered : previous;
 		}
-		catch (RuntimeException e) {
-			// Eureka not available
+		Link link = template.expand(parameters);
+
+		String href = link.getHref();
+ 		if (host!=null && instance != null) {
+			href = reconstructURI(host, href);
 		}
+		log.debug("Found stores-by-location link pointing to {}.", href);
 
-		log.info("Trying to access the stores system at {}…", storesUri);
+		return Link.of(href, link.getRel());
+	}
+
+	/**
+	 * Returns the stores nearest to each of the given locations in the order of the locations, with a single call to the
+	 * store-service.
+	 *
+	 * @param locations the locations as {@code latitude,longitude}.
+	 * @param distance the maximum distance of the stores, e.g. {@code 50km}.
+	 * @param limit the maximum number of stores per location.
+	 * @return
+	 */
+	@CircuitBreaker(name = "storeIntegration", fallbackMethod = "noNearbyStores")
+	public List<List<NearbyStore>> findNearbyStores(List<String> locations, String distance, int limit) {
+
+		ServiceInstance instance = chooseInstance();
+		URI storesUri = instance == null ? URI.create(uri) : toUri(instance);
+		URI byLocations = UriComponentsBuilder.fromUri(storesUri).path("/stores/search/by-locations").build().toUri();
+
+		Map<String, Object> request = new LinkedHashMap<>();
+		request.put("locations", locations);
+		request.put("distance", distance);
+		request.put("limit", limit);
+
+		log.debug("Looking up the stores near {} locations at {}.", locations.size(), byLocations);
+		NearbyStores[] response = restTemplate.postForObject(byLocations, request, NearbyStores[].class);
+
+		List<List<NearbyStore>> stores = new ArrayList<>(locations.size());
+		for (int i = 0; i < locations.size(); i++) {
+			stores.add(response == null || i >= response.length || response[i].getStores() == null
+					? Collections.emptyList() : response[i].getStores());
+		}
+
+		return stores;
+	}
+
+	/**
+	 * Drops the URI templates of store-service instances no longer registered, checked whenever the local copy of the
+	 * service registry has been refreshed.
+	 *
+	 * @param event
+	 */
+	@EventListener(HeartbeatEvent.class)
+	public void onHeartbeat(HeartbeatEvent event) {
+
+		Set<URI> registered = new HashSet<>();
+		registered.add(URI.create(uri));
+		for (ServiceInstance instance : discoveryClient.getInstances(STORES)) {
+			registered.add(toUri(instance));
+		}
+
+		templates.keySet().removeIf(storesUri -> {
+			boolean gone = !registered.contains(storesUri);
+			if (gone) {
+				log.info("Store-service instance at {} is gone, dropping its stores-by-location link.", storesUri);
+			}
+			return gone;
+		});
+	}
+
+	/**
+	 * Returns the number of store-service instances whose URI template is known.
+	 *
+	 * @return
+	 */
+	int getDiscoveredCount() {
+		return templates.size();
+	}
+
+	/**
+	 * Follows {@code stores -> search -> by-location} from the given store-service root to the URI template of the
+	 * location search.
+	 *
+	 * @param storesUri
+	 * @return
+	 */
+	Link discover(URI storesUri) {
+
+		log.info("Discovering the stores-by-location link of the stores system at {}…", storesUri);
 
-		// TODO: all of the above could be replaced with restTemplate/ribbon
-		// The uri would be http://stores
-		// traverson.setRestOperations and stuff from Traverson.createDefaultTemplate
 		Traverson traverson = new Traverson(storesUri, MediaTypes.HAL_JSON);
+		traverson.setRestOperations(halRestTemplate);
 
-		Link link = traverson.follow("stores", "search", "by-location")
-				.withTemplateParameters(parameters).asLink();
+		return traverson.follow("stores", "search", "by-location").asTemplatedLink();
+	}
 
-		String href = link.getHref();
- 		if (host!=null && instance != null) {
-			href = reconstructURI(host, href);
+	/**
+	 * Discovers the URI templates of all known store-service instances again, keeping the previous one of an instance
+	 * that can't be reached.
+	 */
+	private void refresh() {
+
+		for (URI storesUri : templates.keySet()) {
+			try {
+				templates.replace(storesUri, discover(storesUri));
+			}
+			catch (RuntimeException e) {
+				log.warn("Failed to refresh the stores-by-location link of {}: {}", storesUri, e.getMessage());
+			}
 		}
-		log.info("Found stores-by-location link pointing to {}.", href);
+	}
 
-		return Link.of(href, link.getRel());
+	private ServiceInstance chooseInstance() {
+
+		try {
+			return loadBalancer.choose(STORES);
+		}
+		catch (RuntimeException e) {
+			// Eureka not available
+			return null;
+		}
+	}
+
+	private static URI toUri(ServiceInstance instance) {
+		return URI.create(String.format("http://%s:%s", instance.getHost(), instance.getPort()));
 	}
 
 	private String reconstructURI(String host, String href) {
@@ -121,4 +308,20 @@ public class StoreIntegration {
 			throwable != null ? throwable.getMessage() : "Unknown error");
 		return null;
 	}
+
+	public List<List<NearbyStore>> noNearbyStores(List<String> locations, String distance, int limit, Throwable throwable) {
+		log.warn("Circuit breaker fallback triggered for nearby stores. Error: {}",
+			throwable != null ? throwable.getMessage() : "Unknown error");
+		return Collections.nCopies(locations.size(), Collections.emptyList());
+	}
+
+	/**
+	 * The stores found near a location by the store-service.
+	 */
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class NearbyStores {
+
+		private List<NearbyStore> stores;
+	}
 }
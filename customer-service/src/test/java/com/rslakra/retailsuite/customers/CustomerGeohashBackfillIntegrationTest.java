@@ -0,0 +1,47 @@
+package com.rslakra.retailsuite.customers;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author Rohtash Lakra
+ */
+@SpringBootTest
+public class CustomerGeohashBackfillIntegrationTest {
+
+	@Autowired CustomerRepository repository;
+	@Autowired CustomerGeohashBackfill backfill;
+	@Autowired JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void computesTheMissingGeohashes() {
+
+		Customer located = save(new Address("street", "zipCode", "city", new Location(40.7411, -73.9897)));
+		Customer unlocated = save(new Address("street", "zipCode", "city", null));
+		jdbcTemplate.update("update customers set geohash = null where id = ?", located.getId());
+
+		backfill.backfill();
+
+		assertThat(repository.findById(located.getId()).orElseThrow().getGeohash(), is(notNullValue()));
+		assertThat(repository.findById(unlocated.getId()).orElseThrow().getGeohash(), is(nullValue()));
+		assertThat(backfill.isCompleted(), is(true));
+	}
+
+	Customer save(Address address) {
+
+		Customer customer = new Customer();
+		customer.setFirstname("Dave");
+		customer.setLastname("Matthews");
+		customer.setAddress(address);
+
+		return repository.save(customer);
+	}
+}
@@ -0,0 +1,91 @@
+package com.rslakra.retailsuite.customers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * @author Rohtash Lakra
+ */
+@SpringBootTest
+public class CustomerImporterIntegrationTest {
+
+	@Autowired CustomerImporter importer;
+
+	@Test
+	public void importsCsvAndReportsRejectedRecords() throws Exception {
+
+		String csv = """
+				lastname,firstname,city,zipCode,latitude,longitude
+				Matthews,Dave,Charlottesville,22901,38.0293,-78.4767
+				"Beauford, Jr.",Carter,Charlottesville,22901,,
+				Tinsley,Boyd,Charlottesville,22901,north,-78.4767
+				""";
+
+		CustomerImportResult result = importer.importCsv(input(csv));
+
+		assertThat(result.getImported(), is(2L));
+		assertThat(result.getRejected(), is(1L));
+		assertThat(result.getErrors(), hasSize(1));
+		assertThat(result.getErrors().get(0).getFromLine(), is(4L));
+	}
+
+	@Test
+	public void importsNdjsonInChunks() throws Exception {
+
+		int chunkSize = importer.getChunkSize();
+		importer.setChunkSize(2);
+		try {
+			String ndjson = """
+					{"firstname":"Dave","lastname":"Matthews","address":{"city":"Charlottesville","location":{"latitude":38.0293,"longitude":-78.4767}}}
+					{"firstname":"Carter","lastname":"Beauford"}
+					not json
+					{"firstname":"Boyd","lastname":"Tinsley"}
+					""";
+
+			CustomerImportResult result = importer.importJson(input(ndjson));
+
+			assertThat(result.getImported(), is(3L));
+			assertThat(result.getRejected(), is(1L));
+			assertThat(result.getChunks(), is(2));
+			assertThat(result.getErrors().get(0).getChunk(), is(2));
+		}
+		finally {
+			importer.setChunkSize(chunkSize);
+		}
+	}
+
+	@Test
+	public void rejectsNullNdjsonLines() throws Exception {
+
+		String ndjson = """
+				{"firstname":"Dave","lastname":"Matthews"}
+				null
+				{"firstname":"Boyd","lastname":"Tinsley"}
+				""";
+
+		CustomerImportResult result = importer.importJson(input(ndjson));
+
+		assertThat(result.getImported(), is(2L));
+		assertThat(result.getRejected(), is(1L));
+		assertThat(result.getErrors().get(0).getFromLine(), is(2L));
+	}
+
+	@Test
+	public void splitsQuotedCsvValues() {
+		assertThat(CustomerImporter.split("a,\"b,c\",\"d\"\"e\","), is(List.of("a", "b,c", "d\"e", "")));
+	}
+
+	static ByteArrayInputStream input(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
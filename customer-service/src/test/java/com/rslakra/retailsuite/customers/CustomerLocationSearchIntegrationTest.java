@@ -0,0 +1,60 @@
+package com.rslakra.retailsuite.customers;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * @author Rohtash Lakra
+ */
+@SpringBootTest
+public class CustomerLocationSearchIntegrationTest {
+
+	@Autowired CustomerRepository repository;
+	@Autowired CustomerLocationSearch search;
+
+	@Test
+	public void findsCustomersWithinTheDistanceNearestFirst() {
+
+		Customer near = save(40.7500, -73.9897);
+		Customer far = save(40.9200, -73.9897);
+		assertThat(near.getGeohash(), is(notNullValue()));
+
+		NearbyCustomers result = search.findNear(40.7411, -73.9897, new Distance(5, Metrics.KILOMETERS), 100);
+		List<Long> ids = result.getCustomers().stream().map(customer -> customer.getCustomer().getId()).toList();
+
+		assertThat(ids, hasItem(near.getId()));
+		assertThat(ids, not(hasItem(far.getId())));
+		double previous = 0;
+		for (NearbyCustomer customer : result.getCustomers()) {
+			assertThat(customer.getDistance(), is(lessThanOrEqualTo(5.0)));
+			assertThat(previous, is(lessThanOrEqualTo(customer.getDistance())));
+			previous = customer.getDistance();
+		}
+		NearbyCustomer found = result.getCustomers().get(ids.indexOf(near.getId()));
+		assertThat(found.getDistance(), is(closeTo(0.99, 0.01)));
+	}
+
+	Customer save(double latitude, double longitude) {
+
+		Customer customer = new Customer();
+		customer.setFirstname("Dave");
+		customer.setLastname("Matthews");
+		customer.setAddress(new Address("street", "zipCode", "city", new Location(latitude, longitude)));
+
+		return repository.save(customer);
+	}
+}
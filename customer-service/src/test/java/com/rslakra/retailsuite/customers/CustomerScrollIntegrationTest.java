@@ -0,0 +1,171 @@
+package com.rslakra.retailsuite.customers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Rohtash Lakra
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CustomerScrollIntegrationTest {
+
+	@Autowired CustomerRepository repository;
+	@Autowired CustomerScroll scroll;
+	@Autowired CustomerExporter exporter;
+	@Autowired MockMvc mvc;
+	@Autowired ObjectMapper mapper;
+
+	@Test
+	public void pagesAndSortsByLastname() {
+
+		save(5);
+		Page<Customer> page = repository.findAll(PageRequest.of(0, 3, Sort.by("lastname")));
+
+		assertThat(page.getContent().size(), is(3));
+		assertThat(page.getTotalElements(), is(greaterThanOrEqualTo(5L)));
+		for (int i = 1; i < page.getContent().size(); i++) {
+			String previous = page.getContent().get(i - 1).getLastname();
+			assertThat(previous.compareTo(page.getContent().get(i).getLastname()), is(lessThanOrEqualTo(0)));
+		}
+	}
+
+	@Test
+	public void scrollsThroughAllCustomersOnce() {
+
+		List<Long> saved = save(7);
+		Set<Long> seen = new HashSet<>();
+		String previous = null;
+		String cursor = null;
+
+		do {
+			CustomerWindow window = scroll.scroll("lastname", 3, cursor);
+			assertThat(window.getContent().size(), is(lessThanOrEqualTo(3)));
+			for (Customer customer : window.getContent()) {
+				assertThat(seen.add(customer.getId()), is(true));
+				if (previous != null) {
+					assertThat(previous.compareTo(customer.getLastname()), is(lessThanOrEqualTo(0)));
+				}
+				previous = customer.getLastname();
+			}
+			cursor = window.getNext();
+		}
+		while (cursor != null);
+
+		assertThat(seen, hasItems(saved.toArray(new Long[0])));
+	}
+
+	@Test
+	public void exportsAfterTheGivenId() throws Exception {
+
+		List<Long> saved = save(3);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		long count = exporter.export(saved.get(0), output);
+
+		String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(count, is((long) lines.length));
+		assertThat(count, is(greaterThanOrEqualTo(2L)));
+		assertThat(lines[0].contains("\"id\":" + saved.get(1)), is(true));
+	}
+
+	@Test
+	public void exportsOneCustomerPerLineOverHttp() throws Exception {
+
+		List<Long> saved = save(3);
+
+		String ndjson = mvc.perform(get("/customers/export").param("after", String.valueOf(saved.get(0)))
+						.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		assertThat(ndjson.endsWith("\n"), is(true));
+		String[] lines = ndjson.split("\n");
+		assertThat(lines.length, is(greaterThanOrEqualTo(2)));
+		for (String line : lines) {
+			JsonNode customer = mapper.readTree(line);
+			assertThat(customer.isObject(), is(true));
+			assertThat(customer.get("id").asLong() > saved.get(0), is(true));
+		}
+		assertThat(mapper.readTree(lines[0]).get("id").asLong(), is(saved.get(1)));
+	}
+
+	@Test
+	public void rejectsSizesOutOfRangeOverHttp() throws Exception {
+
+		mvc.perform(get("/customers/scroll").param("size", "0")).andExpect(status().isBadRequest());
+		mvc.perform(get("/customers/scroll").param("size", "1000000")).andExpect(status().isBadRequest());
+		mvc.perform(get("/customers/scroll").param("size", "many")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void rejectsInvalidCursorsOverHttp() throws Exception {
+
+		save(3);
+		String cursor = scroll.scroll("lastname", 1, null).getNext();
+
+		mvc.perform(get("/customers/scroll").param("cursor", "not a cursor")).andExpect(status().isBadRequest());
+		mvc.perform(get("/customers/scroll").param("sort", "city").param("cursor", cursor))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/customers/scroll").param("cursor", cursor)).andExpect(status().isOk());
+	}
+
+	@Test
+	public void rejectsCursorsOfAnotherSortKey() {
+
+		save(3);
+		String cursor = scroll.scroll("lastname", 1, null).getNext();
+		assertThat(cursor, is(notNullValue()));
+
+		try {
+			scroll.scroll("city", 1, cursor);
+			throw new AssertionError("Expected the cursor to be rejected");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	List<Long> save(int count) {
+
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Customer customer = new Customer();
+			customer.setFirstname("Dave");
+			customer.setLastname("Matthews" + i);
+			customer.setAddress(new Address("street", "zipCode" + i, "city" + i, new Location(55.349451, -131.673817)));
+			ids.add(repository.save(customer).getId());
+		}
+
+		return ids;
+	}
+}
@@ -0,0 +1,64 @@
+package com.rslakra.retailsuite.customers.geo;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Unit tests for {@link GeoHash}.
+ *
+ * @author Rohtash Lakra
+ */
+public class GeoHashTests {
+
+	@Test
+	public void encodesLocations() {
+
+		assertThat(GeoHash.encode(57.64911, 10.40744, 11), is("u4pruydqqvj"));
+		assertThat(GeoHash.encode(40.74, -73.99, 5), is("dr5ru"));
+	}
+
+	@Test
+	public void boundsTheGeohashesOfACell() {
+
+		assertThat(GeoHash.upperBound("dr5r"), is("dr5s"));
+		assertThat(GeoHash.upperBound("dr5z"), is("dr6"));
+		assertThat(GeoHash.upperBound("zz"), is(nullValue()));
+	}
+
+	@Test
+	public void mergesAdjacentCellsIntoRanges() {
+
+		List<GeoHash.Range> ranges = GeoHash.ranges(List.of("dr5r", "dr5s", "dr5t", "dr5v", "dr5z", "dr60"));
+
+		assertThat(ranges, hasSize(3));
+		assertThat(ranges.get(0), is(new GeoHash.Range("dr5r", "dr5u")));
+		assertThat(ranges.get(1), is(new GeoHash.Range("dr5v", "dr5w")));
+		assertThat(ranges.get(2), is(new GeoHash.Range("dr5z", "dr61")));
+	}
+
+	@Test
+	public void coversABox() {
+
+		List<String> cells = GeoHash.cover(40.70, -74.02, 40.78, -73.94, 5);
+
+		assertThat(cells, hasItem(GeoHash.encode(40.70, -74.02, 5)));
+		assertThat(cells, hasItem(GeoHash.encode(40.78, -73.94, 5)));
+		assertThat(cells, hasItem(GeoHash.encode(40.74, -73.98, 5)));
+	}
+
+	@Test
+	public void coversBoxesAcrossTheAntimeridian() {
+
+		List<String> cells = GeoHash.cover(-1, 179, 1, 181, 2);
+
+		assertThat(cells, hasItem(GeoHash.encode(0, 179.5, 2)));
+		assertThat(cells, hasItem(GeoHash.encode(0, -179.5, 2)));
+	}
+}
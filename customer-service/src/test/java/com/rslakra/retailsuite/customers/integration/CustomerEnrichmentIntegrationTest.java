@@ -0,0 +1,84 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import com.rslakra.retailsuite.customers.Address;
+import com.rslakra.retailsuite.customers.Customer;
+import com.rslakra.retailsuite.customers.CustomerRepository;
+import com.rslakra.retailsuite.customers.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@code stores-nearby} links added by {@link CustomerResourceProcessor}, looked up by
+ * {@link CustomerEnrichment} and attached by the {@link CustomerEnrichmentAdvice} before Spring Data REST writes the
+ * response.
+ *
+ * @author Rohtash Lakra
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CustomerEnrichmentIntegrationTest {
+
+	static final Link STORES_NEARBY = Link.of("http://localhost:8081/stores/search/by-location?distance=50km");
+
+	@Autowired MockMvc mvc;
+	@Autowired CustomerRepository repository;
+	@Autowired CustomerResourceProcessor processor;
+	@MockitoBean StoreIntegration storeIntegration;
+
+	Customer customer;
+
+	@BeforeEach
+	public void setUp() {
+
+		when(storeIntegration.getStoresByLocationLink(any(), any())).thenReturn(STORES_NEARBY);
+
+		customer = new Customer();
+		customer.setFirstname("Dave");
+		customer.setLastname("Matthews");
+		customer.setAddress(new Address("street", "zipCode", "city", new Location(40.7411, -73.9897)));
+		customer = repository.save(customer);
+	}
+
+	@Test
+	public void attachesTheLinkToACustomerResource() throws Exception {
+
+		mvc.perform(get("/customers/{id}", customer.getId()).accept(MediaTypes.HAL_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$._links['stores-nearby'].href").value(STORES_NEARBY.getHref()));
+	}
+
+	@Test
+	public void attachesTheLinksToAPageOfCustomers() throws Exception {
+
+		mvc.perform(get("/customers").param("sort", "id,desc").accept(MediaTypes.HAL_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$._embedded.customers[?(@.lastname == 'Matthews')]._links['stores-nearby'].href")
+						.value(hasItem(STORES_NEARBY.getHref())));
+	}
+
+	@Test
+	public void attachesTheLinkRightAwayOutsideOfARequest() {
+
+		EntityModel<Customer> model = processor.process(EntityModel.of(customer));
+
+		assertThat(model.hasLink("stores-nearby"), is(true));
+	}
+}
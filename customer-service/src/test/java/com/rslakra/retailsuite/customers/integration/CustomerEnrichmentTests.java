@@ -0,0 +1,124 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.rslakra.retailsuite.customers.Customer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link CustomerEnrichment}.
+ *
+ * @author Rohtash Lakra
+ */
+public class CustomerEnrichmentTests {
+
+	static final Link STORES_NEARBY = Link.of("http://localhost:8081/stores/search/by-location?distance=50km");
+
+	CustomerEnrichment enrichment;
+	MockHttpServletRequest request;
+
+	@BeforeEach
+	public void setUp() {
+		enrichment = new CustomerEnrichment();
+		enrichment.setTimeout(Duration.ofMillis(500));
+		request = new MockHttpServletRequest();
+		enrichment.defer(request);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		enrichment.shutdown();
+	}
+
+	@Test
+	public void enrichesAPageConcurrently() {
+
+		// every lookup waits for all others to have started, which only lookups running concurrently get past
+		enrichment.setTimeout(Duration.ofSeconds(30));
+		CountDownLatch started = new CountDownLatch(20);
+
+		List<EntityModel<Customer>> models = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			EntityModel<Customer> model = EntityModel.of(new Customer());
+			enrichment.enrich(request, model, () -> {
+				started.countDown();
+				return awaiting(started, STORES_NEARBY);
+			});
+			models.add(model);
+		}
+
+		enrichment.await(request);
+
+		for (EntityModel<Customer> model : models) {
+			assertThat(model.hasLink("stores-nearby"), is(true));
+		}
+	}
+
+	@Test
+	public void rendersLateCustomersWithoutTheLink() {
+
+		EntityModel<Customer> fast = EntityModel.of(new Customer());
+		EntityModel<Customer> late = EntityModel.of(new Customer());
+		enrichment.enrich(request, fast, () -> STORES_NEARBY);
+		enrichment.enrich(request, late, () -> awaiting(new CountDownLatch(1), STORES_NEARBY));
+
+		enrichment.await(request);
+
+		assertThat(fast.hasLink("stores-nearby"), is(true));
+		assertThat(late.hasLink("stores-nearby"), is(false));
+	}
+
+	@Test
+	public void enrichesRightAwayOutsideOfARequest() {
+
+		EntityModel<Customer> model = EntityModel.of(new Customer());
+		enrichment.enrich(null, model, () -> STORES_NEARBY);
+
+		assertThat(model.hasLink("stores-nearby"), is(true));
+	}
+
+	@Test
+	public void enrichesRightAwayUnlessTheRequestIsDeferred() {
+
+		EntityModel<Customer> model = EntityModel.of(new Customer());
+		enrichment.enrich(new MockHttpServletRequest(), model, () -> STORES_NEARBY);
+
+		assertThat(model.hasLink("stores-nearby"), is(true));
+	}
+
+	@Test
+	public void cancelsTheLookupsNotAwaited() {
+
+		EntityModel<Customer> model = EntityModel.of(new Customer());
+		enrichment.enrich(request, model, () -> awaiting(new CountDownLatch(1), STORES_NEARBY));
+
+		enrichment.cancel(request);
+		enrichment.await(request);
+
+		assertThat(model.hasLink("stores-nearby"), is(false));
+	}
+
+	static Link awaiting(CountDownLatch latch, Link link) {
+
+		try {
+			return latch.await(30, TimeUnit.SECONDS) ? link : null;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.rslakra.retailsuite.customers.Address;
+import com.rslakra.retailsuite.customers.Customer;
+import com.rslakra.retailsuite.customers.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Unit tests for {@link NearbyStoreLookup}.
+ *
+ * @author Rohtash Lakra
+ */
+public class NearbyStoreLookupTests {
+
+	List<List<String>> calls;
+	NearbyStoreLookup lookup;
+
+	@BeforeEach
+	public void setUp() {
+
+		calls = new ArrayList<>();
+		lookup = new NearbyStoreLookup(new StoreIntegration(new StoreIntegrationTests.NoInstancesLoadBalancerClient(),
+				new StoreIntegrationTests.NoInstancesDiscoveryClient()) {
+
+			@Override
+			public List<List<NearbyStore>> findNearbyStores(List<String> locations, String distance, int limit) {
+
+				calls.add(new ArrayList<>(locations));
+				List<List<NearbyStore>> stores = new ArrayList<>();
+				for (String location : locations) {
+					NearbyStore store = new NearbyStore();
+					store.setStore(new NearbyStore.Store());
+					store.getStore().setName("Store near " + location);
+					stores.add(List.of(store));
+				}
+
+				return stores;
+			}
+		});
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void looksUpAPageWithASingleCallPerCell() {
+
+		List<Customer> customers = List.of(customer(40.7411, -73.9897), customer(40.7419, -73.9891),
+				customer(34.0522, -118.2437), customer(41.8781, -87.6298));
+		customers.forEach(lookup::register);
+
+		for (Customer customer : customers) {
+			assertThat(lookup.find(customer), hasSize(1));
+		}
+
+		assertThat(calls, hasSize(1));
+		assertThat(calls.get(0), hasSize(3));
+		assertThat(lookup.find(customers.get(0)), is(lookup.find(customers.get(1))));
+	}
+
+	@Test
+	public void splitsLookupsAtTheMaximumNumberOfLocations() {
+
+		lookup.setMaxLocations(2);
+		List<Customer> customers = List.of(customer(40.7411, -73.9897), customer(34.0522, -118.2437),
+				customer(41.8781, -87.6298), customer(47.6062, -122.3321), customer(29.7604, -95.3698));
+		customers.forEach(lookup::register);
+
+		for (Customer customer : customers) {
+			assertThat(lookup.find(customer), hasSize(1));
+		}
+
+		assertThat(calls, hasSize(3));
+		assertThat(calls.get(0), hasSize(2));
+		assertThat(calls.get(2), hasSize(1));
+	}
+
+	@Test
+	public void looksUpCustomersNotRegisteredOnDemand() {
+
+		Customer customer = customer(40.7411, -73.9897);
+
+		assertThat(lookup.find(customer), hasSize(1));
+		assertThat(lookup.find(customer), hasSize(1));
+		assertThat(calls, hasSize(1));
+	}
+
+	@Test
+	public void findsNoStoresForCustomersWithoutLocation() {
+
+		Customer customer = new Customer();
+		lookup.register(customer);
+
+		assertThat(lookup.find(customer), is(empty()));
+		assertThat(calls, is(empty()));
+	}
+
+	@Test
+	public void snapsLocationsToTheCenterOfTheirCell() {
+
+		assertThat(lookup.cell(customer(40.7411, -73.9897)), is("40.745000,-73.985000"));
+		assertThat(lookup.cell(customer(40.7411, -73.9897)), is(not(lookup.cell(customer(40.7511, -73.9897)))));
+	}
+
+	static Customer customer(double latitude, double longitude) {
+
+		Customer customer = new Customer();
+		customer.setAddress(new Address("street", "zipCode", "city", new Location(latitude, longitude)));
+		return customer;
+	}
+}
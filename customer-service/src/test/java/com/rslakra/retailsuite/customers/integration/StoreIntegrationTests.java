@@ -0,0 +1,129 @@
+package com.rslakra.retailsuite.customers.integration;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.hateoas.Link;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreIntegration}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreIntegrationTests {
+
+	StoreIntegration integration;
+	int discoveries;
+
+	@BeforeEach
+	public void setUp() {
+
+		discoveries = 0;
+		integration = new StoreIntegration(new NoInstancesLoadBalancerClient(), new NoInstancesDiscoveryClient()) {
+
+			@Override
+			Link discover(URI storesUri) {
+				discoveries++;
+				return Link.of(storesUri + "/stores/search/by-location{?location,distance}", "by-location");
+			}
+		};
+		integration.setUri("http://localhost:8081");
+	}
+
+	@Test
+	public void discoversTheLinkOncePerInstance() {
+
+		for (int i = 0; i < 20; i++) {
+			Link link = integration.getStoresByLocationLink(Map.of("location", "40.74,-73.99", "distance", "50km"), null);
+
+			assertThat(link.getHref(), containsString("/stores/search/by-location?location="));
+			assertThat(link.getHref(), containsString("distance=50km"));
+			assertThat(link.isTemplated(), is(false));
+		}
+
+		assertThat(discoveries, is(1));
+	}
+
+	@Test
+	public void dropsTheLinkOfDeregisteredInstances() {
+
+		integration.setUri("http://10.0.0.12:8081");
+		integration.getStoresByLocationLink(Map.of("distance", "50km"), null);
+		integration.setUri("http://localhost:8081");
+		integration.getStoresByLocationLink(Map.of("distance", "50km"), null);
+		assertThat(integration.getDiscoveredCount(), is(2));
+
+		integration.onHeartbeat(new HeartbeatEvent(this, 1L));
+
+		assertThat(integration.getDiscoveredCount(), is(1));
+		integration.getStoresByLocationLink(Map.of("distance", "50km"), null);
+		assertThat(discoveries, is(2));
+	}
+
+	/**
+	 * A load balancer without store-service instances to choose from, as when running without Eureka.
+	 */
+	static class NoInstancesLoadBalancerClient implements LoadBalancerClient {
+
+		@Override
+		public ServiceInstance choose(String serviceId) {
+			return null;
+		}
+
+		@Override
+		public <T> ServiceInstance choose(String serviceId, Request<T> request) {
+			return null;
+		}
+
+		@Override
+		public <T> T execute(String serviceId, LoadBalancerRequest<T> request) {
+			throw new IllegalStateException("No instances of " + serviceId);
+		}
+
+		@Override
+		public <T> T execute(String serviceId, ServiceInstance serviceInstance, LoadBalancerRequest<T> request) {
+			throw new IllegalStateException("No instances of " + serviceId);
+		}
+
+		@Override
+		public URI reconstructURI(ServiceInstance instance, URI original) {
+			return original;
+		}
+	}
+
+	/**
+	 * A service registry without store-service instances.
+	 */
+	static class NoInstancesDiscoveryClient implements DiscoveryClient {
+
+		@Override
+		public String description() {
+			return "No instances";
+		}
+
+		@Override
+		public List<ServiceInstance> getInstances(String serviceId) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public List<String> getServices() {
+			return Collections.emptyList();
+		}
+	}
+}
@@ -7,13 +7,16 @@
 #   ./mongodb.sh --stop        # Stop MongoDB container
 #   ./mongodb.sh --status      # Check MongoDB container status
 #   ./mongodb.sh --restart     # Restart MongoDB container
+#
+# Further instances, e.g. for store partitions, run on other ports and container names:
+#   MONGODB_PORT=27018 MONGODB_CONTAINER_NAME=mongodb-americas ./mongodb.sh --start
 
 clear
 
 # Configuration variables
-MONGODB_PORT="27017"
-MONGODB_CONTAINER_NAME="mongodb"
-MONGODB_IMAGE="mongo:latest"
+MONGODB_PORT="${MONGODB_PORT:-27017}"
+MONGODB_CONTAINER_NAME="${MONGODB_CONTAINER_NAME:-mongodb}"
+MONGODB_IMAGE="${MONGODB_IMAGE:-mongo:latest}"
 
 # Function to check if Docker is running
 check_docker() {
@@ -75,7 +78,7 @@ start_mongodb() {
     else
         # Create and start new MongoDB container
         echo "📦 Creating new MongoDB container..."
-        CONTAINER_ID=$(docker run -d -p ${MONGODB_PORT}:${MONGODB_PORT} --name ${MONGODB_CONTAINER_NAME} ${MONGODB_IMAGE} 2>&1)
+        CONTAINER_ID=$(docker run -d -p ${MONGODB_PORT}:27017 --name ${MONGODB_CONTAINER_NAME} ${MONGODB_IMAGE} 2>&1)
         DOCKER_EXIT_CODE=$?
         
         if [ $DOCKER_EXIT_CODE -eq 0 ]; then
@@ -1,5 +1,8 @@
 package com.rslakra.retailsuite.stores;
 
+import com.rslakra.retailsuite.stores.geo.StoreQueryMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.UncategorizedMongoDbException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,13 +12,17 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import com.mongodb.MongoQueryException;
 
 /**
- * Exception handler for geospatial query errors.
- * 
+ * Exception handler for geospatial query errors. Queries rejected for lack of a geospatial index are counted by the
+ * {@link StoreQueryMetrics}.
+ *
  * @author Rohtash Lakra
  */
 @ControllerAdvice
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class GeospatialExceptionHandler {
 
+    private final StoreQueryMetrics metrics;
+
     @ExceptionHandler(UncategorizedMongoDbException.class)
     public ResponseEntity<String> handleMongoException(UncategorizedMongoDbException e) {
         Throwable cause = e.getCause();
@@ -30,6 +37,7 @@ public class GeospatialExceptionHandler {
                         .body("Invalid coordinates: Coordinates must be within valid bounds (longitude: -180 to 180, latitude: -90 to 90)");
                 }
                 if (errorMessage.contains("unable to find index for $geoNear query")) {
+                    metrics.indexMissed();
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body("Geospatial index not found. Please ensure the index is created on 'address.location' field.");
                 }
@@ -0,0 +1,207 @@
+
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.GeoCursor;
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Looks up the {@link Store}s nearest to one or many locations. Within a batch, identical locations are queried only
+ * once and distinct ones in parallel on the bounded {@code nearbyStoresExecutor}, so a batch neither runs serially nor
+ * floods MongoDB.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@ConfigurationProperties("stores.search")
+public class NearbyStoreSearch {
+
+    private final StoreRepository repository;
+    private final PointConverter pointConverter;
+    private final Executor executor;
+
+    /**
+     * Maximum number of locations per request.
+     */
+    @Getter
+    @Setter
+    private int maxLocations = 1000;
+
+    /**
+     * Maximum number of stores per location.
+     */
+    @Getter
+    @Setter
+    private int maxLimit = 100;
+
+    @Autowired
+    public NearbyStoreSearch(StoreRepository repository, PointConverter pointConverter,
+                             @Qualifier("nearbyStoresExecutor") Executor executor) {
+        this.repository = repository;
+        this.pointConverter = pointConverter;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the {@link NearbyStores} for every requested location in request order.
+     *
+     * @param request
+     * @return
+     */
+    public List<NearbyStores> findNearby(NearbyStoresRequest request) {
+
+        List<String> locations = request.getLocations();
+        if (locations == null || locations.isEmpty()) {
+            throw new IllegalArgumentException("At least one location is required");
+        }
+        if (locations.size() > maxLocations) {
+            throw new IllegalArgumentException(
+                String.format("At most %d locations are allowed per request, got: %d", maxLocations, locations.size()));
+        }
+        validateLimit(request.getLimit());
+
+        Distance distance = StoreSearchController.toDistance(request.getDistance());
+        List<Point> points = new ArrayList<>(locations.size());
+        for (String location : locations) {
+            points.add(pointConverter.convert(location));
+        }
+
+        // only started once all locations are valid, so that a request rejected for a bad location doesn't query at all
+        Map<Point, CompletableFuture<List<NearestStore>>> queries = new LinkedHashMap<>();
+        for (Point point : points) {
+            queries.computeIfAbsent(point, it -> CompletableFuture.supplyAsync(
+                () -> NearestStore.of(repository.findNearest(it, distance, request.getLimit())), executor));
+        }
+
+        List<NearbyStores> result = new ArrayList<>(points.size());
+        try {
+            for (Point point : points) {
+                result.add(new NearbyStores(point, queries.get(point).join()));
+            }
+        } catch (CompletionException e) {
+            queries.values().forEach(it -> it.cancel(true));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the {@code k} stores nearest to the given location, optionally within the given maximum distance.
+     *
+     * @param location
+     * @param maxDistance may be {@literal null}.
+     * @param k
+     * @return
+     */
+    public List<NearestStore> findNearest(Point location, Distance maxDistance, int k) {
+        return findNearest(location, maxDistance, StoreFilter.NONE, k);
+    }
+
+    /**
+     * Returns the {@code k} stores nearest to the given location passing the given filter, optionally within the given
+     * maximum distance.
+     *
+     * @param location
+     * @param maxDistance may be {@literal null}.
+     * @param filter
+     * @param k
+     * @return
+     */
+    public List<NearestStore> findNearest(Point location, Distance maxDistance, StoreFilter filter, int k) {
+
+        validateLimit(k);
+        return NearestStore.of(repository.findNearest(location, maxDistance, filter, k, null));
+    }
+
+    /**
+     * Returns the next window of stores nearest to the given location after the given cursor, optionally within the
+     * given maximum distance.
+     *
+     * @param location
+     * @param maxDistance may be {@literal null}.
+     * @param filter
+     * @param size
+     * @param cursor the cursor of the previous window, may be {@literal null} to start with the nearest store.
+     * @return
+     */
+    public StoreWindow<NearestStore> scrollNear(Point location, Distance maxDistance, StoreFilter filter, int size,
+                                                String cursor) {
+
+        validateLimit(size);
+        GeoCursor after = cursor == null ? null : GeoCursor.decode(cursor);
+
+        // fetch one more store than asked for to tell whether there is a next window without counting
+        GeoResults<Store> results = repository.findNearest(location, maxDistance, filter, size + 1, after);
+        if (results.getContent().size() <= size) {
+            return new StoreWindow<>(NearestStore.of(results), null);
+        }
+
+        GeoResults<Store> window = new GeoResults<>(results.getContent().subList(0, size), results.getAverageDistance());
+        return new StoreWindow<>(NearestStore.of(window), GeoCursor.after(window, after).encode());
+    }
+
+    /**
+     * Returns the next window of all stores ordered by id after the given cursor.
+     *
+     * @param size
+     * @param cursor the cursor of the previous window, may be {@literal null} to start with the first store.
+     * @return
+     */
+    public StoreWindow<Store> scroll(int size, String cursor) {
+
+        validateLimit(size);
+        String after = cursor == null ? null : decodeId(cursor);
+
+        List<Store> stores = repository.findAfter(after, size + 1);
+        if (stores.size() <= size) {
+            return new StoreWindow<>(stores, null);
+        }
+
+        List<Store> window = stores.subList(0, size);
+        String next = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(window.get(size - 1).getId().getBytes(StandardCharsets.UTF_8));
+
+        return new StoreWindow<>(window, next);
+    }
+
+    private static String decodeId(String cursor) {
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Rejects limits below {@code 1} or above {@link #getMaxLimit()}.
+     *
+     * @param limit
+     */
+    void validateLimit(int limit) {
+
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException(
+                String.format("Limit must be between 1 and %d, got: %d", maxLimit, limit));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+
+package com.rslakra.retailsuite.stores;
+
+import lombok.Value;
+
+import org.springframework.data.geo.Point;
+
+import java.util.List;
+
+/**
+ * The {@link Store}s found near a location along with their distances, ordered by distance.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class NearbyStores {
+
+    private final Point location;
+    private final List<NearestStore> stores;
+}
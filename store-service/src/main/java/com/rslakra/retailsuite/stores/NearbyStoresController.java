@@ -0,0 +1,46 @@
+
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller to look up the {@link Store}s nearest to a location or near many locations with a single request.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@Profile("!" + ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class NearbyStoresController {
+
+    static final String NEAREST = "nearest";
+
+    private final NearbyStoreSearch search;
+    private final PointConverter pointConverter;
+
+    @GetMapping("/stores/search/" + NEAREST)
+    public List<NearestStore> findNearest(@RequestParam("location") String location,
+                                          @RequestParam(name = "k", defaultValue = "5") int k,
+                                          @RequestParam(name = "distance", required = false) String distance,
+                                          @RequestParam(name = "features", required = false) List<String> features,
+                                          @RequestParam(name = "ownershipType", required = false) String ownershipType,
+                                          @RequestParam(name = "venueType", required = false) String venueType) {
+        return search.findNearest(pointConverter.convert(location), StoreSearchController.toDistance(distance),
+                                  StoreFilter.of(features, ownershipType, venueType), k);
+    }
+
+    @PostMapping("/stores/search/by-locations")
+    public List<NearbyStores> findByLocations(@RequestBody NearbyStoresRequest request) {
+        return search.findNearby(request);
+    }
+}
@@ -0,0 +1,31 @@
+
+package com.rslakra.retailsuite.stores;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request for the {@link Store}s near several locations at once.
+ *
+ * @author Rohtash Lakra
+ */
+@Data
+public class NearbyStoresRequest {
+
+    /**
+     * The locations in any format accepted by the {@link PointConverter}, e.g. {@code 40.7128,-74.0060}.
+     */
+    private List<String> locations;
+
+    /**
+     * The maximum distance of the stores, e.g. {@code 5km}, or {@literal null} to find the nearest stores regardless
+     * of their distance.
+     */
+    private String distance;
+
+    /**
+     * The maximum number of stores per location, i.e. the k nearest stores.
+     */
+    private int limit = 10;
+}
@@ -0,0 +1,40 @@
+
+package com.rslakra.retailsuite.stores;
+
+import lombok.Value;
+
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Store} along with its distance to the location searched for.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class NearestStore {
+
+    private final Store store;
+    private final double distance;
+    private final String unit;
+
+    /**
+     * Creates {@link NearestStore}s for the given {@link GeoResults}, keeping their order.
+     *
+     * @param results
+     * @return
+     */
+    public static List<NearestStore> of(GeoResults<Store> results) {
+
+        List<NearestStore> stores = new ArrayList<>(results.getContent().size());
+        for (GeoResult<Store> result : results) {
+            stores.add(new NearestStore(result.getContent(), result.getDistance().getValue(),
+                                        result.getDistance().getUnit()));
+        }
+
+        return stores;
+    }
+}
@@ -0,0 +1,159 @@
+package com.rslakra.retailsuite.stores;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller serving the store collection and searches on WebFlux with the {@code reactive} profile, in place of Spring
+ * Data REST and the servlet controllers. No thread is held while MongoDB is queried, and results are written as they
+ * come off the cursor: as a JSON array by default or as one document per line with {@code Accept:
+ * application/x-ndjson}. The {@code /stores/export} of the whole catalog is sent as it is requested from the MongoDB
+ * cursor, at the pace of the client. Invalid locations and distances are reported by the {@link GeospatialExceptionHandler} as
+ * before.
+ * <p>
+ * Requested as {@code application/hal+json}, the root, {@code /stores} and {@code /stores/search} return the same
+ * {@code stores -> search -> by-location} links as Spring Data REST, so that clients discovering the location search by
+ * following them, like the customer-service, work against either mode. These resources hold links only.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@Profile(ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class ReactiveStoreController {
+
+    public static final String PROFILE = "reactive";
+
+    private final ReactiveStoreRepository repository;
+    private final ReactiveMongoOperations operations;
+    private final PointConverter pointConverter;
+    private final NearbyStoreSearch search;
+    private final StoreExporter exporter;
+
+    @GetMapping(value = "/", produces = MediaTypes.HAL_JSON_VALUE)
+    public Map<String, Object> root(ServerHttpRequest request) {
+        return links(request, Map.of("stores", "/stores{?page,size}"));
+    }
+
+    @GetMapping(value = "/stores", produces = MediaTypes.HAL_JSON_VALUE)
+    public Map<String, Object> stores(ServerHttpRequest request) {
+
+        Map<String, String> links = new LinkedHashMap<>();
+        links.put("self", "/stores{?page,size}");
+        links.put("search", "/stores/search");
+
+        return links(request, links);
+    }
+
+    @GetMapping(value = "/stores/search", produces = MediaTypes.HAL_JSON_VALUE)
+    public Map<String, Object> searches(ServerHttpRequest request) {
+
+        Map<String, String> links = new LinkedHashMap<>();
+        links.put(StoreSearchController.BY_LOCATION,
+                  "/stores/search/" + StoreSearchController.BY_LOCATION + "{?location,distance,page,size}");
+        links.put(NearbyStoresController.NEAREST, "/stores/search/" + NearbyStoresController.NEAREST + "{?location,k,distance}");
+
+        return links(request, links);
+    }
+
+    @GetMapping(value = "/stores", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<Store> findAll(@RequestParam(name = "page", defaultValue = "0") int page,
+                               @RequestParam(name = "size", defaultValue = "20") int size) {
+        return repository.findAllBy(PageRequest.of(page, size));
+    }
+
+    @GetMapping(value = "/stores/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Store> export(@RequestParam(name = "after", required = false) String after) {
+
+        Query query = exporter.query(after);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong count = new AtomicLong();
+            Runnable exported = () -> exporter.exported(after, count.get(), start);
+            // recorded before completion reaches the client, unlike with doFinally
+            return operations.find(query, Store.class)
+                .doOnNext(store -> count.incrementAndGet())
+                .doOnTerminate(exported)
+                .doOnCancel(exported);
+        });
+    }
+
+    @GetMapping("/stores/{id}")
+    public Mono<ResponseEntity<Store>> findById(@PathVariable("id") String id) {
+        return repository.findById(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = { "/stores/search/" + StoreSearchController.BY_LOCATION, "/stores/search/findByAddressLocationNear" },
+                produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<Store> findByLocation(@RequestParam("location") String location,
+                                      @RequestParam(name = "distance", required = false) String distance,
+                                      @RequestParam(name = "page", defaultValue = "0") int page,
+                                      @RequestParam(name = "size", defaultValue = "20") int size) {
+        return repository.findByAddressLocationNear(pointConverter.convert(location),
+                                                    StoreSearchController.toDistance(distance),
+                                                    PageRequest.of(page, size));
+    }
+
+    @GetMapping(value = "/stores/search/" + NearbyStoresController.NEAREST,
+                produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<NearestStore> findNearest(@RequestParam("location") String location,
+                                          @RequestParam(name = "k", defaultValue = "5") int k,
+                                          @RequestParam(name = "distance", required = false) String distance) {
+
+        search.validateLimit(k);
+
+        Distance maxDistance = StoreSearchController.toDistance(distance);
+        NearQuery query = NearQuery.near(pointConverter.convert(location)).spherical(true).limit(k);
+        if (maxDistance != null) {
+            query.maxDistance(maxDistance);
+        } else {
+            query.in(Metrics.KILOMETERS);
+        }
+
+        return operations.geoNear(query, Store.class)
+            .map(result -> new NearestStore(result.getContent(), result.getDistance().getValue(),
+                                            result.getDistance().getUnit()));
+    }
+
+    /**
+     * Renders the given paths relative to the server of the given request as HAL {@code _links} by relation.
+     *
+     * @param request
+     * @param paths
+     * @return
+     */
+    private static Map<String, Object> links(ServerHttpRequest request, Map<String, String> paths) {
+
+        String base = UriComponentsBuilder.fromUri(request.getURI()).replacePath(null).replaceQuery(null).toUriString();
+
+        Map<String, Object> links = new LinkedHashMap<>();
+        paths.forEach((rel, path) -> links.put(rel, path.contains("{")
+                                                    ? Map.of("href", base + path, "templated", true)
+                                                    : Map.of("href", base + path)));
+
+        return Map.of("_links", links);
+    }
+}
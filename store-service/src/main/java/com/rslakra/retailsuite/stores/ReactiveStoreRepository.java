@@ -0,0 +1,38 @@
+package com.rslakra.retailsuite.stores;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive repository to access {@link Store} instances when serving with the {@code reactive} profile. Queries emit
+ * the stores as they come off the MongoDB cursor and pages are applied as skip and limit without a count query.
+ *
+ * @author Rohtash Lakra
+ */
+@Profile(ReactiveStoreController.PROFILE)
+public interface ReactiveStoreRepository extends ReactiveMongoRepository<Store, String> {
+
+    /**
+     * Returns the {@link Store}s of the given page.
+     *
+     * @param pageable
+     * @return
+     */
+    Flux<Store> findAllBy(Pageable pageable);
+
+    /**
+     * Returns the {@link Store}s of the given page within the given {@link Distance} of the given location, ordered by
+     * distance.
+     *
+     * @param location
+     * @param distance
+     * @param pageable
+     * @return
+     */
+    Flux<Store> findByAddressLocationNear(Point location, Distance distance, Pageable pageable);
+}
@@ -3,6 +3,8 @@ package com.rslakra.retailsuite.stores;
 
 import lombok.Data;
 
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -19,6 +21,26 @@ public class Store {
 	private String name;
 	private Address address;
 
+	/**
+	 * The identifiers of the store in the catalog it was imported from. Store numbers get reused when a store
+	 * relocates, so only both together identify a catalog row.
+	 */
+	private String storeNumber;
+	private String facilityId;
+
+	/**
+	 * The attributes of the store as listed in the catalog: the products, services and stations it features (e.g.
+	 * {@code Drive-Through}), whether it is company owned or licensed, and its venue type.
+	 */
+	private List<String> features;
+	private String ownershipType;
+	private String venueType;
+
+	/**
+	 * Digest of the catalog row the store was imported from, telling a catalog sync whether the row has changed.
+	 */
+	private String catalogHash;
+
 	public Store(String name, Address address) {
 		this.name = name;
 		this.address = address;
@@ -0,0 +1,78 @@
+package com.rslakra.retailsuite.stores;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controller streaming the whole store catalog as newline-delimited JSON through the {@link StoreExporter}, gzipped
+ * for clients accepting it. The response is written on the request thread while the MongoDB cursor is read, so a slow
+ * client holds back the cursor instead of the export piling up in memory. Clients resume an interrupted export by
+ * passing the id of the last store they received as {@code after}.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@Profile("!" + ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreExportController {
+
+    private final StoreExporter exporter;
+
+    @GetMapping(value = "/stores/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void export(@RequestParam(name = "after", required = false) String after,
+                       @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+
+        // before the response is set up, so that the error isn't sent gzipped
+        exporter.validate(after);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (!acceptsGzip(acceptEncoding)) {
+            exporter.export(after, response.getOutputStream());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        try (OutputStream output = new GZIPOutputStream(response.getOutputStream(), 1 << 16)) {
+            exporter.export(after, output);
+        }
+    }
+
+    /**
+     * Returns whether the given {@code Accept-Encoding} header accepts gzip.
+     *
+     * @param acceptEncoding may be {@literal null}.
+     * @return
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            if ("gzip".equalsIgnoreCase(parameters[0].trim())) {
+                return parameters.length < 2 || !parameters[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,139 @@
+package com.rslakra.retailsuite.stores;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole store catalog as newline-delimited JSON, one {@link Store} per line in id order. The stores are
+ * written as they come off a MongoDB cursor, which fetches the next batch only once the previous one has been written,
+ * so memory use is bounded by the batch size and a slow reader slows down the cursor rather than filling a buffer. An
+ * interrupted export resumes after the id of the last store received.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("stores.export")
+public class StoreExporter {
+
+    private final MongoOperations operations;
+    private final ObjectWriter writer;
+    private final Counter exportedStores;
+
+    /**
+     * Number of stores fetched from MongoDB per cursor batch.
+     */
+    @Getter
+    @Setter
+    private int batchSize = 1000;
+
+    @Autowired
+    public StoreExporter(MongoOperations operations, ObjectMapper mapper, MeterRegistry registry) {
+
+        this.operations = operations;
+        this.writer = mapper.writerFor(Store.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.exportedStores = Counter.builder("stores.export.stores")
+            .description("Number of stores exported")
+            .register(registry);
+    }
+
+    /**
+     * Returns the query for the stores after the given id in id order.
+     *
+     * @param after may be {@literal null} to start with the first store.
+     * @return
+     * @throws IllegalArgumentException if the given id is not a store id.
+     */
+    public Query query(String after) {
+
+        validate(after);
+
+        Query query = new Query().with(Sort.by("id")).cursorBatchSize(batchSize);
+        if (StringUtils.hasText(after)) {
+            query.addCriteria(Criteria.where("id").gt(after));
+        }
+
+        return query;
+    }
+
+    /**
+     * Checks that the given id to export after is a store id. Compared to any other string, the ids would silently
+     * match no store at all.
+     *
+     * @param after may be {@literal null}.
+     * @throws IllegalArgumentException if the given id is not a store id.
+     */
+    public void validate(String after) {
+
+        if (StringUtils.hasText(after) && !ObjectId.isValid(after)) {
+            throw new IllegalArgumentException("Invalid store id to export after: " + after);
+        }
+    }
+
+    /**
+     * Writes the stores after the given id to the given output, one JSON document per line. The output is flushed but
+     * left open.
+     *
+     * @param after may be {@literal null} to start with the first store.
+     * @param output
+     * @return the number of stores written.
+     * @throws IllegalArgumentException if the given id is not a store id.
+     * @throws IOException if writing to the output fails, e.g. because the client went away.
+     */
+    public long export(String after, OutputStream output) throws IOException {
+
+        long start = System.nanoTime();
+        long count = 0;
+
+        try (Stream<Store> stores = operations.stream(query(after), Store.class);
+             JsonGenerator json = writer.createGenerator(output)) {
+
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            for (Store store : (Iterable<Store>) stores::iterator) {
+                writer.writeValue(json, store);
+                json.writeRaw('\n');
+                count++;
+            }
+        } finally {
+            exported(after, count, start);
+        }
+
+        return count;
+    }
+
+    /**
+     * Records an export of the given number of stores that was streamed from {@link #query(String)} elsewhere.
+     *
+     * @param after the id the export started after, may be {@literal null}.
+     * @param count
+     * @param start the {@link System#nanoTime()} the export started at.
+     */
+    public void exported(String after, long count, long start) {
+
+        exportedStores.increment(count);
+        log.info("Exported {} stores after {} in {} ms.", count, after,
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,165 @@
+
+package com.rslakra.retailsuite.stores;
+
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.core.io.Resource;
+import org.springframework.data.geo.Point;
+import org.springframework.validation.BindException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * {@link FieldSetMapper} creating {@link Store}s from the rows of a store catalog in the format of
+ * {@code starbucks.csv}.
+ *
+ * @author Rohtash Lakra
+ */
+public enum StoreFieldSetMapper implements FieldSetMapper<Store> {
+
+    INSTANCE;
+
+    /**
+     * Creates a {@link DefaultLineMapper} for the given catalog, naming the columns after its header line.
+     *
+     * @param resource
+     * @return
+     * @throws IOException
+     */
+    public static DefaultLineMapper<Store> lineMapper(Resource resource) throws IOException {
+
+        String line;
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            line = reader.readLine();
+        }
+
+        if (line == null) {
+            throw new IllegalArgumentException("Store catalog is empty: " + resource);
+        }
+
+        // strip a byte order mark so that the first column can be read by name
+        if (line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+
+        // DelimitedLineTokenizer defaults to comma as its delimiter
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames(line.split(","));
+        tokenizer.setStrict(false);
+
+        DefaultLineMapper<Store> lineMapper = new DefaultLineMapper<Store>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(INSTANCE);
+
+        return lineMapper;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.batch.item.file.mapping.FieldSetMapper#mapFieldSet(org.springframework.batch.item.file.transform.FieldSet)
+     */
+    @Override
+    public Store mapFieldSet(FieldSet fields) throws BindException {
+
+        Point location = new Point(fields.readDouble("Longitude"), fields.readDouble("Latitude"));
+        Address address = new Address(fields.readString("Street Address"), fields.readString("City"),
+                                      fields.readString("Zip"), location);
+
+        Store store = new Store(fields.readString("Name"), address);
+        store.setStoreNumber(fields.readString("Store Number"));
+        store.setFacilityId(fields.readString("Facility ID"));
+        store.setFeatures(features(fields.readString("Features - Products"), fields.readString("Features - Service"),
+                                   fields.readString("Features - Stations")));
+        store.setOwnershipType(emptyToNull(fields.readString("Ownership Type")));
+        store.setVenueType(emptyToNull(fields.readString("Venue Type")));
+        store.setCatalogHash(catalogHash(store));
+
+        return store;
+    }
+
+    /**
+     * Returns the features listed in the given comma separated catalog columns, in order.
+     *
+     * @param columns
+     * @return
+     */
+    public static List<String> features(String... columns) {
+
+        List<String> features = new ArrayList<>();
+        for (String column : columns) {
+            if (column == null) {
+                continue;
+            }
+            for (String feature : column.split(",")) {
+                if (!feature.isBlank()) {
+                    features.add(feature.trim());
+                }
+            }
+        }
+
+        return features;
+    }
+
+    /**
+     * Returns a digest of the catalog attributes of the given {@link Store}, i.e. of everything but its id and hash, so
+     * that two rows describing the same store have the same hash.
+     *
+     * @param store
+     * @return
+     */
+    public static String catalogHash(Store store) {
+
+        StringBuilder row = new StringBuilder(256);
+        append(row, store.getStoreNumber());
+        append(row, store.getFacilityId());
+        append(row, store.getName());
+
+        Address address = store.getAddress();
+        if (address != null) {
+            append(row, address.getStreet());
+            append(row, address.getCity());
+            append(row, address.getZip());
+            Point location = address.getLocation();
+            append(row, location == null ? null : location.getX() + " " + location.getY());
+        }
+
+        append(row, store.getFeatures() == null ? null : String.join(",", store.getFeatures()));
+        append(row, store.getOwnershipType());
+        append(row, store.getVenueType());
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(row.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the given catalog value or {@literal null} if it is empty.
+     *
+     * @param value
+     * @return
+     */
+    public static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static void append(StringBuilder row, String value) {
+
+        // unit separator, which doesn't occur in the catalog, so that shifting text between columns changes the hash
+        row.append(value == null ? "\u0000" : value).append('\u001F');
+    }
+}
@@ -0,0 +1,57 @@
+package com.rslakra.retailsuite.stores;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+/**
+ * The location index of the {@link Store} collection, shared by the primary database and the partitions. It is a
+ * compound 2dsphere index on {@code address.location} followed by the attributes of a
+ * {@link com.rslakra.retailsuite.stores.geo.StoreFilter}, so that filtered location searches are narrowed down on the
+ * index keys instead of on the documents the geo query fetched. It serves unfiltered searches just as well.
+ *
+ * @author Rohtash Lakra
+ */
+public final class StoreIndexes {
+
+    static final String LOCATION_INDEX = "address.location_2dsphere_features_ownershipType_venueType";
+
+    /**
+     * The single-field 2dsphere index created before, dropped as {@code $geoNear} refuses to choose between two.
+     */
+    static final String SINGLE_FIELD_LOCATION_INDEX = "address.location_2dsphere";
+
+    private StoreIndexes() {
+    }
+
+    /**
+     * Returns the definition of the location index.
+     *
+     * @return
+     */
+    public static IndexDefinition location() {
+
+        return new CompoundIndexDefinition(new Document("address.location", "2dsphere")
+                                               .append("features", 1)
+                                               .append("ownershipType", 1)
+                                               .append("venueType", 1))
+            .named(LOCATION_INDEX);
+    }
+
+    /**
+     * Creates the location index unless it exists, replacing the single-field 2dsphere index.
+     *
+     * @param indexOps
+     */
+    public static void ensureLocation(IndexOperations indexOps) {
+
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if (SINGLE_FIELD_LOCATION_INDEX.equals(index.getName())) {
+                indexOps.dropIndex(SINGLE_FIELD_LOCATION_INDEX);
+            }
+        }
+        indexOps.ensureIndex(location());
+    }
+}
@@ -1,105 +1,230 @@
 
 package com.rslakra.retailsuite.stores;
 
+import com.rslakra.retailsuite.stores.catalog.StoreCatalogReader;
+import com.rslakra.retailsuite.stores.geo.StoreLocationIndexer;
+import com.rslakra.retailsuite.stores.geo.StoreQueryCache;
+import com.rslakra.retailsuite.stores.partition.StorePartitions;
+import com.rslakra.retailsuite.stores.typeahead.StoreTypeahead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.mapping.DefaultLineMapper;
-import org.springframework.batch.item.file.mapping.FieldSetMapper;
 import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
-import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
-import org.springframework.batch.item.file.transform.FieldSet;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.data.geo.Point;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.stereotype.Component;
-import org.springframework.validation.BindException;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Component initializing a handful of Starbucks stores and persisting them through a {@link StoreRepository}.
+ * Component importing the Starbucks stores into MongoDB if the store collection is empty. The import runs in the
+ * background once the application has started, streams the file through a {@link StoreCatalogReader} in chunks of
+ * unordered bulk inserts and reports the application as not ready until it has completed.
  *
  * @author Rohtash Lakra
  */
 @Slf4j
 @Component
-public class StoreInitializer {
+@ConfigurationProperties("stores.import")
+public class StoreInitializer implements HealthIndicator {
+
+    private final MongoOperations operations;
+    private final StoreLocationIndexer indexer;
+    private final StoreQueryCache cache;
+    private final StoreTypeahead typeahead;
+    private final StorePartitions partitions;
+    private final Counter importedStores;
+    private final Timer importTimer;
+
+    private final AtomicLong imported = new AtomicLong();
+    private volatile ImportState state = ImportState.PENDING;
+    private volatile long startNanos;
+    private volatile String failure;
+
+    /**
+     * Whether to import the stores at startup if the collection is empty.
+     */
+    @Getter
+    @Setter
+    private boolean enabled = true;
+
+    /**
+     * Number of stores sent to MongoDB per bulk write.
+     */
+    @Getter
+    @Setter
+    private int chunkSize = 1000;
 
     @Autowired
-    public StoreInitializer(StoreRepository repository) throws Exception {
+    public StoreInitializer(MongoOperations operations, StoreLocationIndexer indexer, StoreQueryCache cache,
+                            StoreTypeahead typeahead, StorePartitions partitions, MeterRegistry registry) {
+
+        this.operations = operations;
+        this.indexer = indexer;
+        this.cache = cache;
+        this.typeahead = typeahead;
+        this.partitions = partitions;
+        this.importedStores = Counter.builder("stores.import.stores")
+            .description("Number of stores imported into MongoDB")
+            .register(registry);
+        this.importTimer = Timer.builder("stores.import.duration")
+            .description("Time taken by the store import")
+            .register(registry);
+
+        Gauge.builder("stores.import.throughput", this, StoreInitializer::getThroughput)
+            .description("Stores imported per second by the running or last import")
+            .baseUnit("stores/s")
+            .register(registry);
+        Gauge.builder("stores.import.completed", this, it -> it.state.isDone() ? 1 : 0)
+            .description("Whether the store import has completed")
+            .register(registry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+
+        if (!enabled || operations.estimatedCount(Store.class) != 0) {
+            state = ImportState.SKIPPED;
+            return;
+        }
+
+        state = ImportState.RUNNING;
+        Thread.ofPlatform().name("store-import").daemon().start(this::importStores);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.boot.actuate.health.HealthIndicator#health()
+     */
+    @Override
+    public Health health() {
+
+        Health.Builder builder = switch (state) {
+            case SKIPPED, COMPLETED -> Health.up();
+            case FAILED -> Health.down().withDetail("error", failure);
+            default -> Health.outOfService();
+        };
+
+        return builder.withDetail("state", state).withDetail("imported", imported.get()).build();
+    }
+
+    private void importStores() {
+
+        Resource resource = new ClassPathResource("starbucks.csv");
+        log.info("Importing stores from {} into MongoDB in chunks of {}…", resource, chunkSize);
+        startNanos = System.nanoTime();
+        typeahead.beginBulkWrite();
+
+        try (StoreCatalogReader reader = StoreCatalogReader.open(resource)) {
+            List<Store> chunk = new ArrayList<>(chunkSize);
+
+            for (Store store = reader.read(); store != null; store = reader.read()) {
+                chunk.add(store);
+                if (chunk.size() == chunkSize) {
+                    write(chunk);
+                }
+            }
+            write(chunk);
+
+            state = ImportState.COMPLETED;
+            log.info("Successfully imported {} stores ({} stores/s).", imported.get(), (long) getThroughput());
+        } catch (Exception e) {
+            failure = e.getMessage();
+            state = ImportState.FAILED;
+            log.error("Failed to import stores after {} stores.", imported.get(), e);
+        } finally {
+            importTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            indexer.invalidate();
+            cache.invalidateAll();
+            typeahead.endBulkWrite();
+            typeahead.invalidate();
+            partitions.invalidate();
+        }
+    }
+
+    private void write(List<Store> chunk) {
 
-        if (repository.count() != 0) {
+        if (chunk.isEmpty()) {
             return;
         }
 
-        List<Store> stores = readStores();
-        log.info("Importing {} stores into MongoDB…", stores.size());
-        repository.saveAll(stores);
-        log.info("Successfully imported {} stores.", repository.count());
+        operations.bulkOps(BulkMode.UNORDERED, Store.class).insert(chunk).execute();
+        imported.addAndGet(chunk.size());
+        importedStores.increment(chunk.size());
+        chunk.clear();
+    }
+
+    private double getThroughput() {
+
+        long elapsed = System.nanoTime() - startNanos;
+        return startNanos == 0 || elapsed <= 0 ? 0 : imported.get() / (elapsed / 1e9);
     }
 
     /**
      * Reads a file {@code starbucks.csv} from the class path and parses it into {@link Store} instances about to
-     * persisted.
+     * persisted, using a {@link FlatFileItemReader}.
      *
      * @return
      * @throws Exception
      */
     public static List<Store> readStores() throws Exception {
 
-        ClassPathResource resource = new ClassPathResource("starbucks.csv");
-        Scanner scanner = new Scanner(resource.getInputStream());
-        String line = scanner.nextLine();
-        scanner.close();
-
-        FlatFileItemReader<Store> itemReader = new FlatFileItemReader<Store>();
-        itemReader.setResource(resource);
-
-        // DelimitedLineTokenizer defaults to comma as its delimiter
-        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-        tokenizer.setNames(line.split(","));
-        tokenizer.setStrict(false);
-
-        DefaultLineMapper<Store> lineMapper = new DefaultLineMapper<Store>();
-        lineMapper.setLineTokenizer(tokenizer);
-        lineMapper.setFieldSetMapper(StoreFieldSetMapper.INSTANCE);
-        itemReader.setLineMapper(lineMapper);
-        itemReader.setRecordSeparatorPolicy(new DefaultRecordSeparatorPolicy());
-        itemReader.setLinesToSkip(1);
-        itemReader.open(new ExecutionContext());
-
+        FlatFileItemReader<Store> itemReader = createReader(new ClassPathResource("starbucks.csv"));
         List<Store> stores = new ArrayList<>();
-        Store store = null;
 
-        do {
-            store = itemReader.read();
-            if (store != null) {
+        try {
+            for (Store store = itemReader.read(); store != null; store = itemReader.read()) {
                 stores.add(store);
             }
-        } while (store != null);
+        } finally {
+            itemReader.close();
+        }
 
         return stores;
     }
 
-    private static enum StoreFieldSetMapper implements FieldSetMapper<Store> {
+    /**
+     * Creates an opened {@link FlatFileItemReader} parsing the given CSV resource into {@link Store}s one at a time.
+     *
+     * @param resource
+     * @return
+     * @throws Exception
+     */
+    static FlatFileItemReader<Store> createReader(Resource resource) throws Exception {
+
+        FlatFileItemReader<Store> itemReader = new FlatFileItemReader<Store>();
+        itemReader.setResource(resource);
+        itemReader.setLineMapper(StoreFieldSetMapper.lineMapper(resource));
+        itemReader.setRecordSeparatorPolicy(new DefaultRecordSeparatorPolicy());
+        itemReader.setLinesToSkip(1);
+        itemReader.open(new ExecutionContext());
 
-        INSTANCE;
+        return itemReader;
+    }
 
-        /*
-         * (non-Javadoc)
-         * @see org.springframework.batch.item.file.mapping.FieldSetMapper#mapFieldSet(org.springframework.batch.item.file.transform.FieldSet)
-         */
-        @Override
-        public Store mapFieldSet(FieldSet fields) throws BindException {
+    private static enum ImportState {
 
-            Point location = new Point(fields.readDouble("Longitude"), fields.readDouble("Latitude"));
-            Address address = new Address(fields.readString("Street Address"), fields.readString("City"),
-                                          fields.readString("Zip"), location);
+        PENDING, RUNNING, SKIPPED, COMPLETED, FAILED;
 
-            return new Store(fields.readString("Name"), address);
+        boolean isDone() {
+            return this == SKIPPED || this == COMPLETED;
         }
     }
 }
@@ -0,0 +1,65 @@
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.StoreMapProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller to render {@link Store}s on a map: returns the clusters of stores within a viewport when zoomed out and
+ * the individual stores when zoomed in, so that the payload stays proportional to the number of markers drawn rather
+ * than to the number of stores.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@Profile("!" + ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreMapController {
+
+    static final String VIEWPORT = "viewport";
+
+    private static final int MAX_ZOOM = 22;
+
+    private final StoreRepository repository;
+    private final StoreMapProperties properties;
+
+    @GetMapping("/stores/search/" + VIEWPORT)
+    public StoreViewport findInViewport(@RequestParam("south") double south, @RequestParam("west") double west,
+                                        @RequestParam("north") double north, @RequestParam("east") double east,
+                                        @RequestParam("zoom") int zoom) {
+
+        if (south < -90 || north > 90 || south > north) {
+            throw new IllegalArgumentException(
+                String.format("Latitudes must be between -90 and 90 with south <= north, got: %f, %f", south, north));
+        }
+        if (west < -180 || west > 180 || east < -180 || east > 180) {
+            throw new IllegalArgumentException(
+                String.format("Longitudes must be between -180 and 180, got: %f, %f", west, east));
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException(
+                String.format("Zoom must be between 0 and %d, got: %d", MAX_ZOOM, zoom));
+        }
+
+        Box bounds = new Box(new Point(west, south), new Point(east, north));
+        if (zoom <= properties.getMaxClusterZoom()) {
+            return new StoreViewport(zoom, repository.findClusters(bounds, zoom), List.of());
+        }
+
+        // fall back to the finest clusters if the viewport still holds too many stores to draw them one by one
+        List<Store> stores = repository.findWithin(bounds, properties.getMaxStores() + 1);
+        if (stores.size() > properties.getMaxStores()) {
+            return new StoreViewport(zoom, repository.findClusters(bounds, properties.getMaxClusterZoom()), List.of());
+        }
+
+        return new StoreViewport(zoom, List.of(), stores);
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.data.geo.Point;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
-import org.springframework.data.rest.core.annotation.RestResource;
 
 /**
  * Repository interface for out-of-the-box paginating access to {@link Store}s and a query method to find stores by
@@ -16,9 +15,14 @@ import org.springframework.data.rest.core.annotation.RestResource;
  *
  * @author Rohtash Lakra
  */
-public interface StoreRepository extends PagingAndSortingRepository<Store, String>, CrudRepository<Store, String> {
+public interface StoreRepository extends PagingAndSortingRepository<Store, String>, CrudRepository<Store, String>,
+                                         StoreRepositoryCustom {
 
-    @RestResource(rel = "by-location")
+    /**
+     * Implemented by {@link StoreRepositoryCustomImpl} and exposed as {@code /stores/search/by-location} by the
+     * {@link StoreSearchController}.
+     */
+    @Override
     Page<Store> findByAddressLocationNear(@Param("location") Point location, @Param("distance") Distance distance,
                                           Pageable pageable);
 }
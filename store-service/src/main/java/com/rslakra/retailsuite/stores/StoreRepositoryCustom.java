@@ -0,0 +1,115 @@
+
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.GeoCursor;
+import com.rslakra.retailsuite.stores.geo.StoreCluster;
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for {@link StoreRepository} taking over the location queries so that they can be
+ * answered from in-process structures before falling back to MongoDB.
+ *
+ * @author Rohtash Lakra
+ */
+public interface StoreRepositoryCustom {
+
+    /**
+     * Returns the {@link Store}s within the given {@link Distance} of the given location ordered by distance.
+     *
+     * @param location
+     * @param distance
+     * @param pageable
+     * @return
+     */
+    Page<Store> findByAddressLocationNear(Point location, Distance distance, Pageable pageable);
+
+    /**
+     * Returns the {@link Store}s within the given {@link Distance} of the given location that pass the given
+     * {@link StoreFilter}, ordered by distance.
+     *
+     * @param location
+     * @param distance
+     * @param filter
+     * @param pageable
+     * @return
+     */
+    Page<Store> findByAddressLocationNear(Point location, Distance distance, StoreFilter filter, Pageable pageable);
+
+    /**
+     * Returns the {@link Store}s like {@link #findByAddressLocationNear(Point, Distance, StoreFilter, Pageable)} with
+     * only their id, name and location loaded, for responses listing just those.
+     *
+     * @param location
+     * @param distance
+     * @param filter
+     * @param pageable
+     * @return
+     */
+    Page<Store> findSummariesByAddressLocationNear(Point location, Distance distance, StoreFilter filter,
+                                                   Pageable pageable);
+
+    /**
+     * Returns the {@code k} {@link Store}s closest to the given location along with their distances, without counting
+     * all matches. If a maximum {@link Distance} is given, only stores within it are returned and distances are given
+     * in its metric, in kilometers otherwise.
+     *
+     * @param location
+     * @param maxDistance may be {@literal null}.
+     * @param k
+     * @return
+     */
+    default GeoResults<Store> findNearest(Point location, Distance maxDistance, int k) {
+        return findNearest(location, maxDistance, StoreFilter.NONE, k, null);
+    }
+
+    /**
+     * Returns the next {@code k} {@link Store}s closest to the given location that pass the given {@link StoreFilter}
+     * after the given {@link GeoCursor}, so that a client can page through the stores by distance without skipping over
+     * or counting the previous ones.
+     *
+     * @param location
+     * @param maxDistance may be {@literal null}.
+     * @param filter
+     * @param k
+     * @param after may be {@literal null} to start with the closest store.
+     * @return
+     */
+    GeoResults<Store> findNearest(Point location, Distance maxDistance, StoreFilter filter, int k, GeoCursor after);
+
+    /**
+     * Returns up to {@code limit} {@link Store}s ordered by id, starting after the store with the given id.
+     *
+     * @param id may be {@literal null} to start with the first store.
+     * @param limit
+     * @return
+     */
+    List<Store> findAfter(String id, int limit);
+
+    /**
+     * Returns the {@link StoreCluster}s of the given zoom level overlapping the given bounds, which span from their
+     * south-west to their north-east corner.
+     *
+     * @param bounds
+     * @param zoom
+     * @return
+     */
+    List<StoreCluster> findClusters(Box bounds, int zoom);
+
+    /**
+     * Returns up to {@code limit} {@link Store}s within the given bounds, which span from their south-west to their
+     * north-east corner.
+     *
+     * @param bounds
+     * @param limit
+     * @return
+     */
+    List<Store> findWithin(Box bounds, int limit);
+}
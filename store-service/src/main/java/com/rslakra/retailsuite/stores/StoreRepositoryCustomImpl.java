@@ -0,0 +1,442 @@
+
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.GeoCursor;
+import com.rslakra.retailsuite.stores.geo.GeoMath;
+import com.rslakra.retailsuite.stores.geo.StoreCluster;
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import com.rslakra.retailsuite.stores.geo.StoreLocationIndexer;
+import com.rslakra.retailsuite.stores.geo.StoreMapProperties;
+import com.rslakra.retailsuite.stores.geo.StoreQueryCache;
+import com.rslakra.retailsuite.stores.geo.StoreQueryMetrics;
+import com.rslakra.retailsuite.stores.partition.StorePartitions;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of {@link StoreRepositoryCustom} answering location queries from the {@link StoreLocationIndexer}
+ * if it is enabled and up to date and from MongoDB otherwise. Location searches go through the {@link StoreQueryCache}
+ * first. MongoDB queries near a location go to the {@link StorePartitions} overlapping the search circle, if the stores
+ * are partitioned, and their results are merged by distance. Location searches are timed by the
+ * {@link StoreQueryMetrics}.
+ *
+ * @author Rohtash Lakra
+ */
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+class StoreRepositoryCustomImpl implements StoreRepositoryCustom {
+
+    static final String LOCATION = "address.location";
+    static final String LONGITUDE = LOCATION + ".x";
+    static final String LATITUDE = LOCATION + ".y";
+    static final String[] SUMMARY_FIELDS = { "name", LOCATION };
+
+    private static final double STRIP_DEGREES = 90;
+    private static final double MARGIN_DEGREES = 1e-6;
+    private static final double MAX_LATITUDE = 89.99;
+
+    private final MongoOperations operations;
+    private final StoreLocationIndexer indexer;
+    private final StoreQueryCache cache;
+    private final StoreMapProperties mapProperties;
+    private final StorePartitions partitions;
+    private final StoreQueryMetrics metrics;
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findByAddressLocationNear(org.springframework.data.geo.Point, org.springframework.data.geo.Distance, org.springframework.data.domain.Pageable)
+     */
+    @Override
+    public Page<Store> findByAddressLocationNear(Point location, Distance distance, Pageable pageable) {
+        return findByAddressLocationNear(location, distance, StoreFilter.NONE, pageable);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findByAddressLocationNear(org.springframework.data.geo.Point, org.springframework.data.geo.Distance, com.rslakra.retailsuite.stores.geo.StoreFilter, org.springframework.data.domain.Pageable)
+     */
+    @Override
+    public Page<Store> findByAddressLocationNear(Point location, Distance distance, StoreFilter filter,
+                                                 Pageable pageable) {
+        return findNear(location, distance, filter, pageable, false);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findSummariesByAddressLocationNear(org.springframework.data.geo.Point, org.springframework.data.geo.Distance, com.rslakra.retailsuite.stores.geo.StoreFilter, org.springframework.data.domain.Pageable)
+     */
+    @Override
+    public Page<Store> findSummariesByAddressLocationNear(Point location, Distance distance, StoreFilter filter,
+                                                          Pageable pageable) {
+        return findNear(location, distance, filter, pageable, true);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findNearest(org.springframework.data.geo.Point, org.springframework.data.geo.Distance, com.rslakra.retailsuite.stores.geo.StoreFilter, int, com.rslakra.retailsuite.stores.geo.GeoCursor)
+     */
+    @Override
+    public GeoResults<Store> findNearest(Point location, Distance maxDistance, StoreFilter filter, int k,
+                                         GeoCursor after) {
+
+        GeoResults<Store> stores = indexer.findNearest(location, maxDistance, filter, k, after);
+        if (stores != null) {
+            return stores;
+        }
+
+        // $geoNear walks the index outwards from the location and stops after k documents
+        NearQuery query = NearQuery.near(location).spherical(true).limit(k);
+        Metric metric = Metrics.KILOMETERS;
+        if (maxDistance != null) {
+            query.maxDistance(maxDistance);
+            metric = maxDistance.getMetric();
+        } else {
+            query.in(metric);
+        }
+
+        // resume at the distance of the cursor, leaving out the stores already returned at that distance
+        Query filterQuery = filterQuery(filter);
+        if (after != null) {
+            query.minDistance(new Distance(after.getDistance() * metric.getMultiplier(), metric));
+            if (!after.getIds().isEmpty()) {
+                filterQuery.addCriteria(Criteria.where("id").nin(after.getIds()));
+            }
+        }
+        query.query(filterQuery);
+
+        List<GeoResults<Store>> results = partitions.queryNear(location, maxDistance,
+                                                              partition -> partition.geoNear(query, Store.class));
+        if (results == null) {
+            return operations.geoNear(query, Store.class);
+        }
+
+        // each partition returns its k nearest, so the k nearest overall are among them
+        List<GeoResult<Store>> merged = new ArrayList<>();
+        results.forEach(it -> merged.addAll(it.getContent()));
+        merged.sort(Comparator.comparingDouble(it -> it.getDistance().getValue()));
+
+        return new GeoResults<>(merged.subList(0, Math.min(k, merged.size())), metric);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findAfter(java.lang.String, int)
+     */
+    @Override
+    public List<Store> findAfter(String id, int limit) {
+
+        Query query = id == null ? new Query() : new Query(Criteria.where("id").gt(id));
+        return operations.find(query.with(Sort.by("id")).limit(limit), Store.class);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findClusters(org.springframework.data.geo.Box, int)
+     */
+    @Override
+    public List<StoreCluster> findClusters(Box bounds, int zoom) {
+
+        List<StoreCluster> clusters = indexer.findClusters(bounds, zoom);
+        return clusters != null ? clusters : findClustersInMongo(bounds, zoom);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.rslakra.retailsuite.stores.StoreRepositoryCustom#findWithin(org.springframework.data.geo.Box, int)
+     */
+    @Override
+    public List<Store> findWithin(Box bounds, int limit) {
+
+        return operations.find(new Query(within(bounds)).limit(limit), Store.class);
+    }
+
+    /**
+     * Groups the stores within the given bounds by the cells of the given zoom level, as done by the precomputed
+     * clusters.
+     *
+     * @param bounds
+     * @param zoom
+     * @return
+     */
+    List<StoreCluster> findClustersInMongo(Box bounds, int zoom) {
+
+        double cell = mapProperties.cellDegrees(Math.max(0, Math.min(zoom, mapProperties.getMaxClusterZoom())));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(within(bounds)),
+            Aggregation.project()
+                .and(cellOf(LONGITUDE, 180, cell)).as("column")
+                .and(cellOf(LATITUDE, 90, cell)).as("row")
+                .and(LONGITUDE).as("longitude")
+                .and(LATITUDE).as("latitude"),
+            Aggregation.group("column", "row")
+                .count().as("count")
+                .avg("latitude").as("latitude")
+                .avg("longitude").as("longitude"));
+
+        List<StoreCluster> clusters = new ArrayList<>();
+        for (Document cluster : operations.aggregate(aggregation, operations.getCollectionName(Store.class),
+                                                     Document.class)) {
+            clusters.add(new StoreCluster(cluster.get("latitude", Number.class).doubleValue(),
+                                          cluster.get("longitude", Number.class).doubleValue(),
+                                          cluster.get("count", Number.class).longValue()));
+        }
+
+        return clusters;
+    }
+
+    /**
+     * Answers a location search from the {@link StoreQueryCache}, the {@link StoreLocationIndexer} or MongoDB, in that
+     * order. On a cache miss the search runs for the cache's cell center with a widened distance, limited to what an
+     * entry may hold, and on a hit the stores of the page are loaded by id. The in-memory index holds whole stores
+     * anyway, MongoDB loads only the {@link #SUMMARY_FIELDS} for summaries.
+     */
+    private Page<Store> findNear(Point location, Distance distance, StoreFilter filter, Pageable pageable,
+                                 boolean summaries) {
+
+        StoreQueryMetrics.Sample sample = metrics.start(location, distance, pageable);
+        try {
+            return sample.stop(cache.get(location, distance, filter, pageable, (point, within, page) -> {
+                Page<Store> stores = indexer.findNear(point, within, filter, page);
+                if (stores != null) {
+                    sample.fromIndex();
+                    return stores;
+                }
+                return findNearInMongo(point, within, filter, page, summaries, sample);
+            }, ids -> findAllById(ids, summaries)));
+        } catch (RuntimeException e) {
+            throw sample.stop(e);
+        }
+    }
+
+    private List<Store> findAllById(List<String> ids, boolean summaries) {
+
+        Query query = Query.query(Criteria.where("id").in(ids));
+        if (summaries) {
+            query.fields().include(SUMMARY_FIELDS);
+        }
+
+        return operations.find(query, Store.class);
+    }
+
+    /**
+     * Mirrors the query Spring Data derives for {@code findByAddressLocationNear}: a {@code $nearSphere} query for
+     * metric distances, a planar {@code $near} otherwise, and a count query that is only issued if the page does not
+     * tell the total already. The attributes of the {@link StoreFilter} are matched on the keys of the compound
+     * {@link StoreIndexes#location()} index.
+     *
+     * @param location
+     * @param distance
+     * @param filter
+     * @param pageable
+     * @param summaries whether to load the {@link #SUMMARY_FIELDS} only.
+     * @param sample records the query and the databases it ran on.
+     * @return
+     */
+    Page<Store> findNearInMongo(Point location, Distance distance, StoreFilter filter, Pageable pageable,
+                                boolean summaries, StoreQueryMetrics.Sample sample) {
+
+        Query query = nearQuery(location, distance, filter, summaries).with(pageable);
+
+        if (pageable.getSort().isUnsorted()) {
+            Page<Store> stores = findNearInPartitions(location, distance, filter, pageable, summaries, sample);
+            if (stores != null) {
+                return stores;
+            }
+        }
+
+        sample.fromMongo(query, operations);
+        List<Store> content = operations.find(query, Store.class);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                                              () -> operations.count(Query.of(query).limit(-1).skip(-1), Store.class));
+    }
+
+    /**
+     * Runs {@link #findNearInMongo} on the partitions overlapping the search circle. Each partition returns the stores
+     * up to the end of the page, which are merged by distance before the page is cut out, and the total is the sum of
+     * the partitions' counts.
+     *
+     * @param location
+     * @param distance
+     * @param filter
+     * @param pageable
+     * @param summaries
+     * @param sample records the query and the partitions it ran on.
+     * @return the page or {@literal null} if the stores are not partitioned.
+     */
+    private Page<Store> findNearInPartitions(Point location, Distance distance, StoreFilter filter,
+                                             Pageable pageable, boolean summaries, StoreQueryMetrics.Sample sample) {
+
+        Query query = nearQuery(location, distance, filter, summaries);
+        Query head = pageable.isPaged()
+                     ? Query.of(query).with(PageRequest.of(0, (int) (pageable.getOffset() + pageable.getPageSize())))
+                     : query;
+
+        List<List<Store>> results = partitions.queryNear(location, distance, partition -> {
+            sample.fromMongo(head, partition);
+            return partition.find(head, Store.class);
+        });
+        if (results == null) {
+            return null;
+        }
+
+        boolean planar = distance == null || Metrics.NEUTRAL.equals(distance.getMetric());
+        List<Store> merged = new ArrayList<>();
+        results.forEach(merged::addAll);
+        merged.sort(Comparator.comparingDouble(store -> distanceOf(location, store, planar)));
+
+        List<Store> content = pageable.isUnpaged() ? merged : merged.subList(
+            (int) Math.min(pageable.getOffset(), merged.size()),
+            (int) Math.min(pageable.getOffset() + pageable.getPageSize(), merged.size()));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            List<Long> counts = partitions.queryNear(location, distance,
+                                                     partition -> partition.count(Query.of(query), Store.class));
+            return counts.stream().mapToLong(Long::longValue).sum();
+        });
+    }
+
+    private static double distanceOf(Point location, Store store, boolean planar) {
+
+        Point point = store.getAddress().getLocation();
+        return planar ? Math.hypot(point.getX() - location.getX(), point.getY() - location.getY())
+                      : GeoMath.angularDistance(location, point);
+    }
+
+    private static AggregationExpression cellOf(String field, double offset, double cell) {
+        return ArithmeticOperators.Floor.floorValueOf(
+            ArithmeticOperators.valueOf(ArithmeticOperators.valueOf(field).add(offset)).divideBy(cell));
+    }
+
+    /**
+     * Matches the stores within the given bounds, as ranges of their coordinates like the precomputed clusters, behind
+     * {@code $geoWithin} GeoJSON polygons that can use the 2dsphere index, unlike the ranges or a legacy {@code $box}.
+     * GeoJSON edges are geodesics and polygons larger than a hemisphere stand for their complement, so the bounds are
+     * covered by strips of at most {@value #STRIP_DEGREES} degrees, whose edges bowing into the bounds are moved out by
+     * as much as they bow. The polygons only select candidates, the ranges decide.
+     *
+     * @param bounds
+     * @return
+     */
+    private static Criteria within(Box bounds) {
+
+        double west = bounds.getFirst().getX();
+        double east = bounds.getSecond().getX();
+        double south = bounds.getFirst().getY();
+        double north = bounds.getSecond().getY();
+
+        double width = west <= east ? east - west : east + 360 - west;
+        int strips = Math.max(1, (int) Math.ceil(width / STRIP_DEGREES));
+        double step = width / strips;
+
+        Criteria[] candidates = new Criteria[strips];
+        for (int i = 0; i < strips; i++) {
+            candidates[i] = Criteria.where(LOCATION).within(strip(west + i * step, step, south, north));
+        }
+
+        Criteria longitude = west <= east ? Criteria.where(LONGITUDE).gte(west).lte(east)
+                                          : new Criteria().orOperator(Criteria.where(LONGITUDE).gte(west),
+                                                                      Criteria.where(LONGITUDE).lte(east));
+        Criteria latitude = Criteria.where(LATITUDE).gte(south).lte(north);
+
+        return new Criteria().andOperator(strips == 1 ? candidates[0] : new Criteria().orOperator(candidates),
+                                          latitude, longitude);
+    }
+
+    /**
+     * Returns a GeoJSON polygon covering the given strip of at most {@value #STRIP_DEGREES} degrees. An edge of latitude
+     * {@code φ} bows towards the pole by up to {@code atan(tan(φ) / cos(width / 2))}, so the edge closer to the equator
+     * is moved to {@code atan(tan(φ) * cos(width / 2))}, which bows up to {@code φ}. Edges along the poles would
+     * collapse into a single vertex, and there are no stores there, so the strip stops short of them.
+     */
+    private static GeoJsonPolygon strip(double west, double width, double south, double north) {
+
+        double cos = Math.cos(Math.toRadians(width / 2));
+        double bottom = south > 0 ? Math.toDegrees(Math.atan(Math.tan(Math.toRadians(south)) * cos)) : south;
+        double top = north < 0 ? Math.toDegrees(Math.atan(Math.tan(Math.toRadians(north)) * cos)) : north;
+
+        bottom = Math.max(bottom - MARGIN_DEGREES, -MAX_LATITUDE);
+        top = Math.min(top + MARGIN_DEGREES, MAX_LATITUDE);
+        double left = longitude(west - MARGIN_DEGREES);
+        double right = longitude(west + width + MARGIN_DEGREES);
+
+        return new GeoJsonPolygon(new Point(left, bottom), new Point(right, bottom), new Point(right, top),
+                                  new Point(left, top), new Point(left, bottom));
+    }
+
+    private static double longitude(double degrees) {
+        return degrees > 180 ? degrees - 360 : degrees < -180 ? degrees + 360 : degrees;
+    }
+
+    private static Query filterQuery(StoreFilter filter) {
+
+        Query query = new Query();
+        if (filter == null) {
+            return query;
+        }
+
+        if (!filter.getFeatures().isEmpty()) {
+            query.addCriteria(Criteria.where("features").all(filter.getFeatures()));
+        }
+        if (filter.getOwnershipType() != null) {
+            query.addCriteria(Criteria.where("ownershipType").is(filter.getOwnershipType()));
+        }
+        if (filter.getVenueType() != null) {
+            query.addCriteria(Criteria.where("venueType").is(filter.getVenueType()));
+        }
+
+        return query;
+    }
+
+    private static Query nearQuery(Point location, Distance distance, StoreFilter filter, boolean summaries) {
+
+        Query query = filterQuery(filter).addCriteria(nearCriteria(location, distance));
+        if (summaries) {
+            query.fields().include(SUMMARY_FIELDS);
+        }
+
+        return query;
+    }
+
+    private static Criteria nearCriteria(Point location, Distance distance) {
+
+        Criteria criteria = Criteria.where(LOCATION);
+        if (distance == null) {
+            criteria.near(location);
+        } else {
+            if (Metrics.NEUTRAL.equals(distance.getMetric())) {
+                criteria.near(location);
+            } else {
+                criteria.nearSphere(location);
+            }
+            criteria.maxDistance(distance.getNormalizedValue());
+        }
+
+        return criteria;
+    }
+}
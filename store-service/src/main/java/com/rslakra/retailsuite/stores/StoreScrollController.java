@@ -0,0 +1,47 @@
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller to scroll through all {@link Store}s or the {@link Store}s near a location with cursors instead of page
+ * numbers. Each window is fetched by seeking to the position after the previous one, so deep windows cost as much as
+ * the first one and no total is counted.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@Profile("!" + ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreScrollController {
+
+    static final String BY_LOCATION_SCROLL = "by-location-scroll";
+
+    private final NearbyStoreSearch search;
+    private final PointConverter pointConverter;
+
+    @GetMapping("/stores/scroll")
+    public StoreWindow<Store> scroll(@RequestParam(name = "size", defaultValue = "20") int size,
+                                     @RequestParam(name = "cursor", required = false) String cursor) {
+        return search.scroll(size, cursor);
+    }
+
+    @GetMapping("/stores/search/" + BY_LOCATION_SCROLL)
+    public StoreWindow<NearestStore> scrollByLocation(@RequestParam("location") String location,
+                                                      @RequestParam(name = "distance", required = false) String distance,
+                                                      @RequestParam(name = "size", defaultValue = "20") int size,
+                                                      @RequestParam(name = "cursor", required = false) String cursor,
+                                                      @RequestParam(name = "features", required = false) List<String> features,
+                                                      @RequestParam(name = "ownershipType", required = false) String ownershipType,
+                                                      @RequestParam(name = "venueType", required = false) String venueType) {
+        return search.scrollNear(pointConverter.convert(location), StoreSearchController.toDistance(distance),
+                                 StoreFilter.of(features, ownershipType, venueType), size, cursor);
+    }
+}
@@ -0,0 +1,94 @@
+
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
+import org.springframework.data.geo.format.DistanceFormatter;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Controller exposing the location searches on {@link Store}s. {@code findByAddressLocationNear} is implemented by a
+ * custom repository fragment, which Spring Data REST doesn't export as a search resource, so it is exposed here and
+ * linked from {@code /stores/search} by the {@link StoreSearchResourceProcessor}. Clients accepting
+ * {@value StoreSummaries#JSON_VALUE} or {@value StoreSummaries#BINARY_VALUE} get {@link StoreSummaries} instead of HAL.
+ *
+ * @author Rohtash Lakra
+ */
+@RepositoryRestController
+@Profile("!" + ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreSearchController {
+
+    static final String BY_LOCATION = "by-location";
+
+    private final StoreRepository repository;
+    private final PointConverter pointConverter;
+
+    @GetMapping({ "/stores/search/" + BY_LOCATION, "/stores/search/findByAddressLocationNear" })
+    public ResponseEntity<PagedModel<?>> findByLocation(@RequestParam("location") String location,
+                                                        @RequestParam(name = "distance", required = false) String distance,
+                                                        @RequestParam(name = "features", required = false) List<String> features,
+                                                        @RequestParam(name = "ownershipType", required = false) String ownershipType,
+                                                        @RequestParam(name = "venueType", required = false) String venueType,
+                                                        Pageable pageable, PagedResourcesAssembler<Object> pagedAssembler,
+                                                        PersistentEntityResourceAssembler entityAssembler) {
+
+        Page<Store> stores = repository.findByAddressLocationNear(pointConverter.convert(location),
+                                                                  toDistance(distance),
+                                                                  StoreFilter.of(features, ownershipType, venueType),
+                                                                  pageable);
+
+        return ResponseEntity.ok(toModel(stores, pagedAssembler, entityAssembler));
+    }
+
+    @GetMapping(value = { "/stores/search/" + BY_LOCATION, "/stores/search/findByAddressLocationNear" },
+                produces = { StoreSummaries.JSON_VALUE, StoreSummaries.BINARY_VALUE })
+    public ResponseEntity<StoreSummaries> findSummariesByLocation(@RequestParam("location") String location,
+                                                                  @RequestParam(name = "distance", required = false) String distance,
+                                                                  @RequestParam(name = "features", required = false) List<String> features,
+                                                                  @RequestParam(name = "ownershipType", required = false) String ownershipType,
+                                                                  @RequestParam(name = "venueType", required = false) String venueType,
+                                                                  Pageable pageable) {
+
+        Point point = pointConverter.convert(location);
+        Distance maxDistance = toDistance(distance);
+        Page<Store> stores = repository.findSummariesByAddressLocationNear(point, maxDistance,
+                                                                           StoreFilter.of(features, ownershipType, venueType),
+                                                                           pageable);
+
+        return ResponseEntity.ok(StoreSummaries.of(stores, point, maxDistance));
+    }
+
+    /**
+     * Parses a distance like {@code 50km} or {@code 10mi} the way Spring Data REST parses query method parameters.
+     *
+     * @param distance
+     * @return
+     */
+    static Distance toDistance(String distance) {
+        return distance == null || distance.isBlank() ? null : DistanceFormatter.INSTANCE.convert(distance.trim());
+    }
+
+    @SuppressWarnings("unchecked")
+    static PagedModel<?> toModel(Page<Store> stores, PagedResourcesAssembler<Object> pagedAssembler,
+                                 PersistentEntityResourceAssembler entityAssembler) {
+
+        Page<Object> page = (Page<Object>) (Page<?>) stores;
+        return page.hasContent() ? pagedAssembler.toModel(page, entityAssembler)
+                                 : pagedAssembler.toEmptyModel(page, Store.class);
+    }
+}
@@ -0,0 +1,65 @@
+
+package com.rslakra.retailsuite.stores;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.webmvc.RepositorySearchesResource;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.TemplateVariable;
+import org.springframework.hateoas.TemplateVariable.VariableType;
+import org.springframework.hateoas.TemplateVariables;
+import org.springframework.hateoas.UriTemplate;
+import org.springframework.hateoas.server.RepresentationModelProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the links to the searches of the {@link StoreSearchController} to the {@code /stores/search} resource.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@Profile("!" + ReactiveStoreController.PROFILE)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreSearchResourceProcessor implements RepresentationModelProcessor<RepositorySearchesResource> {
+
+    private final RepositoryEntityLinks entityLinks;
+
+    @Override
+    public RepositorySearchesResource process(RepositorySearchesResource model) {
+
+        if (Store.class.equals(model.getDomainType())) {
+            model.add(searchLink(StoreSearchController.BY_LOCATION, "location", "distance", "features", "ownershipType",
+                                 "venueType", "page", "size"));
+            model.add(searchLink(NearbyStoresController.NEAREST, "location", "k", "distance", "features", "ownershipType",
+                                 "venueType"));
+            model.add(searchLink(StoreScrollController.BY_LOCATION_SCROLL, "location", "distance", "features",
+                                 "ownershipType", "venueType", "size", "cursor"));
+            model.add(searchLink(StoreMapController.VIEWPORT, "south", "west", "north", "east", "zoom"));
+            model.add(searchLink(StoreTypeaheadController.TYPEAHEAD, "q", "limit", "location"));
+        }
+
+        return model;
+    }
+
+    /**
+     * Returns a templated link to the search with the given name taking the given request parameters.
+     *
+     * @param search
+     * @param parameters
+     * @return
+     */
+    Link searchLink(String search, String... parameters) {
+
+        String href = entityLinks.linkFor(Store.class).slash("search").slash(search).toUri().toString();
+
+        TemplateVariable[] variables = new TemplateVariable[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            variables[i] = new TemplateVariable(parameters[i], VariableType.REQUEST_PARAM);
+        }
+
+        return Link.of(UriTemplate.of(href).with(new TemplateVariables(variables)), LinkRelation.of(search));
+    }
+}
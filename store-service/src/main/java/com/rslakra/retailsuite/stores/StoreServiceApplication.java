@@ -2,16 +2,21 @@
 package com.rslakra.retailsuite.stores;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
-import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
 import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -28,6 +33,7 @@ import jakarta.annotation.PostConstruct;
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
 public class StoreServiceApplication implements RepositoryRestConfigurer {
 
     @Autowired
@@ -38,11 +44,37 @@ public class StoreServiceApplication implements RepositoryRestConfigurer {
         config.exposeIdsFor(Store.class);
     }
 
+    @Override
+    public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+        messageConverters.add(0, new StoreSummariesHttpMessageConverter());
+    }
+
+    /**
+     * Bounded pool running the location queries of {@link NearbyStoreSearch} batches, shut down with the context. It is
+     * no default candidate, so that the auto-configured application task executor stays in place.
+     *
+     * @param parallelism number of location queries run concurrently.
+     * @return
+     */
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor nearbyStoresExecutor(@Value("${stores.search.parallelism:8}") int parallelism) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("nearby-stores-");
+        executor.setDaemon(true);
+
+        return executor;
+    }
+
     @PostConstruct
     public void initialize() {
-        // Ensure geospatial index exists for location queries
+        // Ensure geospatial index exists for location queries, with the filter attributes
+        StoreIndexes.ensureLocation(mongoTemplate.indexOps(Store.class));
+        // Catalog imports upsert stores by their catalog identifiers
         mongoTemplate.indexOps(Store.class).ensureIndex(
-            new GeospatialIndex("address.location").typed(GeoSpatialIndexType.GEO_2DSPHERE)
+            new Index().on("storeNumber", Sort.Direction.ASC).on("facilityId", Sort.Direction.ASC).sparse()
         );
     }
 
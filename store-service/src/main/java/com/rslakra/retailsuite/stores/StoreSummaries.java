@@ -0,0 +1,269 @@
+package com.rslakra.retailsuite.stores;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.rslakra.retailsuite.stores.geo.GeoMath;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A page of {@link Store} summaries: the id, name, latitude, longitude and distance to the location searched for of each
+ * store, held column by column. Summaries are rendered as lean JSON ({@value #JSON_VALUE}) or as a compact binary
+ * encoding ({@value #BINARY_VALUE}) for service-to-service callers:
+ * <ol>
+ * <li>a header of magic number, format version, page number, page size, total elements, total pages, store count and
+ * the distance unit,</li>
+ * <li>the latitudes, longitudes and distances as three arrays of doubles ({@code NaN} for stores without a location),
+ * </li>
+ * <li>the ids and the names, each as a column of byte lengths ({@code -1} for {@literal null}) followed by the UTF-8
+ * bytes of all values.</li>
+ * </ol>
+ * All numbers are big-endian and strings in the header are encoded like the values of a column.
+ *
+ * @author Rohtash Lakra
+ */
+@Getter
+public final class StoreSummaries {
+
+    public static final String JSON_VALUE = "application/vnd.retailsuite.store-summaries+json";
+    public static final String BINARY_VALUE = "application/vnd.retailsuite.store-summaries+binary";
+    public static final MediaType JSON = MediaType.valueOf(JSON_VALUE);
+    public static final MediaType BINARY = MediaType.valueOf(BINARY_VALUE);
+
+    private static final int MAGIC = 0x5354534D; // "STSM"
+    private static final int VERSION = 1;
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .build();
+
+    private final int number;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+    private final String unit;
+    private final String[] ids;
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] distances;
+
+    private StoreSummaries(int number, int size, long totalElements, int totalPages, String unit, int count) {
+
+        this.number = number;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.unit = unit;
+        this.ids = new String[count];
+        this.names = new String[count];
+        this.latitudes = new double[count];
+        this.longitudes = new double[count];
+        this.distances = new double[count];
+    }
+
+    /**
+     * Summarizes the given page of {@link Store}s found near the given location. Distances are given in the metric of
+     * the given {@link Distance}, in kilometers if there is none, and in degrees on the plane for neutral distances.
+     *
+     * @param stores
+     * @param location
+     * @param distance may be {@literal null}.
+     * @return
+     */
+    public static StoreSummaries of(Page<Store> stores, Point location, Distance distance) {
+
+        Metric metric = distance == null ? Metrics.KILOMETERS : distance.getMetric();
+        boolean planar = Metrics.NEUTRAL.equals(metric);
+        List<Store> content = stores.getContent();
+
+        StoreSummaries summaries = new StoreSummaries(stores.getNumber(), stores.getSize(), stores.getTotalElements(),
+                                                      stores.getTotalPages(), metric.getAbbreviation(), content.size());
+        for (int i = 0; i < content.size(); i++) {
+            Store store = content.get(i);
+            Point point = store.getAddress() == null ? null : store.getAddress().getLocation();
+
+            summaries.ids[i] = store.getId();
+            summaries.names[i] = store.getName();
+            summaries.latitudes[i] = point == null ? Double.NaN : point.getY();
+            summaries.longitudes[i] = point == null ? Double.NaN : point.getX();
+            summaries.distances[i] = point == null || location == null ? Double.NaN
+                                     : planar ? Math.hypot(point.getX() - location.getX(), point.getY() - location.getY())
+                                     : GeoMath.angularDistance(location, point) * metric.getMultiplier();
+        }
+
+        return summaries;
+    }
+
+    /**
+     * Returns the number of stores.
+     *
+     * @return
+     */
+    public int getCount() {
+        return ids.length;
+    }
+
+    /**
+     * Writes the summaries as JSON: the stores with their {@code id}, {@code name}, {@code lat}, {@code lon} and
+     * {@code distance}, the distance {@code unit} and the {@code page} metadata shaped like that of the HAL resources.
+     *
+     * @param output
+     * @throws IOException
+     */
+    public void writeJson(OutputStream output) throws IOException {
+
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("stores");
+            for (int i = 0; i < ids.length; i++) {
+                json.writeStartObject();
+                json.writeStringField("id", ids[i]);
+                json.writeStringField("name", names[i]);
+                writeNumber(json, "lat", latitudes[i]);
+                writeNumber(json, "lon", longitudes[i]);
+                writeNumber(json, "distance", distances[i]);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeStringField("unit", unit);
+            json.writeObjectFieldStart("page");
+            json.writeNumberField("size", size);
+            json.writeNumberField("totalElements", totalElements);
+            json.writeNumberField("totalPages", totalPages);
+            json.writeNumberField("number", number);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the summaries in the binary encoding.
+     *
+     * @param output
+     * @throws IOException
+     */
+    public void writeBinary(OutputStream output) throws IOException {
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, 1 << 13));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(number);
+        data.writeInt(size);
+        data.writeLong(totalElements);
+        data.writeInt(totalPages);
+        data.writeInt(ids.length);
+        writeColumn(data, new String[] { unit });
+
+        for (double latitude : latitudes) {
+            data.writeDouble(latitude);
+        }
+        for (double longitude : longitudes) {
+            data.writeDouble(longitude);
+        }
+        for (double distance : distances) {
+            data.writeDouble(distance);
+        }
+        writeColumn(data, ids);
+        writeColumn(data, names);
+        data.flush();
+    }
+
+    /**
+     * Reads summaries in the binary encoding.
+     *
+     * @param input
+     * @return
+     * @throws IOException
+     * @throws IllegalArgumentException if the input holds no summaries or those of an unsupported version.
+     */
+    public static StoreSummaries readBinary(InputStream input) throws IOException {
+
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a page of store summaries");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported store summaries version " + version);
+        }
+
+        int number = data.readInt();
+        int size = data.readInt();
+        long totalElements = data.readLong();
+        int totalPages = data.readInt();
+        int count = data.readInt();
+        String[] unit = new String[1];
+        readColumn(data, unit);
+
+        StoreSummaries summaries = new StoreSummaries(number, size, totalElements, totalPages, unit[0], count);
+        for (int i = 0; i < count; i++) {
+            summaries.latitudes[i] = data.readDouble();
+        }
+        for (int i = 0; i < count; i++) {
+            summaries.longitudes[i] = data.readDouble();
+        }
+        for (int i = 0; i < count; i++) {
+            summaries.distances[i] = data.readDouble();
+        }
+        readColumn(data, summaries.ids);
+        readColumn(data, summaries.names);
+
+        return summaries;
+    }
+
+    private static void writeNumber(JsonGenerator json, String field, double value) throws IOException {
+
+        if (Double.isNaN(value)) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private static void writeColumn(DataOutputStream output, String[] values) throws IOException {
+
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = values[i] == null ? null : values[i].getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes[i] == null ? -1 : bytes[i].length);
+        }
+
+        for (byte[] value : bytes) {
+            if (value != null) {
+                output.write(value);
+            }
+        }
+    }
+
+    private static void readColumn(DataInputStream input, String[] values) throws IOException {
+
+        int[] lengths = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            lengths[i] = input.readInt();
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (lengths[i] >= 0) {
+                byte[] bytes = new byte[lengths[i]];
+                input.readFully(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.rslakra.retailsuite.stores;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link StoreSummaries} as {@value StoreSummaries#JSON_VALUE} or {@value StoreSummaries#BINARY_VALUE} and
+ * reads the latter.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreSummariesHttpMessageConverter extends AbstractHttpMessageConverter<StoreSummaries> {
+
+    public StoreSummariesHttpMessageConverter() {
+        super(StoreSummaries.BINARY, StoreSummaries.JSON);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.http.converter.AbstractHttpMessageConverter#supports(java.lang.Class)
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StoreSummaries.class.equals(clazz);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.http.converter.AbstractHttpMessageConverter#canRead(java.lang.Class, org.springframework.http.MediaType)
+     */
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return supports(clazz) && mediaType != null && StoreSummaries.BINARY.isCompatibleWith(mediaType);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.http.converter.AbstractHttpMessageConverter#readInternal(java.lang.Class, org.springframework.http.HttpInputMessage)
+     */
+    @Override
+    protected StoreSummaries readInternal(Class<? extends StoreSummaries> clazz, HttpInputMessage inputMessage)
+        throws IOException {
+
+        try {
+            return StoreSummaries.readBinary(inputMessage.getBody());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.http.converter.AbstractHttpMessageConverter#writeInternal(java.lang.Object, org.springframework.http.HttpOutputMessage)
+     */
+    @Override
+    protected void writeInternal(StoreSummaries summaries, HttpOutputMessage outputMessage) throws IOException {
+
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        if (contentType != null && StoreSummaries.BINARY.isCompatibleWith(contentType)) {
+            summaries.writeBinary(outputMessage.getBody());
+        } else {
+            summaries.writeJson(outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.typeahead.StoreTypeahead;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller backing a store finder search box: suggests the {@link Store}s whose name, city or zip code start with
+ * what has been typed so far, optionally nearest to a location first. Suggestions are served from memory by the
+ * {@link StoreTypeahead}, on the servlet and the reactive stack alike.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreTypeaheadController {
+
+    static final String TYPEAHEAD = "typeahead";
+
+    private final StoreTypeahead typeahead;
+    private final PointConverter pointConverter;
+
+    @GetMapping("/stores/search/" + TYPEAHEAD)
+    public ResponseEntity<?> suggest(@RequestParam("q") String query,
+                                     @RequestParam(name = "limit", defaultValue = "10") int limit,
+                                     @RequestParam(name = "location", required = false) String location) {
+
+        try {
+            return ResponseEntity.ok(typeahead.suggest(query, limit,
+                                                       location == null ? null : pointConverter.convert(location)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.rslakra.retailsuite.stores;
+
+import com.rslakra.retailsuite.stores.geo.StoreCluster;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The content of a map viewport: either the {@link StoreCluster}s of its zoom level or the individual {@link Store}s
+ * when zoomed in far enough.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class StoreViewport {
+
+    private final int zoom;
+    private final List<StoreCluster> clusters;
+    private final List<Store> stores;
+}
@@ -0,0 +1,19 @@
+package com.rslakra.retailsuite.stores;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A window of results of a scroll through {@link Store}s along with the opaque cursor to fetch the next window, which
+ * is {@literal null} on the last one. Unlike a page it tells neither the total number of results nor the number of
+ * pages, so it never requires a count query.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class StoreWindow<T> {
+
+    private final List<T> content;
+    private final String next;
+}
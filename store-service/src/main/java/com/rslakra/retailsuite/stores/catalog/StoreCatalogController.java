@@ -0,0 +1,83 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controller to start store catalog imports and to follow their progress, and to sync the stores with a catalog.
+ *
+ * @author Rohtash Lakra
+ */
+@RestController
+@RequestMapping("/catalog")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreCatalogController {
+
+    private final StoreCatalogImporter importer;
+    private final StoreCatalogSync sync;
+
+    @PostMapping("/imports")
+    public ResponseEntity<?> start(@RequestParam(name = "location", required = false) String location) {
+
+        try {
+            return ResponseEntity.accepted().body(toSummary(importer.start(location)));
+        } catch (JobExecutionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<?> get(@PathVariable("id") long id) {
+
+        JobExecution execution = importer.getExecution(id);
+        return execution == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(toSummary(execution));
+    }
+
+    @PostMapping("/syncs")
+    public ResponseEntity<?> sync(@RequestParam(name = "location", required = false) String location) {
+
+        try {
+            return ResponseEntity.ok(sync.sync(location));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toSummary(JobExecution execution) {
+
+        long read = 0, written = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (!step.getStepName().equals(StoreCatalogJobConfiguration.STEP_NAME)) {
+                read += step.getReadCount();
+                written += step.getWriteCount();
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", execution.getId());
+        summary.put("catalog", execution.getJobParameters().getString(StoreCatalogJobConfiguration.CATALOG));
+        summary.put("status", execution.getStatus());
+        summary.put("exitCode", execution.getExitStatus().getExitCode());
+        summary.put("read", read);
+        summary.put("written", written);
+        summary.put("startTime", execution.getStartTime());
+        summary.put("endTime", execution.getEndTime());
+
+        return summary;
+    }
+}
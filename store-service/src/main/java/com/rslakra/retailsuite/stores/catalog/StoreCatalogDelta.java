@@ -0,0 +1,123 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import com.rslakra.retailsuite.stores.Store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Compares the rows of a store catalog with the {@link Store}s imported from it before. Rows are matched by store number
+ * and facility id and compared by their {@link Store#getCatalogHash() hash}; the stored side only needs to carry the
+ * id, the catalog identifiers, the hash and the location.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogDelta {
+
+    /**
+     * What a catalog row amounts to for the stored stores.
+     */
+    public static enum Change {
+
+        /**
+         * The row is new.
+         */
+        INSERTED,
+
+        /**
+         * The row replaces a stored store with a different hash.
+         */
+        UPDATED,
+
+        /**
+         * The row matches its stored store.
+         */
+        UNCHANGED,
+
+        /**
+         * The row lacks a store number or repeats an earlier row of the catalog.
+         */
+        SKIPPED
+    }
+
+    private final Map<String, Store> stored = new HashMap<>();
+    private final List<Store> redundant = new ArrayList<>();
+    private final Set<String> seen = new HashSet<>();
+
+    /**
+     * Creates a new {@link StoreCatalogDelta} against the given stored {@link Store}s. Stores without a store number
+     * weren't imported from a catalog and are left alone.
+     *
+     * @param stores
+     */
+    public StoreCatalogDelta(Iterable<Store> stores) {
+
+        for (Store store : stores) {
+            if (store.getStoreNumber() != null && stored.putIfAbsent(keyOf(store), store) != null) {
+                redundant.add(store);
+            }
+        }
+    }
+
+    /**
+     * Classifies the given catalog row.
+     *
+     * @param store
+     * @return
+     */
+    public Change classify(Store store) {
+
+        if (store.getStoreNumber() == null) {
+            return Change.SKIPPED;
+        }
+
+        String key = keyOf(store);
+        if (!seen.add(key)) {
+            return Change.SKIPPED;
+        }
+
+        Store previous = stored.get(key);
+        if (previous == null) {
+            return Change.INSERTED;
+        }
+
+        return Objects.equals(previous.getCatalogHash(), store.getCatalogHash()) ? Change.UNCHANGED : Change.UPDATED;
+    }
+
+    /**
+     * Returns the stored version of the given catalog row or {@literal null} if there is none.
+     *
+     * @param store
+     * @return
+     */
+    public Store getStored(Store store) {
+        return store.getStoreNumber() == null ? null : stored.get(keyOf(store));
+    }
+
+    /**
+     * Returns the stored {@link Store}s no row of the catalog classified so far matches, i.e. after all rows the ones
+     * to delete, including stored duplicates of a row.
+     *
+     * @return
+     */
+    public List<Store> getRemoved() {
+
+        List<Store> removed = new ArrayList<>(redundant);
+        for (Map.Entry<String, Store> entry : stored.entrySet()) {
+            if (!seen.contains(entry.getKey())) {
+                removed.add(entry.getValue());
+            }
+        }
+
+        return removed;
+    }
+
+    private static String keyOf(Store store) {
+        return store.getStoreNumber() + '\u001F' + store.getFacilityId();
+    }
+}
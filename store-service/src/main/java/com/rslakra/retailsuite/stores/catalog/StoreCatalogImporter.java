@@ -0,0 +1,99 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Launches the store catalog import job in the background. A catalog is identified by its location and last
+ * modification time: launching a failed import of an unchanged catalog again restarts it where it stopped, while a
+ * modified catalog is imported as a new job instance.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+public class StoreCatalogImporter {
+
+    private final Job job;
+    private final JobExplorer jobExplorer;
+    private final ResourceLoader resourceLoader;
+    private final StoreCatalogLocations locations;
+    private final TaskExecutorJobLauncher launcher;
+
+    @Autowired
+    public StoreCatalogImporter(@Qualifier("storeCatalogJob") Job job, JobRepository jobRepository,
+                                JobExplorer jobExplorer, ResourceLoader resourceLoader,
+                                StoreCatalogLocations locations) throws Exception {
+
+        this.job = job;
+        this.jobExplorer = jobExplorer;
+        this.resourceLoader = resourceLoader;
+        this.locations = locations;
+
+        this.launcher = new TaskExecutorJobLauncher();
+        this.launcher.setJobRepository(jobRepository);
+        this.launcher.setTaskExecutor(new SimpleAsyncTaskExecutor("store-catalog-job-"));
+        this.launcher.afterPropertiesSet();
+    }
+
+    /**
+     * Starts or restarts the import of the catalog at the given location, or at the configured location if none is
+     * given.
+     *
+     * @param location
+     * @return
+     * @throws JobExecutionException if the import is already running or has completed before.
+     * @throws IllegalArgumentException if the location is not allowed, see {@link StoreCatalogLocations}.
+     */
+    public JobExecution start(String location) throws JobExecutionException {
+
+        String catalog = locations.check(location);
+        Resource resource = resourceLoader.getResource(catalog);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Store catalog not found: " + catalog);
+        }
+
+        JobParameters parameters = new JobParametersBuilder()
+            .addString(StoreCatalogJobConfiguration.CATALOG, catalog)
+            .addLong("catalog.modified", lastModified(resource))
+            .toJobParameters();
+
+        log.info("Launching import of store catalog {}…", catalog);
+        return launcher.run(job, parameters);
+    }
+
+    /**
+     * Returns the {@link JobExecution} with the given id or {@literal null} if there is none.
+     *
+     * @param id
+     * @return
+     */
+    public JobExecution getExecution(long id) {
+        return jobExplorer.getJobExecution(id);
+    }
+
+    private static long lastModified(Resource resource) {
+
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
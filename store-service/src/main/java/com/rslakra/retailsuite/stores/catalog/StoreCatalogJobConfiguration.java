@@ -0,0 +1,149 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreFieldSetMapper;
+import com.rslakra.retailsuite.stores.geo.StoreLocationIndexer;
+import com.rslakra.retailsuite.stores.geo.StoreQueryCache;
+import com.rslakra.retailsuite.stores.partition.StorePartitions;
+import com.rslakra.retailsuite.stores.typeahead.StoreTypeahead;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Spring Batch configuration of the job importing a store catalog into MongoDB. The catalog is split into byte ranges
+ * by the {@link StoreCatalogPartitioner}, the partitions are imported concurrently in chunks and a failed job restarts
+ * each partition after its last committed chunk.
+ *
+ * @author Rohtash Lakra
+ */
+@Configuration
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreCatalogJobConfiguration {
+
+    public static final String JOB_NAME = "storeCatalogJob";
+
+    /**
+     * Name of the step partitioning the catalog, whose own counts are the totals of its partitions.
+     */
+    public static final String STEP_NAME = "storeCatalogStep";
+
+    /**
+     * Job parameter holding the resource location of the catalog to import.
+     */
+    public static final String CATALOG = "catalog";
+
+    private final JobRepository jobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final StoreCatalogProperties properties;
+    private final ResourceLoader resourceLoader;
+
+    @Bean
+    public Job storeCatalogJob(Step storeCatalogStep, StoreLocationIndexer indexer, StoreQueryCache cache,
+                               StoreTypeahead typeahead, StorePartitions partitions) {
+
+        return new JobBuilder(JOB_NAME, jobRepository)
+            .start(storeCatalogStep)
+            .listener(new JobExecutionListener() {
+
+                @Override
+                public void beforeJob(JobExecution jobExecution) {
+                    typeahead.beginBulkWrite();
+                }
+
+                @Override
+                public void afterJob(JobExecution jobExecution) {
+                    indexer.invalidate();
+                    cache.invalidateAll();
+                    typeahead.endBulkWrite();
+                    typeahead.invalidate();
+                    partitions.invalidate();
+                }
+            })
+            .build();
+    }
+
+    @Bean
+    public Step storeCatalogStep(StoreCatalogPartitioner storeCatalogPartitioner, Step storeCatalogPartitionStep) {
+
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("store-catalog-");
+        taskExecutor.setConcurrencyLimit(properties.getThreads());
+
+        return new StepBuilder(STEP_NAME, jobRepository)
+            .partitioner(storeCatalogPartitionStep.getName(), storeCatalogPartitioner)
+            .step(storeCatalogPartitionStep)
+            .gridSize(properties.getGridSize())
+            .taskExecutor(taskExecutor)
+            .build();
+    }
+
+    @Bean
+    public Step storeCatalogPartitionStep(FlatFileItemReader<Store> storeCatalogReader, MongoOperations operations) {
+
+        return new StepBuilder("storeCatalogPartitionStep", jobRepository)
+            .<Store, Store>chunk(properties.getChunkSize(), transactionManager)
+            .reader(storeCatalogReader)
+            .writer(new StoreItemWriter(operations))
+            .build();
+    }
+
+    @Bean
+    @StepScope
+    public StoreCatalogPartitioner storeCatalogPartitioner(@Value("#{jobParameters['catalog']}") String catalog) {
+        return new StoreCatalogPartitioner(resourceLoader.getResource(catalog));
+    }
+
+    @Bean
+    @StepScope
+    public FlatFileItemReader<Store> storeCatalogReader(@Value("#{jobParameters['catalog']}") String catalog,
+                                                        @Value("#{stepExecutionContext['startOffset']}") long startOffset,
+                                                        @Value("#{stepExecutionContext['itemCount']}") int itemCount)
+        throws IOException {
+
+        Resource resource = resourceLoader.getResource(catalog);
+
+        FlatFileItemReader<Store> reader = new FlatFileItemReader<Store>() {
+
+            /*
+             * Records span several lines, so skip whole records rather than lines when restarting.
+             */
+            @Override
+            protected void jumpToItem(int itemIndex) throws Exception {
+                for (int i = 0; i < itemIndex; i++) {
+                    doRead();
+                }
+            }
+        };
+        reader.setName("storeCatalogReader");
+        reader.setResource(resource);
+        reader.setLineMapper(StoreFieldSetMapper.lineMapper(resource));
+        reader.setRecordSeparatorPolicy(new DefaultRecordSeparatorPolicy());
+        reader.setBufferedReaderFactory((it, encoding) -> new BufferedReader(
+            new InputStreamReader(StoreCatalogPartitioner.open(it, startOffset), encoding)));
+        reader.setMaxItemCount(itemCount);
+
+        return reader;
+    }
+}
@@ -0,0 +1,80 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Resolves the catalog locations given to the import and sync endpoints. Only the configured catalog and catalogs in one
+ * of the {@link StoreCatalogProperties#getAllowedLocations() allowed locations} are accepted, so that callers cannot
+ * make the service read arbitrary files or fetch arbitrary URLs.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreCatalogLocations {
+
+    private final ResourceLoader resourceLoader;
+    private final StoreCatalogProperties properties;
+
+    /**
+     * Returns the given catalog location, or the configured one if none is given.
+     *
+     * @param location may be {@literal null}.
+     * @return
+     * @throws IllegalArgumentException if the location is neither the configured one nor within an allowed location.
+     */
+    public String check(String location) {
+
+        if (!StringUtils.hasText(location) || location.equals(properties.getLocation())) {
+            return properties.getLocation();
+        }
+
+        URI catalog = uriOf(resourceLoader.getResource(location));
+        if (catalog != null) {
+            for (String allowed : properties.getAllowedLocations()) {
+                URI directory = uriOf(resourceLoader.getResource(allowed));
+                if (directory != null && isWithin(catalog, directory)) {
+                    return location;
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("Store catalog location not allowed: " + location);
+    }
+
+    private static boolean isWithin(URI catalog, URI directory) {
+
+        String prefix = directory.toString().endsWith("/") ? directory.toString() : directory + "/";
+        return catalog.toString().startsWith(prefix);
+    }
+
+    /**
+     * Returns the normalized URI of the given resource, or {@literal null} if it has none or its path climbs up, also
+     * when percent-encoded, which normalizing the URI doesn't resolve.
+     *
+     * @param resource
+     * @return
+     */
+    private static URI uriOf(Resource resource) {
+
+        try {
+            URI uri = resource.getURI().normalize();
+            String path = uri.getPath();
+            if (path != null && (path.equals("..") || path.startsWith("../") || path.contains("/../")
+                                 || path.endsWith("/.."))) {
+                return null;
+            }
+            return uri;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
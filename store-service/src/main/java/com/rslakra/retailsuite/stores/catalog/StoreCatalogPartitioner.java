@@ -0,0 +1,135 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link Partitioner} splitting a store catalog into byte ranges holding about the same number of records. Quoted
+ * fields of the catalog span several lines, so ranges always start at a record boundary. Every partition opens the
+ * catalog at the byte offset of its first record (see {@link #open(Resource, long)}) rather than reading past the
+ * records of the partitions before it.
+ *
+ * @author Rohtash Lakra
+ */
+@RequiredArgsConstructor
+public class StoreCatalogPartitioner implements Partitioner {
+
+    /**
+     * Byte offset of the first record of a partition.
+     */
+    public static final String START_OFFSET = "startOffset";
+
+    /**
+     * Number of records in a partition.
+     */
+    public static final String ITEM_COUNT = "itemCount";
+
+    private final Resource resource;
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.batch.core.partition.support.Partitioner#partition(int)
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+
+        long[] recordStarts = findRecordStarts();
+        int records = recordStarts.length;
+        int partitions = Math.max(1, Math.min(gridSize, records));
+
+        Map<String, ExecutionContext> contexts = new LinkedHashMap<>();
+        for (int i = 0; i < partitions; i++) {
+            int from = (int) ((long) records * i / partitions);
+            int to = (int) ((long) records * (i + 1) / partitions);
+
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_OFFSET, from == records ? 0 : recordStarts[from]);
+            context.putInt(ITEM_COUNT, to - from);
+            contexts.put("partition" + i, context);
+        }
+
+        return contexts;
+    }
+
+    /**
+     * Opens the given catalog at the given byte offset. Files are positioned directly, other resources are skipped to
+     * the offset.
+     *
+     * @param resource
+     * @param offset
+     * @return
+     * @throws IOException
+     */
+    public static InputStream open(Resource resource, long offset) throws IOException {
+
+        if (resource.isFile()) {
+            FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            try {
+                return Channels.newInputStream(channel.position(offset));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        InputStream stream = resource.getInputStream();
+        try {
+            stream.skipNBytes(offset);
+            return stream;
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the byte offsets at which the records following the header line start. Quotes and line feeds are single
+     * bytes in UTF-8 that never occur within a multibyte character, so the catalog is scanned without decoding it.
+     *
+     * @return
+     */
+    private long[] findRecordStarts() {
+
+        long[] starts = new long[1024];
+        int records = 0;
+        boolean quoted = false;
+        boolean lineStart = false;
+
+        try (InputStream stream = resource.getInputStream()) {
+
+            byte[] buffer = new byte[64 * 1024];
+            long position = 0;
+            for (int read = stream.read(buffer); read != -1; position += read, read = stream.read(buffer)) {
+                for (int i = 0; i < read; i++) {
+                    if (lineStart && !quoted) {
+                        if (records == starts.length) {
+                            starts = Arrays.copyOf(starts, records * 2);
+                        }
+                        starts[records++] = position + i;
+                    }
+                    lineStart = buffer[i] == '\n';
+                    if (buffer[i] == '"') {
+                        quoted = !quoted;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read store catalog " + resource, e);
+        }
+
+        return Arrays.copyOf(starts, records);
+    }
+}
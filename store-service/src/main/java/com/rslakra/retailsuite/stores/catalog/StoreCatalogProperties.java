@@ -0,0 +1,53 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the store catalog import job.
+ *
+ * @author Rohtash Lakra
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("stores.catalog")
+public class StoreCatalogProperties {
+
+    /**
+     * The catalog to import unless one is given explicitly, as a Spring resource location.
+     */
+    private String location = "classpath:starbucks.csv";
+
+    /**
+     * Resource locations of the directories other catalogs may be imported from, e.g. {@code file:/data/catalogs/}. By
+     * default only the configured {@link #getLocation() location} is accepted.
+     */
+    private List<String> allowedLocations = new ArrayList<>();
+
+    /**
+     * Number of partitions the catalog is split into.
+     */
+    private int gridSize = 8;
+
+    /**
+     * Number of partitions imported concurrently.
+     */
+    private int threads = 4;
+
+    /**
+     * Number of stores written to MongoDB per chunk, i.e. per committed step of a partition.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Cron expression of the scheduled catalog syncs, {@code -} to sync on demand only.
+     */
+    private String syncCron = "-";
+}
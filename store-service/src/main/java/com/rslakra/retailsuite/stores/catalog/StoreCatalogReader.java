@@ -0,0 +1,492 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreFieldSetMapper;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.data.geo.Point;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link ItemReader} parsing a store catalog in the format of {@code starbucks.csv} straight from a memory mapped file.
+ * Unlike a {@link org.springframework.batch.item.file.FlatFileItemReader} it doesn't materialize lines or a
+ * {@link org.springframework.batch.item.file.transform.FieldSet}: columns not needed for a {@link Store} are skipped on
+ * the byte level, coordinates are parsed into doubles in place and only the remaining projected columns are decoded
+ * into Strings. Quoted fields may contain delimiters, escaped quotes and line breaks.
+ * <p>
+ * Files larger than the mapping window are mapped window by window. Instances are not thread-safe.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogReader implements ItemReader<Store>, AutoCloseable {
+
+    private static final int DEFAULT_WINDOW = 1 << 30;
+
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private static final int NAME = 0, STREET = 1, CITY = 2, ZIP = 3, LATITUDE = 4, LONGITUDE = 5, STORE_NUMBER = 6,
+        FACILITY_ID = 7, PRODUCTS = 8, SERVICES = 9, STATIONS = 10, OWNERSHIP_TYPE = 11, VENUE_TYPE = 12;
+    private static final String[] COLUMNS = { "Name", "Street Address", "City", "Zip", "Latitude", "Longitude",
+        "Store Number", "Facility ID", "Features - Products", "Features - Service", "Features - Stations",
+        "Ownership Type", "Venue Type" };
+    private static final int REQUIRED_COLUMNS = PRODUCTS; // the store attributes are optional
+
+    private static final int RECORD = 0, BLANK = 1, NEED_MORE = 2;
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private final FileChannel channel;
+    private final long length;
+    private final int window;
+
+    private ByteBuffer buffer;
+    private long base; // file offset of the buffer's first byte
+    private int position;
+
+    private int[] slots = new int[0]; // column index -> projected slot or -1
+    private final int[] starts = new int[COLUMNS.length];
+    private final int[] ends = new int[COLUMNS.length];
+    private final boolean[] escaped = new boolean[COLUMNS.length];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Creates a new {@link StoreCatalogReader} memory mapping the catalog at the given path.
+     *
+     * @param path
+     * @throws IOException
+     */
+    public StoreCatalogReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW);
+    }
+
+    StoreCatalogReader(Path path, int window) throws IOException {
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.length = channel.size();
+        this.window = window;
+
+        map(0);
+        readHeader();
+    }
+
+    /**
+     * Creates a new {@link StoreCatalogReader} for a catalog already held in memory.
+     *
+     * @param buffer
+     */
+    public StoreCatalogReader(ByteBuffer buffer) {
+
+        this.channel = null;
+        this.length = buffer.limit();
+        this.window = buffer.limit();
+        this.buffer = buffer;
+
+        readHeader();
+    }
+
+    /**
+     * Opens a {@link StoreCatalogReader} for the given {@link Resource}, memory mapping it if it resides in the file
+     * system and reading it into memory otherwise, e.g. when packaged into a jar.
+     *
+     * @param resource
+     * @return
+     * @throws IOException
+     */
+    public static StoreCatalogReader open(Resource resource) throws IOException {
+
+        if (resource.isFile()) {
+            return new StoreCatalogReader(resource.getFile().toPath());
+        }
+
+        try (InputStream stream = resource.getInputStream()) {
+            return new StoreCatalogReader(ByteBuffer.wrap(stream.readAllBytes()));
+        }
+    }
+
+    /**
+     * Reads all {@link Store}s of the catalog behind the given {@link Resource}.
+     *
+     * @param resource
+     * @return
+     * @throws IOException
+     */
+    public static List<Store> readAll(Resource resource) throws IOException {
+
+        try (StoreCatalogReader reader = open(resource)) {
+            List<Store> stores = new ArrayList<>();
+            for (Store store = reader.read(); store != null; store = reader.read()) {
+                stores.add(store);
+            }
+            return stores;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.batch.item.ItemReader#read()
+     */
+    @Override
+    public Store read() {
+
+        while (true) {
+            if (base + position >= length) {
+                return null;
+            }
+
+            int result = parseRecord();
+            if (result == NEED_MORE) {
+                map(base + position);
+                continue;
+            }
+            if (result == RECORD) {
+                return toStore();
+            }
+            // skip blank lines
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            unmap(buffer);
+            buffer = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Parses the record at the current position, remembering the bounds of the projected fields. The position is
+     * only advanced if the record could be parsed completely from the current buffer.
+     *
+     * @return
+     */
+    private int parseRecord() {
+
+        Arrays.fill(starts, -1);
+        boolean last = base + buffer.limit() >= length;
+        int limit = buffer.limit();
+        int p = position;
+
+        if (isLineBreak(p, limit)) {
+            int next = skipLineBreak(p, limit, last);
+            if (next < 0) {
+                return NEED_MORE;
+            }
+            position = next;
+            return BLANK;
+        }
+
+        for (int column = 0; ; column++) {
+
+            int start, end;
+            boolean quotes = false;
+
+            if (p < limit && buffer.get(p) == '"') {
+                start = ++p;
+                while (true) {
+                    if (p >= limit) {
+                        if (!last) {
+                            return NEED_MORE;
+                        }
+                        end = p;
+                        break;
+                    }
+                    if (buffer.get(p) == '"') {
+                        if (p + 1 >= limit && !last) {
+                            return NEED_MORE;
+                        }
+                        if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                            quotes = true;
+                            p += 2;
+                            continue;
+                        }
+                        end = p++;
+                        break;
+                    }
+                    p++;
+                }
+                // ignore anything between the closing quote and the delimiter
+                while (p < limit && buffer.get(p) != ',' && !isLineBreak(p, limit)) {
+                    p++;
+                }
+            } else {
+                start = p;
+                while (p < limit && buffer.get(p) != ',' && !isLineBreak(p, limit)) {
+                    p++;
+                }
+                end = p;
+            }
+
+            if (p >= limit && !last) {
+                return NEED_MORE;
+            }
+
+            int slot = column < slots.length ? slots[column] : -1;
+            if (slot >= 0) {
+                starts[slot] = start;
+                ends[slot] = end;
+                escaped[slot] = quotes;
+            }
+
+            if (p < limit && buffer.get(p) == ',') {
+                p++;
+                continue;
+            }
+
+            int next = skipLineBreak(p, limit, last);
+            if (next < 0) {
+                return NEED_MORE;
+            }
+            position = next;
+            return RECORD;
+        }
+    }
+
+    private boolean isLineBreak(int p, int limit) {
+        return p < limit && (buffer.get(p) == '\n' || buffer.get(p) == '\r');
+    }
+
+    /**
+     * Returns the position after the line break at the given position, or -1 if a {@code \r\n} might be split by the
+     * end of the buffer.
+     */
+    private int skipLineBreak(int p, int limit, boolean last) {
+
+        if (p >= limit) {
+            return p;
+        }
+        if (buffer.get(p) == '\r') {
+            if (p + 1 >= limit && !last) {
+                return -1;
+            }
+            return p + 1 < limit && buffer.get(p + 1) == '\n' ? p + 2 : p + 1;
+        }
+        return p + 1;
+    }
+
+    private Store toStore() {
+
+        Point location = new Point(readDouble(LONGITUDE), readDouble(LATITUDE));
+        Address address = new Address(readString(STREET), readString(CITY), readString(ZIP), location);
+
+        Store store = new Store(readString(NAME), address);
+        store.setStoreNumber(readString(STORE_NUMBER));
+        store.setFacilityId(readString(FACILITY_ID));
+        store.setFeatures(StoreFieldSetMapper.features(readString(PRODUCTS), readString(SERVICES),
+                                                       readString(STATIONS)));
+        store.setOwnershipType(StoreFieldSetMapper.emptyToNull(readString(OWNERSHIP_TYPE)));
+        store.setVenueType(StoreFieldSetMapper.emptyToNull(readString(VENUE_TYPE)));
+        store.setCatalogHash(StoreFieldSetMapper.catalogHash(store));
+
+        return store;
+    }
+
+    private String readString(int slot) {
+
+        int start = starts[slot], end = ends[slot];
+        if (start < 0) {
+            return "";
+        }
+
+        // trim like FieldSet.readString(…) does
+        while (start < end && buffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+
+        if (!escaped[slot] && buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+
+        int size = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            scratch[size++] = b;
+            if (b == '"' && escaped[slot]) {
+                i++; // skip the second quote of an escaped one
+            }
+        }
+
+        return new String(scratch, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a plain decimal number in place. The result is exact as long as the digits fit into the 53 bits of a
+     * double's mantissa, which covers coordinates; anything else is handed to {@link Double#parseDouble(String)}.
+     */
+    private double readDouble(int slot) {
+
+        int p = starts[slot], end = ends[slot];
+        if (p < 0) {
+            throw new NumberFormatException("Missing column " + COLUMNS[slot]);
+        }
+
+        while (p < end && buffer.get(p) <= ' ') {
+            p++;
+        }
+        while (end > p && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+
+        int from = p;
+        boolean negative = false;
+        if (p < end && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+            negative = buffer.get(p++) == '-';
+        }
+
+        long mantissa = 0;
+        int digits = 0, scale = -1;
+        for (; p < end; p++) {
+            byte b = buffer.get(p);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (p != end || digits == 0 || digits > 15 || scale >= POWERS_OF_TEN.length) {
+            String value = decode(from, end);
+            if (value.isEmpty()) {
+                throw new NumberFormatException("Empty column " + COLUMNS[slot]);
+            }
+            return Double.parseDouble(value);
+        }
+
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private String decode(int start, int end) {
+
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void readHeader() {
+
+        int p = position;
+        // skip a byte order mark
+        if (length >= 3 && buffer.get(p) == (byte) 0xEF && buffer.get(p + 1) == (byte) 0xBB
+            && buffer.get(p + 2) == (byte) 0xBF) {
+            p += 3;
+        }
+
+        int end = p;
+        while (end < buffer.limit() && !isLineBreak(end, buffer.limit())) {
+            end++;
+        }
+
+        String[] names = decode(p, end).split(",");
+        slots = new int[names.length];
+        Arrays.fill(slots, -1);
+
+        for (int slot = 0; slot < COLUMNS.length; slot++) {
+            int column = Arrays.asList(names).indexOf(COLUMNS[slot]);
+            if (column >= 0) {
+                slots[column] = slot;
+            } else if (slot < REQUIRED_COLUMNS) {
+                throw new IllegalArgumentException("Store catalog lacks column " + COLUMNS[slot]);
+            }
+        }
+
+        position = skipLineBreak(end, buffer.limit(), true);
+    }
+
+    private void map(long offset) {
+
+        if (channel == null) {
+            throw new IllegalStateException("Record exceeds the catalog buffer");
+        }
+
+        if (buffer != null && offset == base) {
+            throw new IllegalStateException("Record at offset " + offset + " exceeds the mapping window");
+        }
+
+        try {
+            long size = Math.min(window, length - offset);
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            unmap(buffer);
+            this.buffer = mapped;
+            this.base = offset;
+            this.position = 0;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map store catalog at offset " + offset, e);
+        }
+    }
+
+    /**
+     * Releases the mapping of the given buffer right away rather than once it is garbage collected, so that windows
+     * don't pile up while reading large catalogs and the file can be replaced as soon as the reader is closed. The
+     * mapping is left to the garbage collector if the JDK doesn't allow releasing it.
+     *
+     * @param buffer may be {@literal null}.
+     */
+    private static void unmap(ByteBuffer buffer) {
+
+        if (buffer == null || INVOKE_CLEANER == null) {
+            return;
+        }
+
+        try {
+            INVOKE_CLEANER.invoke(buffer);
+        } catch (Throwable e) {
+            // still released once unreachable
+        }
+    }
+
+    private static MethodHandle invokeCleaner() {
+
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                .findVirtual(type, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.geo.StoreLocationIndexer;
+import com.rslakra.retailsuite.stores.geo.StoreQueryCache;
+import com.rslakra.retailsuite.stores.partition.StorePartitions;
+import com.rslakra.retailsuite.stores.typeahead.StoreTypeahead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Brings the stored {@link Store}s in line with a store catalog by writing only what changed. The catalog is streamed
+ * through a {@link StoreCatalogReader} and each row is compared by its hash with the stored store of the same store
+ * number and facility id: new rows are inserted, changed rows replace their store in place, keeping its id, and stores
+ * whose row is gone are deleted, all in unordered bulk writes of {@code stores.catalog.chunk-size} operations. Only the
+ * cached location pages around modified stores are evicted, only the modified stores are written to their partitions
+ * and the in-memory indexes are rebuilt once at the end.
+ * <p>
+ * Syncs run on demand and on the {@code stores.catalog.sync-cron} schedule, one at a time.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+public class StoreCatalogSync {
+
+    private static final String LOCATION = "address.location";
+
+    private final MongoOperations operations;
+    private final ResourceLoader resourceLoader;
+    private final StoreCatalogProperties properties;
+    private final StoreCatalogLocations locations;
+    private final StoreLocationIndexer indexer;
+    private final StoreQueryCache cache;
+    private final StoreTypeahead typeahead;
+    private final StorePartitions partitions;
+    private final Map<StoreCatalogDelta.Change, Counter> changes = new EnumMap<>(StoreCatalogDelta.Change.class);
+    private final Counter deleted;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public StoreCatalogSync(MongoOperations operations, ResourceLoader resourceLoader,
+                            StoreCatalogProperties properties, StoreCatalogLocations locations,
+                            StoreLocationIndexer indexer, StoreQueryCache cache, StoreTypeahead typeahead,
+                            StorePartitions partitions, MeterRegistry registry) {
+
+        this.operations = operations;
+        this.resourceLoader = resourceLoader;
+        this.properties = properties;
+        this.locations = locations;
+        this.indexer = indexer;
+        this.cache = cache;
+        this.typeahead = typeahead;
+        this.partitions = partitions;
+
+        for (StoreCatalogDelta.Change change : StoreCatalogDelta.Change.values()) {
+            changes.put(change, counter(registry, change.name().toLowerCase()));
+        }
+        this.deleted = counter(registry, "deleted");
+    }
+
+    @Scheduled(cron = "${stores.catalog.sync-cron:-}")
+    public void syncOnSchedule() {
+
+        try {
+            sync(null);
+        } catch (RuntimeException e) {
+            log.error("Scheduled store catalog sync failed.", e);
+        }
+    }
+
+    /**
+     * Syncs the stores with the catalog at the given location, or at the configured location if none is given. Other
+     * locations have to be within one of the allowed locations, see {@link StoreCatalogLocations}.
+     *
+     * @param location
+     * @return
+     * @throws IllegalArgumentException if the location is not allowed or does not exist.
+     * @throws IllegalStateException if a sync is already running.
+     */
+    public StoreCatalogSyncResult sync(String location) {
+
+        String catalog = locations.check(location);
+        Resource resource = resourceLoader.getResource(catalog);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Store catalog not found: " + catalog);
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A store catalog sync is already running");
+        }
+
+        boolean synced = false;
+        typeahead.beginBulkWrite();
+        try {
+            StoreCatalogSyncResult result = sync(catalog, resource);
+            synced = true;
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read store catalog " + catalog, e);
+        } finally {
+            typeahead.endBulkWrite();
+            if (!synced) {
+                // some stores may have been written before the sync failed
+                typeahead.invalidate();
+                partitions.invalidate();
+            }
+            running.set(false);
+        }
+    }
+
+    private StoreCatalogSyncResult sync(String catalog, Resource resource) throws IOException {
+
+        log.info("Syncing stores with catalog {}…", catalog);
+        long start = System.nanoTime();
+
+        Query stored = new Query();
+        stored.fields().include("storeNumber", "facilityId", "catalogHash", LOCATION);
+        StoreCatalogDelta delta = new StoreCatalogDelta(operations.find(stored, Store.class));
+
+        Map<StoreCatalogDelta.Change, Long> counts = new EnumMap<>(StoreCatalogDelta.Change.class);
+        List<Point> modified = new ArrayList<>();
+        Writer writer = new Writer();
+
+        try (StoreCatalogReader reader = StoreCatalogReader.open(resource)) {
+            for (Store store = reader.read(); store != null; store = reader.read()) {
+
+                StoreCatalogDelta.Change change = delta.classify(store);
+                counts.merge(change, 1L, Long::sum);
+
+                // the stores carry their ids, so that the partitions route them from the events of the bulk writes
+                if (change == StoreCatalogDelta.Change.INSERTED) {
+                    store.setId(new ObjectId().toHexString());
+                    writer.insert(store);
+                    addLocation(modified, store);
+                } else if (change == StoreCatalogDelta.Change.UPDATED) {
+                    Store previous = delta.getStored(store);
+                    store.setId(previous.getId());
+                    writer.replace(store);
+                    addLocation(modified, previous);
+                    addLocation(modified, store);
+                }
+            }
+        }
+
+        List<Store> removed = delta.getRemoved();
+        for (Store store : removed) {
+            writer.remove(store.getId());
+            addLocation(modified, store);
+        }
+        writer.flush();
+        // bulk removes publish no events to route
+        partitions.remove(removed.stream().map(Store::getId).toList());
+
+        StoreCatalogSyncResult result = new StoreCatalogSyncResult(catalog,
+            counts.getOrDefault(StoreCatalogDelta.Change.INSERTED, 0L),
+            counts.getOrDefault(StoreCatalogDelta.Change.UPDATED, 0L), removed.size(),
+            counts.getOrDefault(StoreCatalogDelta.Change.UNCHANGED, 0L),
+            counts.getOrDefault(StoreCatalogDelta.Change.SKIPPED, 0L), Duration.ofNanos(System.nanoTime() - start));
+
+        counts.forEach((change, count) -> changes.get(change).increment(count));
+        deleted.increment(removed.size());
+
+        if (result.hasChanges()) {
+            cache.invalidate(modified);
+            indexer.invalidate();
+            typeahead.invalidate();
+        }
+
+        log.info("Synced stores with catalog {}: {} inserted, {} updated, {} deleted, {} unchanged, {} skipped in {} ms.",
+                 catalog, result.getInserted(), result.getUpdated(), result.getDeleted(), result.getUnchanged(),
+                 result.getSkipped(), result.getDuration().toMillis());
+
+        return result;
+    }
+
+    private static void addLocation(List<Point> locations, Store store) {
+
+        if (store.getAddress() != null && store.getAddress().getLocation() != null) {
+            locations.add(store.getAddress().getLocation());
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String change) {
+
+        return Counter.builder("stores.catalog.sync.stores")
+            .description("Number of stores by change applied by catalog syncs")
+            .tag("change", change)
+            .register(registry);
+    }
+
+    /**
+     * Collects the writes of a sync into unordered bulk writes of at most the configured chunk size.
+     */
+    private class Writer {
+
+        private BulkOperations bulk;
+        private int pending;
+
+        void insert(Store store) {
+            operations().insert(store);
+            written();
+        }
+
+        void replace(Store store) {
+            operations().replaceOne(Query.query(Criteria.where("id").is(store.getId())), store);
+            written();
+        }
+
+        void remove(String id) {
+            operations().remove(Query.query(Criteria.where("id").is(id)));
+            written();
+        }
+
+        void flush() {
+
+            if (bulk != null) {
+                bulk.execute();
+                bulk = null;
+                pending = 0;
+            }
+        }
+
+        private BulkOperations operations() {
+
+            if (bulk == null) {
+                bulk = operations.bulkOps(BulkMode.UNORDERED, Store.class);
+            }
+
+            return bulk;
+        }
+
+        private void written() {
+
+            if (++pending >= properties.getChunkSize()) {
+                bulk.execute();
+                bulk = null;
+                pending = 0;
+            }
+        }
+    }
+}
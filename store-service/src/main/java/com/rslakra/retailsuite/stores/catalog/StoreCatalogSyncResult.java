@@ -0,0 +1,32 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Summary of a store catalog sync: the number of stores inserted, updated, deleted and left unchanged, and the number
+ * of catalog rows skipped.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class StoreCatalogSyncResult {
+
+    private final String catalog;
+    private final long inserted;
+    private final long updated;
+    private final long deleted;
+    private final long unchanged;
+    private final long skipped;
+    private final Duration duration;
+
+    /**
+     * Returns whether the sync modified any store.
+     *
+     * @return
+     */
+    public boolean hasChanges() {
+        return inserted + updated + deleted > 0;
+    }
+}
@@ -0,0 +1,59 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import com.rslakra.retailsuite.stores.Store;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * {@link ItemWriter} writing a chunk of {@link Store}s with a single unordered bulk write. Stores carrying catalog
+ * identifiers are upserted by them, so that a chunk replayed after a failure doesn't duplicate stores.
+ *
+ * @author Rohtash Lakra
+ */
+@RequiredArgsConstructor
+public class StoreItemWriter implements ItemWriter<Store> {
+
+    private final MongoOperations operations;
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.batch.item.ItemWriter#write(org.springframework.batch.item.Chunk)
+     */
+    @Override
+    public void write(Chunk<? extends Store> chunk) {
+
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = operations.bulkOps(BulkMode.UNORDERED, Store.class);
+        for (Store store : chunk) {
+            if (store.getStoreNumber() == null) {
+                bulk.insert(store);
+            } else {
+                bulk.replaceOne(byCatalogKey(store), store, FindAndReplaceOptions.options().upsert());
+            }
+        }
+
+        bulk.execute();
+    }
+
+    /**
+     * Returns a {@link Query} selecting the store with the catalog identifiers of the given one.
+     *
+     * @param store
+     * @return
+     */
+    public static Query byCatalogKey(Store store) {
+        return Query.query(Criteria.where("storeNumber").is(store.getStoreNumber())
+                               .and("facilityId").is(store.getFacilityId()));
+    }
+}
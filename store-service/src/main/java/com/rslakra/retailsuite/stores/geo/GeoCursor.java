@@ -0,0 +1,98 @@
+
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Store;
+import lombok.Value;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Position after the last {@link Store} of a page of results ordered by distance, allowing to continue a geo search
+ * without skipping over or counting the previous results. The position is the distance of the last store as a central
+ * angle in radians and the ids of the stores at about that distance which were returned already.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class GeoCursor {
+
+    /**
+     * Relative tolerance for distances to be considered the same, absorbing rounding when converting them between
+     * metrics.
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    private final double distance;
+    private final Set<String> ids;
+
+    /**
+     * Returns the cursor after the last of the given results, or {@literal null} if there are no results.
+     *
+     * @param results
+     * @param previous the cursor the results were fetched after, may be {@literal null}.
+     * @return
+     */
+    public static GeoCursor after(GeoResults<Store> results, GeoCursor previous) {
+
+        List<GeoResult<Store>> content = results.getContent();
+        if (content.isEmpty()) {
+            return null;
+        }
+
+        double last = content.get(content.size() - 1).getDistance().getNormalizedValue();
+        double threshold = last * (1 - TOLERANCE);
+
+        Set<String> ids = new LinkedHashSet<>();
+        if (previous != null && content.get(0).getDistance().getNormalizedValue() >= threshold) {
+            ids.addAll(previous.getIds());
+        }
+        for (GeoResult<Store> result : content) {
+            if (result.getDistance().getNormalizedValue() >= threshold) {
+                ids.add(result.getContent().getId());
+            }
+        }
+
+        return new GeoCursor(threshold, ids);
+    }
+
+    /**
+     * Encodes the cursor into an opaque URL safe token.
+     *
+     * @return
+     */
+    public String encode() {
+
+        String value = Double.toString(distance) + ',' + String.join(",", ids);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token
+     * @return
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static GeoCursor decode(String token) {
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(",");
+
+            Set<String> ids = new LinkedHashSet<>();
+            for (int i = 1; i < parts.length; i++) {
+                ids.add(parts[i]);
+            }
+
+            return new GeoCursor(Double.parseDouble(parts[0]), ids);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+
+/**
+ * Geohash encoding: each character of a geohash halves the cell of its prefix five times, alternating between longitude
+ * and latitude, so that a geohash names a cell of the world and each of its prefixes names an enclosing cell.
+ *
+ * @author Rohtash Lakra
+ */
+public final class GeoHash {
+
+    /**
+     * The characters of a geohash in the order of the cells they name.
+     */
+    public static final String ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoHash() {
+    }
+
+    /**
+     * Returns the geohash of the given precision for the given {@link Point} ({@code x} being the longitude).
+     *
+     * @param location
+     * @param precision
+     * @return
+     */
+    public static String encode(Point location, int precision) {
+
+        double south = -90, north = 90, west = -180, east = 180;
+        boolean longitude = true;
+        StringBuilder hash = new StringBuilder(precision);
+
+        while (hash.length() < precision) {
+            int index = 0;
+            for (int bit = 4; bit >= 0; bit--) {
+                if (longitude) {
+                    double middle = (west + east) / 2;
+                    if (location.getX() >= middle) {
+                        index |= 1 << bit;
+                        west = middle;
+                    } else {
+                        east = middle;
+                    }
+                } else {
+                    double middle = (south + north) / 2;
+                    if (location.getY() >= middle) {
+                        index |= 1 << bit;
+                        south = middle;
+                    } else {
+                        north = middle;
+                    }
+                }
+                longitude = !longitude;
+            }
+            hash.append(ALPHABET.charAt(index));
+        }
+
+        return hash.toString();
+    }
+
+    /**
+     * Returns the cell of the given geohash, spanning from its south-west to its north-east corner. The empty geohash
+     * names the whole world.
+     *
+     * @param hash
+     * @return
+     * @throws IllegalArgumentException if the geohash contains other characters than those of the {@link #ALPHABET}.
+     */
+    public static Box bounds(String hash) {
+
+        double south = -90, north = 90, west = -180, east = 180;
+        boolean longitude = true;
+
+        for (int i = 0; i < hash.length(); i++) {
+            int index = ALPHABET.indexOf(hash.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean upper = (index & 1 << bit) != 0;
+                if (longitude) {
+                    double middle = (west + east) / 2;
+                    if (upper) {
+                        west = middle;
+                    } else {
+                        east = middle;
+                    }
+                } else {
+                    double middle = (south + north) / 2;
+                    if (upper) {
+                        south = middle;
+                    } else {
+                        north = middle;
+                    }
+                }
+                longitude = !longitude;
+            }
+        }
+
+        return new Box(new Point(west, south), new Point(east, north));
+    }
+}
@@ -0,0 +1,65 @@
+
+package com.rslakra.retailsuite.stores.geo;
+
+import org.springframework.data.geo.Point;
+
+/**
+ * Spherical geometry helpers shared by the in-process geo structures. Distances are central angles in radians so that
+ * they compare directly against {@link org.springframework.data.geo.Distance#getNormalizedValue()}, which is what
+ * MongoDB's spherical queries use as well.
+ *
+ * @author Rohtash Lakra
+ */
+public final class GeoMath {
+
+    private GeoMath() {
+    }
+
+    /**
+     * Returns the central angle in radians between two coordinates given in degrees (haversine formula).
+     *
+     * @param lat1
+     * @param lon1
+     * @param lat2
+     * @param lon2
+     * @return
+     */
+    public static double angularDistance(double lat1, double lon1, double lat2, double lon2) {
+
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinLat * sinLat
+                   + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+
+        return 2 * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Returns the central angle in radians between two {@link Point}s ({@code x} being the longitude).
+     *
+     * @param p1
+     * @param p2
+     * @return
+     */
+    public static double angularDistance(Point p1, Point p2) {
+        return angularDistance(p1.getY(), p1.getX(), p2.getY(), p2.getX());
+    }
+
+    /**
+     * Returns the half width in degrees of longitude of the bounding box of a circle with the given angular radius
+     * around the given latitude, or {@code 180} if the circle covers a pole.
+     *
+     * @param latitude
+     * @param radians
+     * @return
+     */
+    public static double longitudeSpan(double latitude, double radians) {
+
+        double latSpan = Math.toDegrees(radians);
+        if (Math.abs(latitude) + latSpan >= 90 || radians >= Math.PI / 2) {
+            return 180;
+        }
+
+        return Math.toDegrees(Math.asin(Math.sin(radians) / Math.cos(Math.toRadians(latitude))));
+    }
+}
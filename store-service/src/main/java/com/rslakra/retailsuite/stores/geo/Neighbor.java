@@ -0,0 +1,17 @@
+
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Store;
+import lombok.Value;
+
+/**
+ * A {@link Store} found by a geo query along with its distance to the query point in radians.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class Neighbor {
+
+    private final Store store;
+    private final double distance;
+}
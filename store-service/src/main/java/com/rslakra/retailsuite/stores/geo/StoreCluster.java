@@ -0,0 +1,16 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import lombok.Value;
+
+/**
+ * A number of stores in a cell of the map grid, located at their centroid.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class StoreCluster {
+
+    private final double latitude;
+    private final double longitude;
+    private final long count;
+}
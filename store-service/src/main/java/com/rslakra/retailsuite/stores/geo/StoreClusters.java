@@ -0,0 +1,134 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Store;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, precomputed clusters of {@link Store}s for every zoom level up to a maximum. At zoom level {@code z} the
+ * world is divided into a latitude/longitude grid with cells of {@link StoreMapProperties#cellDegrees(int)} and every
+ * non-empty cell becomes a {@link StoreCluster} at the centroid of its stores. The clusters of a level are sorted by
+ * cell, row by row, so that a viewport query looks up the clusters of every row it overlaps by binary search rather
+ * than checking all of them.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreClusters {
+
+    private final double[] cellDegrees;
+    private final int[] columnCounts;
+    private final long[][] cells; // row * column count + column, ascending
+    private final StoreCluster[][] clusters;
+
+    /**
+     * Clusters the given stores at zoom levels {@code 0} to {@link StoreMapProperties#getMaxClusterZoom()}.
+     *
+     * @param stores
+     * @param properties
+     */
+    public StoreClusters(List<Store> stores, StoreMapProperties properties) {
+
+        int levels = properties.getMaxClusterZoom() + 1;
+        this.cellDegrees = new double[levels];
+        this.columnCounts = new int[levels];
+        this.cells = new long[levels][];
+        this.clusters = new StoreCluster[levels][];
+
+        for (int zoom = 0; zoom < levels; zoom++) {
+            double cell = properties.cellDegrees(zoom);
+            int columnCount = column(180, cell) + 1;
+            Map<Long, double[]> sumsByCell = new HashMap<>();
+
+            for (Store store : stores) {
+                Point location = store.getAddress() == null ? null : store.getAddress().getLocation();
+                if (location == null) {
+                    continue;
+                }
+
+                long key = (long) row(location.getY(), cell) * columnCount + column(location.getX(), cell);
+                double[] sums = sumsByCell.computeIfAbsent(key, it -> new double[3]);
+                sums[0]++;
+                sums[1] += location.getY();
+                sums[2] += location.getX();
+            }
+
+            long[] keys = sumsByCell.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            cellDegrees[zoom] = cell;
+            columnCounts[zoom] = columnCount;
+            cells[zoom] = keys;
+            clusters[zoom] = new StoreCluster[keys.length];
+
+            for (int i = 0; i < keys.length; i++) {
+                double[] sums = sumsByCell.get(keys[i]);
+                clusters[zoom][i] = new StoreCluster(sums[1] / sums[0], sums[2] / sums[0], (long) sums[0]);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest zoom level clusters are available for.
+     *
+     * @return
+     */
+    public int getMaxZoom() {
+        return clusters.length - 1;
+    }
+
+    /**
+     * Returns the clusters at the given zoom level whose cells overlap the given bounds. The bounds span from their
+     * south-west to their north-east corner and cross the antimeridian if west of them is greater than east.
+     *
+     * @param bounds
+     * @param zoom
+     * @return
+     */
+    public List<StoreCluster> find(Box bounds, int zoom) {
+
+        int level = Math.max(0, Math.min(zoom, getMaxZoom()));
+        double cell = cellDegrees[level];
+
+        int west = column(bounds.getFirst().getX(), cell);
+        int east = column(bounds.getSecond().getX(), cell);
+        int south = row(bounds.getFirst().getY(), cell);
+        int north = row(bounds.getSecond().getY(), cell);
+        boolean wrapped = bounds.getFirst().getX() > bounds.getSecond().getX();
+
+        List<StoreCluster> result = new ArrayList<>();
+        for (int row = south; row <= north; row++) {
+            if (wrapped) {
+                collect(level, row, west, columnCounts[level] - 1, result);
+                collect(level, row, 0, east, result);
+            } else {
+                collect(level, row, west, east, result);
+            }
+        }
+
+        return result;
+    }
+
+    private void collect(int level, int row, int west, int east, List<StoreCluster> result) {
+
+        long[] keys = cells[level];
+        long first = (long) row * columnCounts[level] + west;
+        long last = (long) row * columnCounts[level] + east;
+
+        int i = Arrays.binarySearch(keys, first);
+        for (i = i < 0 ? -i - 1 : i; i < keys.length && keys[i] <= last; i++) {
+            result.add(clusters[level][i]);
+        }
+    }
+
+    private static int column(double longitude, double cell) {
+        return (int) Math.max(0, Math.min(Math.floor((longitude + 180) / cell), Math.ceil(360 / cell) - 1));
+    }
+
+    private static int row(double latitude, double cell) {
+        return (int) Math.max(0, Math.min(Math.floor((latitude + 90) / cell), Math.ceil(180 / cell) - 1));
+    }
+}
@@ -0,0 +1,76 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Store;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Attributes a {@link Store} has to have to be returned by a location search: all of the given features and the given
+ * ownership and venue type, if any. Values have to match the ones of the catalog exactly, e.g. {@code Drive-Through},
+ * {@code Starbucks Card Mobile}, {@code Licensed} or {@code Airport}.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class StoreFilter {
+
+    /**
+     * Filter accepting all stores.
+     */
+    public static final StoreFilter NONE = new StoreFilter(Set.of(), null, null);
+
+    private final Set<String> features;
+    private final String ownershipType;
+    private final String venueType;
+
+    /**
+     * Creates a {@link StoreFilter} from optional request parameters, ignoring blank values.
+     *
+     * @param features may be {@literal null}.
+     * @param ownershipType may be {@literal null}.
+     * @param venueType may be {@literal null}.
+     * @return
+     */
+    public static StoreFilter of(Collection<String> features, String ownershipType, String venueType) {
+
+        Set<String> required = new LinkedHashSet<>();
+        if (features != null) {
+            for (String feature : features) {
+                if (feature != null && !feature.isBlank()) {
+                    required.add(feature.trim());
+                }
+            }
+        }
+
+        StoreFilter filter = new StoreFilter(required, trimToNull(ownershipType), trimToNull(venueType));
+        return filter.isEmpty() ? NONE : filter;
+    }
+
+    /**
+     * Returns whether the filter accepts all stores.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return features.isEmpty() && ownershipType == null && venueType == null;
+    }
+
+    /**
+     * Returns whether the given {@link Store} passes the filter.
+     *
+     * @param store
+     * @return
+     */
+    public boolean matches(Store store) {
+        return (store.getFeatures() == null ? features.isEmpty() : store.getFeatures().containsAll(features))
+               && (ownershipType == null || ownershipType.equals(store.getOwnershipType()))
+               && (venueType == null || venueType.equals(store.getVenueType()));
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,321 @@
+
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Store;
+import org.springframework.data.geo.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Immutable in-memory index over the locations of {@link Store}s. Stores are bucketed into a fixed latitude/longitude
+ * grid; entries of a cell are laid out contiguously in primitive arrays so that a radius query only touches the cells
+ * overlapping the bounding box of the search circle. For every feature, ownership and venue type a {@link BitSet} over
+ * the entries marks the stores having it, so that a {@link StoreFilter} boils down to intersecting a few bitsets once
+ * and testing a bit per candidate.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreLocationIndex {
+
+    private final double cellDegrees;
+    private final int columns;
+
+    private final long[] cells; // sorted distinct cell keys
+    private final int[] offsets; // offsets[i]..offsets[i + 1] are the entries of cells[i]
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final Store[] stores;
+
+    private final Map<String, BitSet> features = new HashMap<>();
+    private final Map<String, BitSet> ownershipTypes = new HashMap<>();
+    private final Map<String, BitSet> venueTypes = new HashMap<>();
+
+    /**
+     * Creates a new {@link StoreLocationIndex} for the given {@link Store}s. Stores without a location are skipped.
+     *
+     * @param stores
+     * @param cellDegrees the size of a grid cell in degrees.
+     */
+    public StoreLocationIndex(Collection<Store> stores, double cellDegrees) {
+
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees, got: " + cellDegrees);
+        }
+
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+
+        List<Store> located = new ArrayList<>(stores.size());
+        for (Store store : stores) {
+            if (store.getAddress() != null && store.getAddress().getLocation() != null) {
+                located.add(store);
+            }
+        }
+        located.sort(Comparator.comparingLong(this::cellOf));
+
+        int size = located.size();
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+        this.stores = located.toArray(new Store[size]);
+
+        long[] keys = new long[size];
+        int[] starts = new int[size + 1];
+        int distinct = 0;
+
+        for (int i = 0; i < size; i++) {
+            Point location = this.stores[i].getAddress().getLocation();
+            latitudes[i] = location.getY();
+            longitudes[i] = location.getX();
+
+            Store store = this.stores[i];
+            if (store.getFeatures() != null) {
+                for (String feature : store.getFeatures()) {
+                    features.computeIfAbsent(feature, it -> new BitSet(size)).set(i);
+                }
+            }
+            if (store.getOwnershipType() != null) {
+                ownershipTypes.computeIfAbsent(store.getOwnershipType(), it -> new BitSet(size)).set(i);
+            }
+            if (store.getVenueType() != null) {
+                venueTypes.computeIfAbsent(store.getVenueType(), it -> new BitSet(size)).set(i);
+            }
+
+            long cell = cellOf(store);
+            if (distinct == 0 || keys[distinct - 1] != cell) {
+                keys[distinct] = cell;
+                starts[distinct++] = i;
+            }
+        }
+        starts[distinct] = size;
+
+        this.cells = Arrays.copyOf(keys, distinct);
+        this.offsets = Arrays.copyOf(starts, distinct + 1);
+    }
+
+    /**
+     * Returns the number of indexed stores.
+     *
+     * @return
+     */
+    public int size() {
+        return stores.length;
+    }
+
+    /**
+     * Returns all indexed {@link Store}s within the given angular radius of the given center ordered by distance.
+     *
+     * @param center
+     * @param radians maximum central angle, i.e. {@link org.springframework.data.geo.Distance#getNormalizedValue()}.
+     * @return
+     */
+    public List<Neighbor> findWithin(Point center, double radians) {
+        return findWithin(center, radians, StoreFilter.NONE);
+    }
+
+    /**
+     * Returns all indexed {@link Store}s within the given angular radius of the given center that pass the given
+     * {@link StoreFilter}, ordered by distance.
+     *
+     * @param center
+     * @param radians maximum central angle, i.e. {@link org.springframework.data.geo.Distance#getNormalizedValue()}.
+     * @param filter
+     * @return
+     */
+    public List<Neighbor> findWithin(Point center, double radians, StoreFilter filter) {
+
+        BitSet matching = entriesMatching(filter);
+        if (matching != null && matching.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        double latitude = center.getY();
+        double longitude = center.getX();
+        double latSpan = Math.toDegrees(radians);
+        double lonSpan = GeoMath.longitudeSpan(latitude, radians);
+
+        int fromRow = row(Math.max(-90, latitude - latSpan));
+        int toRow = row(Math.min(90, latitude + latSpan));
+        int fromColumn = (int) Math.floor((longitude - lonSpan + 180) / cellDegrees);
+        int toColumn = (int) Math.floor((longitude + lonSpan + 180) / cellDegrees);
+        if (toColumn - fromColumn + 1 >= columns) {
+            fromColumn = 0;
+            toColumn = columns - 1;
+        }
+
+        List<Neighbor> result = new ArrayList<>();
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                int slot = Arrays.binarySearch(cells, (long) row * columns + Math.floorMod(column, columns));
+                if (slot < 0) {
+                    continue;
+                }
+                for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+                    if (matching != null && !matching.get(i)) {
+                        continue;
+                    }
+                    double distance = GeoMath.angularDistance(latitude, longitude, latitudes[i], longitudes[i]);
+                    if (distance <= radians) {
+                        result.add(new Neighbor(stores[i], distance));
+                    }
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(Neighbor::getDistance));
+        return result;
+    }
+
+    /**
+     * Returns the {@code k} indexed {@link Store}s closest to the given center ordered by distance. Grid cells are
+     * visited ring by ring around the center's cell, and the search stops as soon as no unvisited cell can hold a store
+     * closer than the k-th one found so far, or all stores have been seen.
+     *
+     * @param center
+     * @param k
+     * @param maxRadians maximum central angle of the stores, or {@link Double#POSITIVE_INFINITY}.
+     * @return
+     */
+    public List<Neighbor> findNearest(Point center, int k, double maxRadians) {
+        return findNearest(center, k, 0, maxRadians, StoreFilter.NONE, store -> true);
+    }
+
+    /**
+     * Returns the {@code k} indexed {@link Store}s closest to the given center that are at least the given minimum
+     * distance away, pass the given {@link StoreFilter} and are accepted by the given predicate, ordered by distance.
+     *
+     * @param center
+     * @param k
+     * @param minRadians minimum central angle of the stores.
+     * @param maxRadians maximum central angle of the stores, or {@link Double#POSITIVE_INFINITY}.
+     * @param filter
+     * @param accept
+     * @return
+     */
+    public List<Neighbor> findNearest(Point center, int k, double minRadians, double maxRadians, StoreFilter filter,
+                                      Predicate<Store> accept) {
+
+        BitSet matching = entriesMatching(filter);
+        if (k <= 0 || matching != null && matching.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        double latitude = center.getY();
+        double longitude = center.getX();
+        int rows = row(90) + 1;
+        int centerRow = row(latitude);
+        int centerColumn = Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+
+        PriorityQueue<Neighbor> nearest = new PriorityQueue<>(k + 1,
+            Comparator.comparingDouble(Neighbor::getDistance).reversed());
+        BitSet visited = new BitSet(cells.length);
+        int unseen = matching == null ? stores.length : matching.cardinality();
+
+        for (int ring = 0; ; ring++) {
+
+            for (int dr = -ring; dr <= ring; dr++) {
+                int row = centerRow + dr;
+                if (row < 0 || row >= rows) {
+                    continue;
+                }
+                // edge rows of rings wider than the grid would wrap around onto the same cells
+                int step = Math.abs(dr) == ring ? 1 : Math.max(1, 2 * ring);
+                int last = Math.abs(dr) == ring ? Math.min(ring, columns - 1 - ring) : ring;
+                for (int dc = -ring; dc <= last; dc += step) {
+                    int slot = Arrays.binarySearch(cells, (long) row * columns + Math.floorMod(centerColumn + dc, columns));
+                    if (slot < 0 || visited.get(slot)) {
+                        continue;
+                    }
+                    visited.set(slot);
+                    for (int i = offsets[slot]; i < offsets[slot + 1]; i++) {
+                        if (matching != null && !matching.get(i)) {
+                            continue;
+                        }
+                        unseen--;
+                        double distance = GeoMath.angularDistance(latitude, longitude, latitudes[i], longitudes[i]);
+                        if (distance >= minRadians && distance <= maxRadians
+                            && (nearest.size() < k || distance < nearest.peek().getDistance())
+                            && accept.test(stores[i])) {
+                            nearest.add(new Neighbor(stores[i], distance));
+                            if (nearest.size() > k) {
+                                nearest.poll();
+                            }
+                        }
+                    }
+                }
+            }
+
+            // lower bound of the distance of any store in a cell outside the rings visited so far
+            double south = (centerRow - ring) * cellDegrees - 90;
+            double north = (centerRow + ring + 1) * cellDegrees - 90;
+            double latBound = south <= -90 && north >= 90 ? Double.POSITIVE_INFINITY
+                                                          : Math.toRadians(Math.min(south <= -90 ? 180 : latitude - south,
+                                                                                    north >= 90 ? 180 : north - latitude));
+
+            double lonBound = Double.POSITIVE_INFINITY;
+            if (2 * ring + 1 < columns) {
+                double west = (centerColumn - ring) * cellDegrees - 180;
+                double east = (centerColumn + ring + 1) * cellDegrees - 180;
+                double lonGap = Math.min(Math.min(longitude - west, east - longitude), 90);
+                lonBound = Math.asin(Math.cos(Math.toRadians(latitude)) * Math.sin(Math.toRadians(lonGap)));
+            }
+
+            double bound = Math.min(latBound, lonBound);
+            if (unseen == 0 || bound == Double.POSITIVE_INFINITY || bound > maxRadians
+                || nearest.size() == k && nearest.peek().getDistance() <= bound) {
+                break;
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Neighbor::getDistance));
+        return result;
+    }
+
+    /**
+     * Returns the entries passing the given filter, or {@literal null} if it accepts all of them.
+     *
+     * @param filter
+     * @return
+     */
+    private BitSet entriesMatching(StoreFilter filter) {
+
+        if (filter == null || filter.isEmpty()) {
+            return null;
+        }
+
+        BitSet matching = new BitSet(stores.length);
+        matching.set(0, stores.length);
+
+        for (String feature : filter.getFeatures()) {
+            matching.and(features.getOrDefault(feature, new BitSet()));
+        }
+        if (filter.getOwnershipType() != null) {
+            matching.and(ownershipTypes.getOrDefault(filter.getOwnershipType(), new BitSet()));
+        }
+        if (filter.getVenueType() != null) {
+            matching.and(venueTypes.getOrDefault(filter.getVenueType(), new BitSet()));
+        }
+
+        return matching;
+    }
+
+    private long cellOf(Store store) {
+
+        Point location = store.getAddress().getLocation();
+        int column = Math.floorMod((int) Math.floor((location.getX() + 180) / cellDegrees), columns);
+        return (long) row(location.getY()) * columns + column;
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / cellDegrees);
+    }
+}
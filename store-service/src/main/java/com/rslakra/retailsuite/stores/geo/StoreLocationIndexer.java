@@ -0,0 +1,351 @@
+
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Store;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metric;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maintains an optional {@link StoreLocationIndex} and the precomputed {@link StoreClusters} over all {@link Store}s in
+ * MongoDB. Both are built once the application is ready and rebuilt in the background whenever stores are saved or
+ * deleted. MongoDB stays the system of record: while they are disabled, not built yet or behind a modification,
+ * {@link #findNear} and {@link #findClusters} return {@literal null} and callers are expected to query MongoDB instead.
+ * <p>
+ * If a {@link StoreSnapshot} file is configured, a starting instance builds both from the snapshot before it rebuilds
+ * them from MongoDB, so that it serves from memory right away, and rebuilds from MongoDB refresh the snapshot. A
+ * snapshot lacks the modifications made since it was written, so it is only served if it is at most
+ * {@link #getSnapshotMaxAge()} old, and only until the first rebuild from MongoDB has completed. If that rebuild fails,
+ * queries go to MongoDB rather than to the snapshot.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("stores.index")
+public class StoreLocationIndexer extends AbstractMongoEventListener<Store> {
+
+    private final MongoOperations operations;
+    private final StoreMapProperties mapProperties;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private volatile StoreLocationIndex index;
+    private volatile StoreClusters clusters;
+    private volatile long indexVersion = -1;
+    private volatile boolean fromSnapshot;
+
+    /**
+     * Whether to serve location queries from memory.
+     */
+    @Getter
+    @Setter
+    private boolean enabled = false;
+
+    /**
+     * The size of a grid cell in degrees.
+     */
+    @Getter
+    @Setter
+    private double cellDegrees = 0.5;
+
+    /**
+     * How long to wait for further modifications before rebuilding the index.
+     */
+    @Getter
+    @Setter
+    private long rebuildDelayMillis = 2000;
+
+    /**
+     * The {@link StoreSnapshot} file to warm up from at startup and to refresh after rebuilds, if any.
+     */
+    @Getter
+    @Setter
+    private String snapshot;
+
+    /**
+     * How old a snapshot may be to be served until the first rebuild from MongoDB has completed, older ones are ignored.
+     */
+    @Getter
+    @Setter
+    private Duration snapshotMaxAge = Duration.ofMinutes(10);
+
+    /**
+     * Whether this instance refreshes the snapshot after rebuilds. Instances sharing a snapshot file should leave it to
+     * one of them.
+     */
+    @Getter
+    @Setter
+    private boolean snapshotWriter = true;
+
+    @Autowired
+    public StoreLocationIndexer(MongoOperations operations, StoreMapProperties mapProperties) {
+        this.operations = operations;
+        this.mapProperties = mapProperties;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-location-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isMaintained()) {
+            executor.execute(this::loadSnapshot);
+            executor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Returns whether the index reflects all modifications seen so far.
+     *
+     * @return
+     */
+    public boolean isReady() {
+        return enabled && index != null && indexVersion == version.get();
+    }
+
+    /**
+     * Returns the precomputed clusters overlapping the given bounds at the given zoom level.
+     *
+     * @param bounds
+     * @param zoom
+     * @return the clusters or {@literal null} if they have to be aggregated in MongoDB.
+     */
+    public List<StoreCluster> findClusters(Box bounds, int zoom) {
+
+        StoreClusters current = clusters;
+        if (!mapProperties.isPrecomputed() || current == null || indexVersion != version.get()
+            || zoom > current.getMaxZoom()) {
+            return null;
+        }
+
+        return current.find(bounds, zoom);
+    }
+
+    /**
+     * Returns the current index, even if it is behind a modification, or {@literal null} if none was built yet.
+     *
+     * @return
+     */
+    public StoreLocationIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Answers a location query from memory with the same semantics as the MongoDB {@code $nearSphere} query: stores
+     * passing the given {@link StoreFilter} ordered by distance, paged by the given {@link Pageable}, and the total
+     * number of matches.
+     *
+     * @param location
+     * @param distance
+     * @param filter
+     * @param pageable
+     * @return the page or {@literal null} if the query has to go to MongoDB.
+     */
+    public Page<Store> findNear(Point location, Distance distance, StoreFilter filter, Pageable pageable) {
+
+        StoreLocationIndex current = index;
+        if (!isReady() || location == null || distance == null || Metrics.NEUTRAL.equals(distance.getMetric())
+            || pageable.getSort().isSorted()) {
+            return null;
+        }
+
+        List<Neighbor> neighbors = current.findWithin(location, distance.getNormalizedValue(), filter);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(toStores(neighbors, 0, neighbors.size()), pageable, neighbors.size());
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), neighbors.size());
+        int to = Math.min(from + pageable.getPageSize(), neighbors.size());
+
+        return new PageImpl<>(toStores(neighbors, from, to), pageable, neighbors.size());
+    }
+
+    /**
+     * Answers a nearest neighbor query from memory: the {@code k} stores closest to the given location, optionally
+     * within the given maximum {@link Distance}, passing the given {@link StoreFilter} and after a {@link GeoCursor},
+     * with their distances in the metric of the maximum distance or in kilometers.
+     *
+     * @param location
+     * @param maxDistance may be {@literal null}.
+     * @param filter
+     * @param k
+     * @param after the {@link GeoCursor} to continue after, may be {@literal null}.
+     * @return the results or {@literal null} if the query has to go to MongoDB.
+     */
+    public GeoResults<Store> findNearest(Point location, Distance maxDistance, StoreFilter filter, int k,
+                                         GeoCursor after) {
+
+        StoreLocationIndex current = index;
+        if (!isReady() || location == null || maxDistance != null && Metrics.NEUTRAL.equals(maxDistance.getMetric())) {
+            return null;
+        }
+
+        Metric metric = maxDistance == null ? Metrics.KILOMETERS : maxDistance.getMetric();
+        double maxRadians = maxDistance == null ? Double.POSITIVE_INFINITY : maxDistance.getNormalizedValue();
+
+        List<GeoResult<Store>> results = new ArrayList<>(k);
+        List<Neighbor> neighbors = after == null
+                                   ? current.findNearest(location, k, 0, maxRadians, filter, store -> true)
+                                   : current.findNearest(location, k, after.getDistance(), maxRadians, filter,
+                                                         store -> !after.getIds().contains(store.getId()));
+
+        for (Neighbor neighbor : neighbors) {
+            results.add(new GeoResult<>(neighbor.getStore(),
+                                        new Distance(neighbor.getDistance() * metric.getMultiplier(), metric)));
+        }
+
+        return new GeoResults<>(results, metric);
+    }
+
+    /**
+     * Marks the index as stale and schedules a rebuild, e.g. after stores were written without going through the
+     * mapping layer.
+     */
+    public void invalidate() {
+
+        version.incrementAndGet();
+        if (isMaintained() && rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::rebuild, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterSave(org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent)
+     */
+    @Override
+    public void onAfterSave(AfterSaveEvent<Store> event) {
+        invalidate();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterDelete(org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent)
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Store> event) {
+        invalidate();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void rebuild() {
+
+        rebuildScheduled.set(false);
+        long target = version.get();
+
+        try {
+            long start = System.nanoTime();
+            List<Store> stores = new ArrayList<>();
+            operations.stream(new Query(), Store.class).forEach(stores::add);
+            build(stores, target);
+
+            log.info("Indexed {} store locations in {} ms.", stores.size(),
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            // written to a temporary file and moved into place, so readers never see a partial snapshot
+            if (snapshotWriter && StringUtils.hasText(snapshot) && indexVersion == version.get()) {
+                StoreSnapshot.write(stores, Path.of(snapshot));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write the store snapshot {}.", snapshot, e);
+        } catch (RuntimeException e) {
+            log.warn("Failed to build the store location index, serving location queries from MongoDB.", e);
+            if (fromSnapshot) {
+                build(null, -1);
+            }
+        }
+    }
+
+    private void loadSnapshot() {
+
+        if (!StringUtils.hasText(snapshot) || !Files.exists(Path.of(snapshot))) {
+            return;
+        }
+
+        long target = version.get();
+
+        try {
+            Instant written = Files.getLastModifiedTime(Path.of(snapshot)).toInstant();
+            if (written.plus(snapshotMaxAge).isBefore(Instant.now())) {
+                log.info("Ignoring the store snapshot {} written at {}, older than {}.", snapshot, written,
+                         snapshotMaxAge);
+                return;
+            }
+
+            long start = System.nanoTime();
+            List<Store> stores = StoreSnapshot.read(Path.of(snapshot));
+            build(stores, target);
+            fromSnapshot = true;
+
+            log.info("Indexed {} store locations from snapshot {} in {} ms.", stores.size(), snapshot,
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load the store snapshot {}, waiting for MongoDB.", snapshot, e);
+        }
+    }
+
+    private void build(List<Store> stores, long target) {
+
+        index = enabled && stores != null ? new StoreLocationIndex(stores, cellDegrees) : null;
+        clusters = mapProperties.isPrecomputed() && stores != null ? new StoreClusters(stores, mapProperties) : null;
+        indexVersion = target;
+        fromSnapshot = false;
+    }
+
+    private boolean isMaintained() {
+        return enabled || mapProperties.isPrecomputed();
+    }
+
+    private static List<Store> toStores(List<Neighbor> neighbors, int from, int to) {
+
+        List<Store> stores = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            stores.add(neighbors.get(i).getStore());
+        }
+
+        return stores;
+    }
+}
@@ -0,0 +1,52 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of the map viewport search, which returns clusters of stores up to a zoom level and individual stores
+ * beyond it.
+ *
+ * @author Rohtash Lakra
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("stores.map")
+public class StoreMapProperties {
+
+    /**
+     * Whether to maintain the clusters of all zoom levels in memory rather than aggregating them in MongoDB per request.
+     * This keeps all stores in memory and reclusters them after every modification, like the location index.
+     */
+    private boolean precomputed = false;
+
+    /**
+     * Highest zoom level returning clusters, higher zoom levels return individual stores.
+     */
+    private int maxClusterZoom = 12;
+
+    /**
+     * Number of cluster cells per map tile side, i.e. clusters are about 256 / cells-per-tile pixels apart.
+     */
+    private int cellsPerTile = 4;
+
+    /**
+     * Maximum number of individual stores per viewport, clusters of the highest cluster zoom level are returned instead
+     * if there are more.
+     */
+    private int maxStores = 1000;
+
+    /**
+     * Returns the size in degrees of the cluster cells at the given zoom level, where the world is {@code 2^zoom} tiles
+     * wide.
+     *
+     * @param zoom
+     * @return
+     */
+    public double cellDegrees(int zoom) {
+        return 360.0 / ((1L << zoom) * cellsPerTile);
+    }
+}
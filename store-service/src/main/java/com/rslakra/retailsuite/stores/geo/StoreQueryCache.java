@@ -0,0 +1,617 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rslakra.retailsuite.stores.Store;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.Value;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional cache of location query results. Query points are snapped to the center of a grid cell, and the stores
+ * within the search distance widened by how far a point of the cell can lie from its center are loaded once for the
+ * center. That superset holds the stores within the search distance of every point of the cell, so that lookups from
+ * nearby locations with the same distance share an entry: each one is answered by filtering the superset by its own
+ * distance, picking the stores of its page by distance from its own point and fetching just those by id. Only unsorted
+ * searches with a distance are cached.
+ * <p>
+ * An entry holds no documents, only the ids and coordinates of its stores, ordered by their distance from the cell
+ * center, which ends the scan of a lookup at the first store too far away to be within its distance. Loads are capped
+ * at {@link #getMaximumEntrySize()} stores: searches finding more are remembered as not cacheable until the entry
+ * expires and go to the database. Entries are bounded in the number of stores they hold altogether and in age. They
+ * are evicted precisely when a {@link Store} they hold or one saved into their search area is saved or deleted
+ * through the mapping layer; entries are looked up by the ids of their stores and by the coarse regions their search
+ * areas overlap, rather than checking every entry.
+ * Statistics are published as {@code cache.*} meters tagged {@code cache=stores.location}.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@ConfigurationProperties("stores.cache")
+public class StoreQueryCache extends AbstractMongoEventListener<Store> {
+
+    /**
+     * Size in degrees of the regions entries are looked up by when invalidating locations.
+     */
+    private static final double REGION_DEGREES = 1;
+    private static final int REGION_COLUMNS = (int) (360 / REGION_DEGREES);
+    private static final int REGION_ROWS = (int) (180 / REGION_DEGREES);
+
+    /**
+     * Entries overlapping more regions are checked on every invalidation instead.
+     */
+    private static final int MAX_REGIONS = 256;
+
+    private final MeterRegistry registry;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Set<Entry>> entriesByStore = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Entry>> entriesByRegion = new ConcurrentHashMap<>();
+    private final Set<Entry> wideEntries = ConcurrentHashMap.newKeySet();
+    private Cache<Key, Entry> cache;
+
+    /**
+     * Whether to cache location query results.
+     */
+    @Getter
+    @Setter
+    private boolean enabled = false;
+
+    /**
+     * The size in degrees of the grid cells query points are snapped to, {@code 0} to not snap them.
+     */
+    @Getter
+    @Setter
+    private double cellDegrees = 0.01;
+
+    /**
+     * Maximum number of stores held by all cached entries together.
+     */
+    @Getter
+    @Setter
+    private long maximumSize = 100_000;
+
+    /**
+     * Maximum number of stores a single entry holds; searches finding more within the widened distance are not cached.
+     */
+    @Getter
+    @Setter
+    private int maximumEntrySize = 1_000;
+
+    /**
+     * How long a cached entry is served at most.
+     */
+    @Getter
+    @Setter
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+    @Autowired
+    public StoreQueryCache(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    public void initialize() {
+
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maximumSize)
+            .weigher((Key key, Entry entry) -> Math.max(1, entry.size()))
+            .expireAfterWrite(timeToLive)
+            .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                if (entry != null) {
+                    unregister(entry);
+                }
+            })
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(registry, cache, "stores.location");
+    }
+
+    /**
+     * Returns the page for the given query from the cached stores around the given location, loading them with the
+     * given search on a miss. The stores of the page are fetched by id, so the callers decide what is loaded of them.
+     *
+     * @param location
+     * @param distance may be {@literal null}.
+     * @param filter
+     * @param pageable
+     * @param search runs a query.
+     * @param fetch loads stores by id.
+     * @return
+     */
+    public Page<Store> get(Point location, Distance distance, StoreFilter filter, Pageable pageable, Search search,
+                           Fetch fetch) {
+
+        if (!enabled || location == null || distance == null || pageable.getSort().isSorted()) {
+            return search.find(location, distance, pageable);
+        }
+
+        Key key = new Key(snap(location), distance, filter);
+        long start = generation.get();
+        Entry entry = cache.get(key, it -> load(it, search));
+
+        // a store was modified while the query ran, so the entry may predate the modification
+        if (generation.get() != start) {
+            cache.asMap().remove(key, entry);
+        }
+
+        if (entry.isOversized()) {
+            return search.find(location, distance, pageable);
+        }
+
+        return entry.page(location, pageable, fetch);
+    }
+
+    /**
+     * Drops all cached entries, e.g. after stores were written without going through the mapping layer.
+     */
+    public void invalidateAll() {
+
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drops the cached entries whose search area contains any of the given locations.
+     *
+     * @param locations
+     */
+    public void invalidate(Collection<Point> locations) {
+
+        generation.incrementAndGet();
+        for (Point location : locations) {
+            evictCovering(location);
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterSave(org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent)
+     */
+    @Override
+    public void onAfterSave(AfterSaveEvent<Store> event) {
+
+        Store store = event.getSource();
+        generation.incrementAndGet();
+
+        // entries holding the store cover its previous location, the others may have to hold it now
+        evictHolding(store.getId());
+        if (store.getAddress() != null && store.getAddress().getLocation() != null) {
+            evictCovering(store.getAddress().getLocation());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterDelete(org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent)
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Store> event) {
+
+        List<String> ids = idsOf(event.getDocument());
+        if (ids == null) {
+            invalidateAll();
+            return;
+        }
+
+        generation.incrementAndGet();
+        ids.forEach(this::evictHolding);
+    }
+
+    Point snap(Point location) {
+
+        if (cellDegrees <= 0) {
+            return location;
+        }
+
+        return new Point(center(location.getX(), 180), center(location.getY(), 90));
+    }
+
+    /**
+     * Returns the given distance widened by how far a point of a cell can lie from the cell's center: half the
+     * diagonal of a cell in the plane and, on the sphere, at most half a cell along the meridian plus half a cell along
+     * the parallel.
+     *
+     * @param distance
+     * @return
+     */
+    Distance widen(Distance distance) {
+
+        boolean planar = Metrics.NEUTRAL.equals(distance.getMetric());
+        double reach = planar ? Math.hypot(cellDegrees / 2, cellDegrees / 2) : Math.toRadians(cellDegrees);
+
+        return new Distance(distance.getValue() + reach * distance.getMetric().getMultiplier(), distance.getMetric());
+    }
+
+    private Entry load(Key key, Search search) {
+
+        Distance widened = widen(key.getDistance());
+        List<Store> stores = search.find(key.getCenter(), widened, PageRequest.of(0, maximumEntrySize + 1))
+            .getContent();
+        if (stores.size() > maximumEntrySize) {
+            return new Entry(key, widened.getNormalizedValue(), null);
+        }
+
+        Entry entry = new Entry(key, widened.getNormalizedValue(), stores);
+        register(entry);
+
+        return entry;
+    }
+
+    private double center(double coordinate, double bound) {
+
+        double center = (Math.floor(coordinate / cellDegrees) + 0.5) * cellDegrees;
+        return Math.max(-bound, Math.min(bound, center));
+    }
+
+    private void evictHolding(String id) {
+
+        Set<Entry> entries = id == null ? null : entriesByStore.get(id);
+        if (entries != null) {
+            entries.forEach(this::evict);
+        }
+    }
+
+    private void evictCovering(Point location) {
+
+        Set<Entry> entries = entriesByRegion.get(regionOf(location.getY(), location.getX()));
+        if (entries != null) {
+            for (Entry entry : entries) {
+                if (entry.covers(location)) {
+                    evict(entry);
+                }
+            }
+        }
+
+        for (Entry entry : wideEntries) {
+            if (entry.covers(location)) {
+                evict(entry);
+            }
+        }
+    }
+
+    private void evict(Entry entry) {
+        cache.asMap().remove(entry.key, entry);
+    }
+
+    private void register(Entry entry) {
+
+        for (String id : entry.ids) {
+            entriesByStore.compute(id, (it, entries) -> add(entries, entry));
+        }
+
+        List<Long> regions = entry.regions();
+        if (regions == null) {
+            wideEntries.add(entry);
+        } else {
+            regions.forEach(region -> entriesByRegion.compute(region, (it, entries) -> add(entries, entry)));
+        }
+    }
+
+    private void unregister(Entry entry) {
+
+        if (entry.isOversized()) {
+            return;
+        }
+
+        for (String id : entry.ids) {
+            entriesByStore.computeIfPresent(id, (it, entries) -> remove(entries, entry));
+        }
+
+        List<Long> regions = entry.regions();
+        if (regions == null) {
+            wideEntries.remove(entry);
+        } else {
+            regions.forEach(region -> entriesByRegion.computeIfPresent(region, (it, entries) -> remove(entries, entry)));
+        }
+    }
+
+    private static Set<Entry> add(Set<Entry> entries, Entry entry) {
+
+        Set<Entry> result = entries == null ? ConcurrentHashMap.newKeySet() : entries;
+        result.add(entry);
+        return result;
+    }
+
+    private static Set<Entry> remove(Set<Entry> entries, Entry entry) {
+
+        entries.remove(entry);
+        return entries.isEmpty() ? null : entries;
+    }
+
+    private static long regionOf(double latitude, double longitude) {
+
+        int row = Math.max(0, Math.min(REGION_ROWS - 1, (int) Math.floor((latitude + 90) / REGION_DEGREES)));
+        int column = Math.floorMod((int) Math.floor((longitude + 180) / REGION_DEGREES), REGION_COLUMNS);
+
+        return (long) row * REGION_COLUMNS + column;
+    }
+
+    /**
+     * Returns the ids of the stores deleted by the given query if it selects stores by id only, {@literal null}
+     * otherwise.
+     *
+     * @param document
+     * @return
+     */
+    private static List<String> idsOf(Document document) {
+
+        if (document == null || document.size() != 1 || !document.containsKey("_id")) {
+            return null;
+        }
+
+        Object id = document.get("_id");
+        if (id instanceof Document operator) {
+            if (operator.size() == 1 && operator.get("$in") instanceof Collection<?> values) {
+                return values.stream().map(String::valueOf).toList();
+            }
+            return null;
+        }
+
+        return id == null ? null : List.of(id.toString());
+    }
+
+    /**
+     * Runs a location query.
+     */
+    @FunctionalInterface
+    public interface Search {
+
+        /**
+         * Returns the page of stores within the given distance of the given location.
+         *
+         * @param location
+         * @param distance may be {@literal null}.
+         * @param pageable
+         * @return
+         */
+        Page<Store> find(Point location, Distance distance, Pageable pageable);
+    }
+
+    /**
+     * Loads the stores of a page.
+     */
+    @FunctionalInterface
+    public interface Fetch {
+
+        /**
+         * Returns the stores with the given ids that still exist, in any order.
+         *
+         * @param ids
+         * @return
+         */
+        List<Store> findAll(List<String> ids);
+    }
+
+    /**
+     * Cache key: the snapped query point, the distance and the filter.
+     */
+    @Value
+    static class Key {
+
+        private final Point center;
+        private final Distance distance;
+        private final StoreFilter filter;
+    }
+
+    /**
+     * The ids and coordinates of the stores within the widened search distance of a cell center, ordered by their
+     * distance from it, or none if there are more than an entry may hold. Entries are compared by identity, so that
+     * removing an entry from the indexes never removes a newer entry for the same key.
+     */
+    static class Entry {
+
+        private final Key key;
+        private final double radius; // widened, normalized distance
+        private final boolean planar;
+        private final String[] ids;
+        private final double[] xs;
+        private final double[] ys;
+        private final double[] offsets; // normalized distances from the center, ascending
+
+        /**
+         * @param key
+         * @param radius
+         * @param stores ordered by distance from the center, {@literal null} if there are too many.
+         */
+        Entry(Key key, double radius, List<Store> stores) {
+
+            this.key = key;
+            this.radius = radius;
+            this.planar = Metrics.NEUTRAL.equals(key.getDistance().getMetric());
+
+            int size = stores == null ? 0 : stores.size();
+            this.ids = stores == null ? null : new String[size];
+            this.xs = new double[size];
+            this.ys = new double[size];
+            this.offsets = new double[size];
+            for (int i = 0; i < size; i++) {
+                Point location = stores.get(i).getAddress().getLocation();
+                ids[i] = stores.get(i).getId();
+                xs[i] = location.getX();
+                ys[i] = location.getY();
+                offsets[i] = distanceOf(key.getCenter(), xs[i], ys[i]);
+            }
+        }
+
+        boolean isOversized() {
+            return ids == null;
+        }
+
+        int size() {
+            return xs.length;
+        }
+
+        /**
+         * Returns the page of the stores within the key's distance of the given location, ordered by distance from it.
+         * A store farther from the center than the given location by more than the distance cannot be within it, which
+         * ends the scan; the stores up to the end of the page are kept in a bounded heap rather than sorting them all.
+         *
+         * @param location
+         * @param pageable
+         * @param fetch
+         * @return
+         */
+        Page<Store> page(Point location, Pageable pageable, Fetch fetch) {
+
+            // allow for rounding the way MongoDB does, returning a store on the boundary rather than dropping it
+            double maximum = key.getDistance().getNormalizedValue() * (1 + 1e-9);
+            double offset = distanceOf(key.getCenter(), location.getX(), location.getY());
+            long limit = pageable.isUnpaged() ? Long.MAX_VALUE : pageable.getOffset() + pageable.getPageSize();
+
+            // the farthest of the stores kept on top
+            PriorityQueue<Candidate> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble(Candidate::getDistance).reversed());
+            int total = 0;
+            for (int i = 0; i < xs.length && offsets[i] - offset <= maximum; i++) {
+                double distance = distanceOf(location, xs[i], ys[i]);
+                if (distance <= maximum) {
+                    total++;
+                    if (nearest.size() < limit) {
+                        nearest.add(new Candidate(i, distance));
+                    } else if (distance < nearest.peek().getDistance()) {
+                        nearest.poll();
+                        nearest.add(new Candidate(i, distance));
+                    }
+                }
+            }
+
+            List<Candidate> head = new ArrayList<>(nearest);
+            head.sort(Comparator.comparingDouble(Candidate::getDistance));
+            int from = pageable.isUnpaged() ? 0 : (int) Math.min(pageable.getOffset(), head.size());
+
+            List<String> pageIds = new ArrayList<>(head.size() - from);
+            for (Candidate candidate : head.subList(from, head.size())) {
+                pageIds.add(ids[candidate.getIndex()]);
+            }
+
+            return new PageImpl<>(fetch(pageIds, fetch), pageable, total);
+        }
+
+        /**
+         * Returns whether the given location lies within the widened search area of this entry, i.e. whether a store
+         * there would be part of it.
+         *
+         * @param location
+         * @return
+         */
+        boolean covers(Point location) {
+            return distanceOf(location, key.getCenter()) <= radius * (1 + 1e-9);
+        }
+
+        /**
+         * Returns the regions the widened search area overlaps, or {@literal null} if they are too many.
+         *
+         * @return
+         */
+        List<Long> regions() {
+
+            Point center = key.getCenter();
+            double latSpan = planar ? radius : Math.toDegrees(radius);
+            double lonSpan = planar ? radius : GeoMath.longitudeSpan(center.getY(), radius);
+            if (lonSpan >= 180) {
+                return null;
+            }
+
+            int fromRow = (int) Math.floor((Math.max(-90, center.getY() - latSpan) + 90) / REGION_DEGREES);
+            int toRow = Math.min(REGION_ROWS - 1, (int) Math.floor((Math.min(90, center.getY() + latSpan) + 90) / REGION_DEGREES));
+            int fromColumn = (int) Math.floor((center.getX() - lonSpan + 180) / REGION_DEGREES);
+            int toColumn = (int) Math.floor((center.getX() + lonSpan + 180) / REGION_DEGREES);
+            if ((long) (toRow - fromRow + 1) * (toColumn - fromColumn + 1) > MAX_REGIONS) {
+                return null;
+            }
+
+            List<Long> regions = new ArrayList<>();
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    regions.add((long) row * REGION_COLUMNS + Math.floorMod(column, REGION_COLUMNS));
+                }
+            }
+
+            return regions;
+        }
+
+        private double distanceOf(Point location, Point point) {
+            return distanceOf(location, point.getX(), point.getY());
+        }
+
+        private double distanceOf(Point location, double x, double y) {
+            return planar ? Math.hypot(x - location.getX(), y - location.getY())
+                          : GeoMath.angularDistance(location.getY(), location.getX(), y, x);
+        }
+
+        /**
+         * Returns the stores with the given ids in the order of the ids, leaving out those deleted meanwhile.
+         */
+        private static List<Store> fetch(List<String> ids, Fetch fetch) {
+
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            Map<String, Store> byId = new HashMap<>();
+            for (Store store : fetch.findAll(ids)) {
+                byId.put(store.getId(), store);
+            }
+
+            List<Store> stores = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                Store store = byId.get(id);
+                if (store != null) {
+                    stores.add(store);
+                }
+            }
+
+            return stores;
+        }
+    }
+
+    /**
+     * A store of an entry, by its index, with its distance from the query point.
+     */
+    @Value
+    private static class Candidate {
+
+        private final int index;
+        private final double distance;
+    }
+}
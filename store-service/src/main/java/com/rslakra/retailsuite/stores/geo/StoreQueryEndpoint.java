@@ -0,0 +1,28 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint ({@code /actuator/storequeries}) listing the most recent slow location searches recorded by the
+ * {@link StoreQueryMetrics}, with the MongoDB explain output of those that were explained.
+ *
+ * @author Rohtash Lakra
+ */
+@Component
+@Endpoint(id = "storequeries")
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class StoreQueryEndpoint {
+
+    private final StoreQueryMetrics metrics;
+
+    @ReadOperation
+    public List<StoreQueryMetrics.SlowQuery> slowQueries() {
+        return metrics.findSlowQueries();
+    }
+}
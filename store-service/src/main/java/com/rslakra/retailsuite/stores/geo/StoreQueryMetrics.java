@@ -0,0 +1,403 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.rslakra.retailsuite.stores.Store;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instruments the location searches on {@link Store}s:
+ * <ul>
+ * <li>{@code stores.search.location}: latency by distance bucket, page size bucket, the source serving the page and
+ * whether the search failed, with percentile histograms,</li>
+ * <li>{@code stores.search.location.region}: latency by the first geohash character of the location and whether the
+ * search failed,</li>
+ * <li>{@code stores.search.location.results} and {@code stores.search.location.matches}: the number of stores per page
+ * and in total,</li>
+ * <li>{@code stores.search.index.misses}: queries rejected by MongoDB for lack of a geospatial index,</li>
+ * <li>{@code stores.search.location.slow}: searches over the slow query threshold.</li>
+ * </ul>
+ * Slow searches served by MongoDB are explained in the background against the databases that ran them, the primary or
+ * the partitions, at most one per {@link #getExplainInterval()}, and the most recent slow searches are kept for the
+ * {@code storequeries} actuator endpoint.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("stores.metrics")
+public class StoreQueryMetrics {
+
+    private static final double EARTH_RADIUS_KM = 6378.137;
+    private static final double[] DISTANCE_BUCKETS_KM = { 1, 5, 10, 50, 100, 500, 1000 };
+    private static final int[] PAGE_SIZE_BUCKETS = { 10, 20, 50, 100 };
+
+    /**
+     * The source serving a location search.
+     */
+    public enum Source {
+        CACHE, INDEX, MONGO;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final MongoOperations operations;
+    private final QueryMapper queryMapper;
+    private final Meter.MeterProvider<Timer> latency;
+    private final Meter.MeterProvider<Timer> regionLatency;
+    private final Meter.MeterProvider<DistributionSummary> results;
+    private final Meter.MeterProvider<DistributionSummary> matches;
+    private final Meter.MeterProvider<Counter> slow;
+    private final Counter indexMisses;
+    private final AtomicLong nextExplain = new AtomicLong(System.nanoTime());
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>(); // guarded by itself
+    private final ExecutorService executor;
+
+    /**
+     * Searches taking longer are counted as slow, kept for the actuator endpoint and explained.
+     */
+    @Getter
+    @Setter
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    /**
+     * Minimum time between two explains of slow searches.
+     */
+    @Getter
+    @Setter
+    private Duration explainInterval = Duration.ofSeconds(10);
+
+    /**
+     * Number of recent slow searches to keep.
+     */
+    @Getter
+    @Setter
+    private int slowQueryCapacity = 20;
+
+    @Autowired
+    public StoreQueryMetrics(MongoOperations operations, MeterRegistry registry) {
+
+        this.operations = operations;
+        this.queryMapper = operations == null ? null : new QueryMapper(operations.getConverter());
+        this.latency = Timer.builder("stores.search.location")
+            .description("Time taken by location searches")
+            .publishPercentileHistogram()
+            .withRegistry(registry);
+        this.regionLatency = Timer.builder("stores.search.location.region")
+            .description("Time taken by location searches by geohash region")
+            .withRegistry(registry);
+        this.results = DistributionSummary.builder("stores.search.location.results")
+            .description("Number of stores per page of a location search")
+            .publishPercentileHistogram()
+            .withRegistry(registry);
+        this.matches = DistributionSummary.builder("stores.search.location.matches")
+            .description("Number of stores matching a location search")
+            .publishPercentileHistogram()
+            .withRegistry(registry);
+        this.slow = Counter.builder("stores.search.location.slow")
+            .description("Number of location searches over the slow query threshold")
+            .withRegistry(registry);
+        this.indexMisses = Counter.builder("stores.search.index.misses")
+            .description("Number of queries rejected by MongoDB for lack of a geospatial index")
+            .register(registry);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts timing a location search.
+     *
+     * @param location
+     * @param distance may be {@literal null}.
+     * @param pageable
+     * @return
+     */
+    public Sample start(Point location, Distance distance, Pageable pageable) {
+        return new Sample(location, distance, pageable);
+    }
+
+    /**
+     * Counts a query rejected by MongoDB for lack of a geospatial index.
+     */
+    public void indexMissed() {
+        indexMisses.increment();
+    }
+
+    /**
+     * Returns the most recent slow searches, latest first.
+     *
+     * @return
+     */
+    public List<SlowQuery> findSlowQueries() {
+
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the upper bound of the distance bucket of the given {@link Distance}, like {@code 10km}, {@code planar}
+     * for distances on the plane and {@code unbounded} for none.
+     *
+     * @param distance
+     * @return
+     */
+    static String distanceBucket(Distance distance) {
+
+        if (distance == null) {
+            return "unbounded";
+        }
+        if (Metrics.NEUTRAL.equals(distance.getMetric())) {
+            return "planar";
+        }
+
+        double kilometers = distance.getNormalizedValue() * EARTH_RADIUS_KM;
+        for (double bucket : DISTANCE_BUCKETS_KM) {
+            if (kilometers <= bucket) {
+                return (int) bucket + "km";
+            }
+        }
+
+        return "more";
+    }
+
+    /**
+     * Returns the upper bound of the page size bucket of the given {@link Pageable}, {@code unpaged} for none.
+     *
+     * @param pageable
+     * @return
+     */
+    static String pageSizeBucket(Pageable pageable) {
+
+        if (pageable.isUnpaged()) {
+            return "unpaged";
+        }
+
+        for (int bucket : PAGE_SIZE_BUCKETS) {
+            if (pageable.getPageSize() <= bucket) {
+                return String.valueOf(bucket);
+            }
+        }
+
+        return "more";
+    }
+
+    private void slow(Sample sample, long nanos) {
+
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), TimeUnit.NANOSECONDS.toMillis(nanos), sample.location,
+                                            sample.distance == null ? null : sample.distance.toString(),
+                                            sample.pageable.isPaged() ? sample.pageable.getPageSize() : null,
+                                            sample.source.tag());
+        synchronized (slowQueries) {
+            slowQueries.addFirst(slowQuery);
+            while (slowQueries.size() > slowQueryCapacity) {
+                slowQueries.removeLast();
+            }
+        }
+
+        long now = System.nanoTime();
+        long next = nextExplain.get();
+        Query query = sample.query;
+        List<MongoOperations> targets = List.copyOf(sample.targets);
+        if (query == null || targets.isEmpty() || queryMapper == null || now - next < 0
+            || !nextExplain.compareAndSet(next, now + explainInterval.toNanos())) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> explain(slowQuery, query, targets));
+        } catch (RejectedExecutionException e) {
+            log.debug("Not explaining a slow store query while shutting down.");
+        }
+    }
+
+    private void explain(SlowQuery slowQuery, Query query, List<MongoOperations> targets) {
+
+        try {
+            MongoPersistentEntity<?> entity = operations.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Store.class);
+            Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+            Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+            List<Document> explains = new ArrayList<>(targets.size());
+            for (MongoOperations target : targets) {
+                explains.add(target.execute(Store.class, collection -> {
+                    FindIterable<Document> find = collection.find(filter).sort(sort).skip((int) query.getSkip());
+                    if (query.getLimit() > 0) {
+                        find.limit(query.getLimit());
+                    }
+                    return find.explain(ExplainVerbosity.EXECUTION_STATS);
+                }));
+            }
+
+            // a search served by several partitions is explained on each of them
+            Document explain = explains.size() == 1 ? explains.get(0) : new Document("partitions", explains);
+            slowQuery.setExplain(explain);
+
+            List<String> stats = new ArrayList<>(explains.size());
+            for (Document it : explains) {
+                Document executionStats = it.get("executionStats", Document.class);
+                stats.add(executionStats == null ? null : executionStats.toJson());
+            }
+            log.warn("Slow store query ({} ms, page size {} near {} within {}): {}, execution stats: {}",
+                     slowQuery.getMillis(), slowQuery.getPageSize(), slowQuery.getLocation(), slowQuery.getDistance(),
+                     filter.toJson(), stats.size() == 1 ? stats.get(0) : stats);
+        } catch (RuntimeException e) {
+            log.warn("Failed to explain a slow store query.", e);
+        }
+    }
+
+    /**
+     * A location search being timed.
+     */
+    public final class Sample {
+
+        private final long start = System.nanoTime();
+        private final Point location;
+        private final Distance distance;
+        private final Pageable pageable;
+        private final List<MongoOperations> targets = new CopyOnWriteArrayList<>();
+        private Source source = Source.CACHE;
+        private Query query;
+
+        private Sample(Point location, Distance distance, Pageable pageable) {
+            this.location = location;
+            this.distance = distance;
+            this.pageable = pageable;
+        }
+
+        /**
+         * Records that the page is served by the in-memory location index.
+         */
+        public void fromIndex() {
+            source = Source.INDEX;
+        }
+
+        /**
+         * Records that the page is served by the given MongoDB query run on the given database, which is explained
+         * there if the search turns out slow. A query run on several partitions is recorded once per partition.
+         *
+         * @param query
+         * @param target the primary database or a partition.
+         */
+        public void fromMongo(Query query, MongoOperations target) {
+            this.source = Source.MONGO;
+            this.query = query;
+            this.targets.add(target);
+        }
+
+        /**
+         * Stops timing the search and records its result.
+         *
+         * @param page
+         * @return the given page.
+         */
+        public Page<Store> stop(Page<Store> page) {
+
+            long nanos = System.nanoTime() - start;
+            String distanceBucket = distanceBucket(distance);
+            Tags tags = Tags.of("distance", distanceBucket, "page.size", pageSizeBucket(pageable),
+                                "source", source.tag());
+
+            record(tags, "success", nanos);
+            results.withTags(tags).record(page.getNumberOfElements());
+            matches.withTags("distance", distanceBucket).record(page.getTotalElements());
+
+            if (nanos > slowQueryThreshold.toNanos()) {
+                slow.withTags(tags).increment();
+                slow(this, nanos);
+            }
+
+            return page;
+        }
+
+        /**
+         * Stops timing a search that failed with the given exception and records its latency.
+         *
+         * @param e
+         * @return the given exception.
+         */
+        public RuntimeException stop(RuntimeException e) {
+
+            record(Tags.of("distance", distanceBucket(distance), "page.size", pageSizeBucket(pageable),
+                           "source", source.tag()), "error", System.nanoTime() - start);
+            return e;
+        }
+
+        private void record(Tags tags, String outcome, long nanos) {
+
+            latency.withTags(tags.and("outcome", outcome)).record(nanos, TimeUnit.NANOSECONDS);
+            if (location != null) {
+                regionLatency.withTags("region", GeoHash.encode(location, 1), "source", source.tag(),
+                                       "outcome", outcome)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * A slow location search, with the explain output of its MongoDB query once it has been explained.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class SlowQuery {
+
+        private final Instant timestamp;
+        private final long millis;
+        private final Point location;
+        private final String distance;
+        private final Integer pageSize;
+        private final String source;
+
+        @Setter(AccessLevel.PRIVATE)
+        private volatile Document explain;
+    }
+}
@@ -0,0 +1,212 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+import org.springframework.data.geo.Point;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Versioned, columnar binary snapshot of {@link Store}s to warm the in-memory geo structures without MongoDB. After a
+ * header of magic number, format version and store count, the longitudes and latitudes follow as two arrays of doubles
+ * ({@code NaN} for stores without a location), then each text attribute as a column of byte lengths ({@code -1} for
+ * {@literal null}) followed by the UTF-8 bytes of all values. Snapshots are read through a memory mapping and the
+ * coordinate columns are copied out in bulk.
+ *
+ * @author Rohtash Lakra
+ */
+public final class StoreSnapshot {
+
+    private static final int MAGIC = 0x53545253; // "STRS"
+    private static final int VERSION = 1;
+    private static final String FEATURE_SEPARATOR = "\u001F";
+
+    private static final List<Column> COLUMNS = List.of(
+        new Column(Store::getId, Store::setId),
+        new Column(Store::getStoreNumber, Store::setStoreNumber),
+        new Column(Store::getFacilityId, Store::setFacilityId),
+        new Column(store -> store.getFeatures() == null ? null : String.join(FEATURE_SEPARATOR, store.getFeatures()),
+                   (store, value) -> store.setFeatures(splitFeatures(value))),
+        new Column(Store::getOwnershipType, Store::setOwnershipType),
+        new Column(Store::getVenueType, Store::setVenueType),
+        new Column(Store::getCatalogHash, Store::setCatalogHash));
+
+    private StoreSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the given {@link Store}s to the given file. The snapshot is written next to it first and
+     * then moved into place, so that concurrent readers see either the previous or the new snapshot.
+     *
+     * @param stores
+     * @param file
+     * @throws IOException
+     */
+    public static void write(Collection<Store> stores, Path file) throws IOException {
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(stores.size());
+
+                for (Store store : stores) {
+                    Point location = locationOf(store);
+                    output.writeDouble(location == null ? Double.NaN : location.getX());
+                }
+                for (Store store : stores) {
+                    Point location = locationOf(store);
+                    output.writeDouble(location == null ? Double.NaN : location.getY());
+                }
+
+                writeColumn(output, stores, Store::getName);
+                writeColumn(output, stores, store -> store.getAddress() == null ? null : store.getAddress().getStreet());
+                writeColumn(output, stores, store -> store.getAddress() == null ? null : store.getAddress().getCity());
+                writeColumn(output, stores, store -> store.getAddress() == null ? null : store.getAddress().getZip());
+                for (Column column : COLUMNS) {
+                    writeColumn(output, stores, column.getter);
+                }
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads the {@link Store}s of the snapshot in the given file.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     * @throws IllegalArgumentException if the file is no snapshot or one of an unsupported version.
+     */
+    public static List<Store> read(Path file) throws IOException {
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a store snapshot: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported store snapshot version " + version + ": " + file);
+        }
+
+        int count = buffer.getInt();
+        double[] longitudes = new double[count];
+        double[] latitudes = new double[count];
+        buffer.asDoubleBuffer().get(longitudes);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        buffer.asDoubleBuffer().get(latitudes);
+        buffer.position(buffer.position() + count * Double.BYTES);
+
+        String[] names = readColumn(buffer, count);
+        String[] streets = readColumn(buffer, count);
+        String[] cities = readColumn(buffer, count);
+        String[] zips = readColumn(buffer, count);
+
+        List<Store> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Point location = Double.isNaN(longitudes[i]) ? null : new Point(longitudes[i], latitudes[i]);
+            Address address = location == null && streets[i] == null && cities[i] == null && zips[i] == null
+                              ? null : new Address(streets[i], cities[i], zips[i], location);
+            stores.add(new Store(names[i], address));
+        }
+
+        for (Column column : COLUMNS) {
+            String[] values = readColumn(buffer, count);
+            for (int i = 0; i < count; i++) {
+                if (values[i] != null) {
+                    column.setter.accept(stores.get(i), values[i]);
+                }
+            }
+        }
+
+        return stores;
+    }
+
+    private static void writeColumn(DataOutputStream output, Collection<Store> stores,
+                                    Function<Store, String> getter) throws IOException {
+
+        List<byte[]> values = new ArrayList<>(stores.size());
+        for (Store store : stores) {
+            String value = getter.apply(store);
+            byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+            values.add(bytes);
+            output.writeInt(bytes == null ? -1 : bytes.length);
+        }
+
+        for (byte[] bytes : values) {
+            if (bytes != null) {
+                output.write(bytes);
+            }
+        }
+    }
+
+    private static String[] readColumn(ByteBuffer buffer, int count) {
+
+        int[] lengths = new int[count];
+        buffer.asIntBuffer().get(lengths);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+
+        String[] values = new String[count];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < count; i++) {
+            if (lengths[i] < 0) {
+                continue;
+            }
+            if (lengths[i] > bytes.length) {
+                bytes = new byte[lengths[i]];
+            }
+            buffer.get(bytes, 0, lengths[i]);
+            values[i] = new String(bytes, 0, lengths[i], StandardCharsets.UTF_8);
+        }
+
+        return values;
+    }
+
+    private static List<String> splitFeatures(String value) {
+        return value.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(value.split(FEATURE_SEPARATOR)));
+    }
+
+    private static Point locationOf(Store store) {
+        return store.getAddress() == null ? null : store.getAddress().getLocation();
+    }
+
+    private static final class Column {
+
+        private final Function<Store, String> getter;
+        private final BiConsumer<Store, String> setter;
+
+        Column(Function<Store, String> getter, BiConsumer<Store, String> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.rslakra.retailsuite.stores.partition;
+
+import com.rslakra.retailsuite.stores.geo.GeoHash;
+import com.rslakra.retailsuite.stores.geo.GeoMath;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assignment of the world to store partitions by geohash prefix. Each partition owns the cells of its geohash prefixes,
+ * where a longer prefix of another partition takes precedence over a shorter one, and at most one partition without
+ * prefixes owns everything else. Together the partitions have to cover the world, so that every location has exactly
+ * one owner.
+ *
+ * @author Rohtash Lakra
+ */
+public class StorePartitionLayout {
+
+    private final Map<String, String> owners = new HashMap<>(); // geohash prefix -> partition
+    private final Set<String> branches = new HashSet<>(); // proper prefixes of the geohash prefixes
+    private final String fallback;
+    private final int precision;
+
+    /**
+     * Creates a new {@link StorePartitionLayout} for the given geohash prefixes by partition name.
+     *
+     * @param geohashes
+     * @throws IllegalArgumentException if a prefix is invalid or assigned twice, several partitions have no prefixes or
+     *             the partitions leave part of the world uncovered.
+     */
+    public StorePartitionLayout(Map<String, List<String>> geohashes) {
+
+        String fallback = null;
+        int precision = 0;
+
+        for (Map.Entry<String, List<String>> partition : geohashes.entrySet()) {
+
+            List<String> prefixes = partition.getValue() == null ? List.of() : partition.getValue();
+            if (prefixes.isEmpty()) {
+                if (fallback != null) {
+                    throw new IllegalArgumentException(String.format(
+                        "Only one partition may go without geohashes, got: %s, %s", fallback, partition.getKey()));
+                }
+                fallback = partition.getKey();
+            }
+
+            for (String prefix : prefixes) {
+                String hash = prefix.trim().toLowerCase(Locale.ROOT);
+                if (hash.isEmpty()) {
+                    throw new IllegalArgumentException("Empty geohash of partition " + partition.getKey());
+                }
+                GeoHash.bounds(hash);
+
+                String previous = owners.put(hash, partition.getKey());
+                if (previous != null) {
+                    throw new IllegalArgumentException(String.format("Geohash %s is assigned to both %s and %s", hash,
+                                                                     previous, partition.getKey()));
+                }
+                for (int i = 0; i < hash.length(); i++) {
+                    branches.add(hash.substring(0, i));
+                }
+                precision = Math.max(precision, hash.length());
+            }
+        }
+
+        this.fallback = fallback;
+        this.precision = precision;
+
+        Set<String> all = new HashSet<>();
+        collect("", List.of(GeoHash.bounds("")), all);
+        if (all.contains(null)) {
+            throw new IllegalArgumentException(
+                "The geohashes of the partitions don't cover the world, add a partition without geohashes");
+        }
+    }
+
+    /**
+     * Returns the partition owning the given location.
+     *
+     * @param location
+     * @return the partition or {@literal null} if the location is {@literal null}.
+     */
+    public String ownerOf(Point location) {
+        return location == null ? null : ownerOf(GeoHash.encode(location, precision));
+    }
+
+    /**
+     * Returns the partitions owning part of the circle of the given radius around the given location. The circle is
+     * approximated by its bounding box, so a partition may be returned without holding a location within the circle.
+     *
+     * @param location
+     * @param radius the radius in radians on the sphere, or in degrees on the plane, {@code +Infinity} for the world.
+     * @param spherical whether the radius is measured on the sphere.
+     * @return
+     */
+    public Set<String> overlapping(Point location, double radius, boolean spherical) {
+
+        Set<String> partitions = new LinkedHashSet<>();
+        collect("", bounds(location, radius, spherical), partitions);
+
+        return partitions;
+    }
+
+    /**
+     * Returns the partition owning the cell of the given geohash, or {@literal null} if none does.
+     */
+    private String ownerOf(String hash) {
+
+        for (int length = Math.min(precision, hash.length()); length > 0; length--) {
+            String owner = owners.get(hash.substring(0, length));
+            if (owner != null) {
+                return owner;
+            }
+        }
+
+        return fallback;
+    }
+
+    /**
+     * Adds the owners of the cells within the given cell overlapping any of the given boxes, descending as long as
+     * partitions own parts of a cell only.
+     */
+    private void collect(String hash, List<Box> boxes, Set<String> partitions) {
+
+        Box cell = GeoHash.bounds(hash);
+        if (boxes.stream().noneMatch(box -> intersects(cell, box))) {
+            return;
+        }
+
+        if (!branches.contains(hash)) {
+            partitions.add(ownerOf(hash));
+            return;
+        }
+
+        for (int i = 0; i < GeoHash.ALPHABET.length(); i++) {
+            collect(hash + GeoHash.ALPHABET.charAt(i), boxes, partitions);
+        }
+    }
+
+    /**
+     * Returns the bounding box of the given circle, split in two if it crosses the antimeridian.
+     */
+    private static List<Box> bounds(Point location, double radius, boolean spherical) {
+
+        if (Double.isInfinite(radius)) {
+            return List.of(GeoHash.bounds(""));
+        }
+
+        double latitudeSpan = spherical ? Math.toDegrees(radius) : radius;
+        double longitudeSpan = spherical ? GeoMath.longitudeSpan(location.getY(), radius) : radius;
+
+        double south = Math.max(-90, location.getY() - latitudeSpan);
+        double north = Math.min(90, location.getY() + latitudeSpan);
+        double west = location.getX() - longitudeSpan;
+        double east = location.getX() + longitudeSpan;
+
+        List<Box> boxes = new ArrayList<>(2);
+        if (longitudeSpan >= 180) {
+            boxes.add(new Box(new Point(-180, south), new Point(180, north)));
+        } else if (west < -180) {
+            boxes.add(new Box(new Point(west + 360, south), new Point(180, north)));
+            boxes.add(new Box(new Point(-180, south), new Point(east, north)));
+        } else if (east > 180) {
+            boxes.add(new Box(new Point(west, south), new Point(180, north)));
+            boxes.add(new Box(new Point(-180, south), new Point(east - 360, north)));
+        } else {
+            boxes.add(new Box(new Point(west, south), new Point(east, north)));
+        }
+
+        return boxes;
+    }
+
+    private static boolean intersects(Box cell, Box box) {
+        return cell.getFirst().getX() <= box.getSecond().getX() && cell.getSecond().getX() >= box.getFirst().getX()
+               && cell.getFirst().getY() <= box.getSecond().getY() && cell.getSecond().getY() >= box.getFirst().getY();
+    }
+}
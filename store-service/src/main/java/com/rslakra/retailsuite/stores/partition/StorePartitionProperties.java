@@ -0,0 +1,65 @@
+package com.rslakra.retailsuite.stores.partition;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the MongoDB instances the stores are partitioned across by geohash prefix.
+ *
+ * @author Rohtash Lakra
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("stores.partitions")
+public class StorePartitionProperties {
+
+    /**
+     * The partitions, none to serve all location searches from the primary database.
+     */
+    private List<Partition> instances = new ArrayList<>();
+
+    /**
+     * Number of partitions queried concurrently.
+     */
+    private int parallelism = 8;
+
+    /**
+     * Number of stores written per bulk insert when copying the stores into the partitions.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * How long to wait for further bulk writes before copying the stores into the partitions again.
+     */
+    private long syncDelayMillis = 2000;
+
+    /**
+     * A MongoDB instance holding the stores of some geohash cells.
+     */
+    @Getter
+    @Setter
+    public static class Partition {
+
+        /**
+         * Name of the partition, used in logs and metrics.
+         */
+        private String name;
+
+        /**
+         * Connection string of the partition, including the database.
+         */
+        private String uri;
+
+        /**
+         * Geohash prefixes of the cells whose stores the partition holds, none for all stores not held by another
+         * partition.
+         */
+        private List<String> geohashes = new ArrayList<>();
+    }
+}
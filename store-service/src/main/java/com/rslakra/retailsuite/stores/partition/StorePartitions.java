@@ -0,0 +1,378 @@
+package com.rslakra.retailsuite.stores.partition;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreIndexes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Serves location searches from several MongoDB instances, each holding the {@link Store}s of the geohash cells
+ * assigned to it by the {@link StorePartitionLayout}. A search only goes to the partitions its search circle overlaps,
+ * concurrently, and the caller merges their results by distance.
+ * <p>
+ * The partitions are read replicas split by region, not shards: the primary database stays the system of record and
+ * takes all writes, and the partitions are derived from it. Once the application is ready, the stores are copied into
+ * their partitions; afterwards, stores saved through the mapping layer, including those of bulk writes, are routed to
+ * the partition owning their location, and deleted stores are removed from all partitions, by id where the delete or
+ * the caller names them. Writes the partitions cannot follow, like bulk imports, {@link #invalidate()} them, which
+ * copies the stores again in the background. Each copy is written next to the live collection and swapped in by a
+ * rename. Until the first copy has completed, {@link #queryNear} returns {@literal null} and callers
+ * are expected to query the primary database instead.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+public class StorePartitions extends AbstractMongoEventListener<Store> {
+
+    private static final String LOCATION = "address.location";
+
+    private final MongoOperations operations;
+    private final MongoConverter converter;
+    private final StorePartitionProperties properties;
+    private final Map<String, MongoTemplate> partitions = new LinkedHashMap<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+    private final Object lock = new Object();
+
+    private StorePartitionLayout layout;
+    private ExecutorService executor;
+    private ScheduledExecutorService syncExecutor;
+    private boolean syncScheduled; // guarded by lock
+    private List<Runnable> pending; // modifications seen during a copy, guarded by lock
+    private volatile boolean synced;
+
+    @Autowired
+    public StorePartitions(MongoOperations operations, MongoConverter converter, StorePartitionProperties properties) {
+        this.operations = operations;
+        this.converter = converter;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void initialize() {
+
+        if (properties.getInstances().isEmpty()) {
+            return;
+        }
+
+        Map<String, List<String>> geohashes = new LinkedHashMap<>();
+        for (StorePartitionProperties.Partition partition : properties.getInstances()) {
+            if (!StringUtils.hasText(partition.getName()) || !StringUtils.hasText(partition.getUri())) {
+                throw new IllegalArgumentException("Store partitions need a name and a uri");
+            }
+            if (geohashes.put(partition.getName(), partition.getGeohashes()) != null) {
+                throw new IllegalArgumentException("Duplicate store partition " + partition.getName());
+            }
+        }
+        layout = new StorePartitionLayout(geohashes);
+
+        for (StorePartitionProperties.Partition partition : properties.getInstances()) {
+            ConnectionString uri = new ConnectionString(partition.getUri());
+            if (uri.getDatabase() == null) {
+                throw new IllegalArgumentException("The uri of store partition " + partition.getName()
+                                                   + " lacks the database");
+            }
+
+            MongoClient client = MongoClients.create(uri);
+            clients.add(client);
+            partitions.put(partition.getName(),
+                           new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, uri.getDatabase()), converter));
+        }
+
+        executor = Executors.newFixedThreadPool(properties.getParallelism(),
+                                                Thread.ofPlatform().name("store-partitions-", 0).daemon().factory());
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("store-partitions-sync").daemon().factory());
+
+        log.info("Partitioning stores across {}.", partitions.keySet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        invalidate();
+    }
+
+    /**
+     * Returns whether the stores are partitioned and location searches can be served from the partitions.
+     *
+     * @return
+     */
+    public boolean isReady() {
+        return layout != null && synced;
+    }
+
+    /**
+     * Returns the names of the partitions.
+     *
+     * @return
+     */
+    public Set<String> getNames() {
+        return partitions.keySet();
+    }
+
+    /**
+     * Runs the given query on each partition holding stores within the given {@link Distance} of the given location,
+     * concurrently.
+     *
+     * @param location
+     * @param distance may be {@literal null} for no limit.
+     * @param query
+     * @return the results of the partitions or {@literal null} if the query has to go to the primary database.
+     */
+    public <T> List<T> queryNear(Point location, Distance distance, Function<MongoOperations, T> query) {
+
+        if (!isReady() || location == null) {
+            return null;
+        }
+
+        double radius = distance == null ? Double.POSITIVE_INFINITY : distance.getNormalizedValue();
+        boolean spherical = distance == null || !Metrics.NEUTRAL.equals(distance.getMetric());
+        List<MongoTemplate> selected = new ArrayList<>();
+        for (String name : layout.overlapping(location, radius, spherical)) {
+            selected.add(partitions.get(name));
+        }
+
+        if (selected.size() == 1) {
+            return List.of(query.apply(selected.get(0)));
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(selected.size());
+        for (MongoTemplate partition : selected) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(partition), executor));
+        }
+
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(it -> it.cancel(true));
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        return results;
+    }
+
+    /**
+     * Schedules copying the stores into their partitions again, e.g. after stores were written without going through
+     * the mapping layer.
+     */
+    public void invalidate() {
+
+        synchronized (lock) {
+            if (layout != null && !syncScheduled) {
+                syncScheduled = true;
+                syncExecutor.schedule(this::sync, synced ? properties.getSyncDelayMillis() : 0, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Removes the stores with the given ids from the partitions, e.g. after they were deleted in a bulk write, which
+     * publishes no events to follow.
+     *
+     * @param ids
+     */
+    public void remove(Collection<String> ids) {
+
+        if (layout == null || ids.isEmpty()) {
+            return;
+        }
+
+        List<String> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += properties.getChunkSize()) {
+            Query byIds = Query.query(Criteria.where("id").in(all.subList(from,
+                Math.min(from + properties.getChunkSize(), all.size()))));
+            apply(() -> partitions.values().forEach(partition -> partition.remove(byIds, Store.class)));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterSave(org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent)
+     */
+    @Override
+    public void onAfterSave(AfterSaveEvent<Store> event) {
+
+        Store store = event.getSource();
+        if (layout != null && store.getId() != null) {
+            apply(() -> route(store));
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterDelete(org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent)
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Store> event) {
+
+        if (layout == null) {
+            return;
+        }
+
+        // deletes of single stores select them by id only, anything else may have deleted any number of stores
+        Document document = event.getDocument();
+        Object id = document == null || document.size() != 1 ? null : document.get("_id");
+        if (id == null || id instanceof Document) {
+            invalidate();
+            return;
+        }
+
+        Query byId = Query.query(Criteria.where("_id").is(id));
+        apply(() -> partitions.values().forEach(partition -> partition.remove(byId, Store.class)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        if (executor != null) {
+            executor.shutdownNow();
+            syncExecutor.shutdownNow();
+        }
+        clients.forEach(MongoClient::close);
+    }
+
+    private void apply(Runnable modification) {
+
+        synchronized (lock) {
+            try {
+                modification.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to write a store to its partition, copying all stores again.", e);
+                invalidate();
+                return;
+            }
+            if (pending != null) {
+                pending.add(modification);
+            }
+        }
+    }
+
+    /**
+     * Writes the given store to the partition owning its location and removes it from the others, in case it moved.
+     */
+    private void route(Store store) {
+
+        String owner = layout.ownerOf(store.getAddress() == null ? null : store.getAddress().getLocation());
+        Query byId = Query.query(Criteria.where("id").is(store.getId()));
+
+        partitions.forEach((name, partition) -> {
+            if (name.equals(owner)) {
+                partition.save(store);
+            } else {
+                partition.remove(byId, Store.class);
+            }
+        });
+    }
+
+    /**
+     * Copies the stores into their partitions and swaps the copies in, replaying the modifications made meanwhile.
+     */
+    void sync() {
+
+        synchronized (lock) {
+            syncScheduled = false;
+            pending = new ArrayList<>();
+        }
+
+        String collection = operations.getCollectionName(Store.class);
+        String copy = collection + ".sync";
+
+        try {
+            long start = System.nanoTime();
+            for (MongoTemplate partition : partitions.values()) {
+                partition.dropCollection(copy);
+                partition.indexOps(copy).ensureIndex(StoreIndexes.location());
+            }
+
+            Map<String, List<Store>> chunks = new HashMap<>();
+            long copied = 0;
+            try (Stream<Store> stores = operations.stream(new Query(Criteria.where(LOCATION).ne(null)), Store.class)) {
+                for (Store store : (Iterable<Store>) stores::iterator) {
+                    String owner = layout.ownerOf(store.getAddress().getLocation());
+                    List<Store> chunk = chunks.computeIfAbsent(owner, it -> new ArrayList<>(properties.getChunkSize()));
+                    chunk.add(store);
+                    if (chunk.size() == properties.getChunkSize()) {
+                        insert(owner, copy, chunk);
+                    }
+                    copied++;
+                }
+            }
+            chunks.forEach((owner, chunk) -> insert(owner, copy, chunk));
+
+            // writes keep going to the live collection while it is swapped, and are replayed on the copy below
+            for (MongoTemplate partition : partitions.values()) {
+                partition.getCollection(copy).renameCollection(
+                    new MongoNamespace(partition.getDb().getName(), collection),
+                    new RenameCollectionOptions().dropTarget(true));
+            }
+
+            synchronized (lock) {
+                // replay what was saved or deleted meanwhile, the copy may or may not have seen it, before any later
+                // modification can overtake it
+                pending.forEach(Runnable::run);
+                synced = true;
+            }
+
+            log.info("Copied {} stores into partitions {} in {} ms.", copied, partitions.keySet(),
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("Failed to copy the stores into their partitions.", e);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+        }
+    }
+
+    private void insert(String owner, String collection, List<Store> chunk) {
+
+        if (!chunk.isEmpty()) {
+            partitions.get(owner).bulkOps(BulkMode.UNORDERED, Store.class, collection).insert(chunk).execute();
+            chunk.clear();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.rslakra.retailsuite.stores.typeahead;
+
+import com.rslakra.retailsuite.stores.Store;
+import lombok.Value;
+import org.springframework.data.geo.Point;
+
+/**
+ * A {@link Store} matching a typeahead query: its id, the attributes searched and its location, along with its distance
+ * in kilometers to the location the query was ranked by, if any.
+ *
+ * @author Rohtash Lakra
+ */
+@Value
+public class StoreSuggestion {
+
+    private final String id;
+    private final String name;
+    private final String city;
+    private final String zip;
+    private final Point location;
+    private final Double distance;
+}
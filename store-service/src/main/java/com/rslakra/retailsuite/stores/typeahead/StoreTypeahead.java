@@ -0,0 +1,237 @@
+package com.rslakra.retailsuite.stores.typeahead;
+
+import com.rslakra.retailsuite.stores.Store;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Maintains a {@link StoreTypeaheadIndex} over all {@link Store}s in MongoDB to answer typeahead queries without
+ * querying MongoDB per keystroke. The index is built once the application is ready and then kept up to date store by
+ * store as stores are saved or deleted through the mapping layer. Writes without a mapping event per store, like bulk
+ * updates and deletes by query, {@link #invalidate()} the index, which rebuilds it in the background and keeps serving
+ * the previous one meanwhile. Bulk inserts do publish a save event per store, so imports and syncs wrap their writes
+ * in {@link #beginBulkWrite()} and {@link #endBulkWrite()} to skip the per-store updates the following rebuild makes
+ * redundant.
+ * <p>
+ * The index holds the name and address of every store, so it is off unless enabled.
+ *
+ * @author Rohtash Lakra
+ */
+@Slf4j
+@Component
+@ConfigurationProperties("stores.typeahead")
+public class StoreTypeahead extends AbstractMongoEventListener<Store> {
+
+    private final MongoOperations operations;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicInteger bulkWrites = new AtomicInteger();
+    private final Object lock = new Object();
+
+    private volatile StoreTypeaheadIndex index;
+    private List<Consumer<StoreTypeaheadIndex>> pending; // modifications seen during a rebuild, guarded by lock
+
+    /**
+     * Whether to maintain the typeahead index.
+     */
+    @Getter
+    @Setter
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of suggestions per query.
+     */
+    @Getter
+    @Setter
+    private int maxLimit = 20;
+
+    /**
+     * How long to wait for further bulk writes before rebuilding the index.
+     */
+    @Getter
+    @Setter
+    private long rebuildDelayMillis = 2000;
+
+    @Autowired
+    public StoreTypeahead(MongoOperations operations) {
+        this.operations = operations;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-typeahead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Returns whether the index has been built.
+     *
+     * @return
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Returns up to {@code limit} stores whose name, city or zip code words start with the words of the given query,
+     * ranked by distance to the given location if any.
+     *
+     * @param query
+     * @param limit
+     * @param near may be {@literal null}.
+     * @return
+     * @throws IllegalArgumentException if the limit is out of bounds.
+     * @throws IllegalStateException if the index is disabled or not built yet.
+     */
+    public List<StoreSuggestion> suggest(String query, int limit, Point near) {
+
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException(
+                String.format("Limit must be between 1 and %d, got: %d", maxLimit, limit));
+        }
+
+        StoreTypeaheadIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("The store typeahead index is " + (enabled ? "not built yet" : "disabled"));
+        }
+
+        return current.find(query, limit, near);
+    }
+
+    /**
+     * Schedules a rebuild of the index, e.g. after stores were written without going through the mapping layer.
+     */
+    public void invalidate() {
+        if (enabled && rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::rebuild, rebuildDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops updating the index store by store until {@link #endBulkWrite()}, for writes followed by an
+     * {@link #invalidate()} anyway.
+     */
+    public void beginBulkWrite() {
+        bulkWrites.incrementAndGet();
+    }
+
+    /**
+     * Ends a bulk write started by {@link #beginBulkWrite()}.
+     */
+    public void endBulkWrite() {
+        bulkWrites.decrementAndGet();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterSave(org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent)
+     */
+    @Override
+    public void onAfterSave(AfterSaveEvent<Store> event) {
+
+        Store store = event.getSource();
+        apply(index -> index.put(store));
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener#onAfterDelete(org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent)
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Store> event) {
+
+        // deletes of single stores select them by id only, anything else may have deleted any number of stores
+        Document document = event.getDocument();
+        Object id = document == null || document.size() != 1 ? null : document.get("_id");
+        if (id == null || id instanceof Document) {
+            invalidate();
+            return;
+        }
+
+        String storeId = id.toString();
+        apply(index -> index.remove(storeId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void apply(Consumer<StoreTypeaheadIndex> modification) {
+
+        // the rebuild following the bulk write reads the modification from MongoDB
+        if (bulkWrites.get() > 0) {
+            return;
+        }
+
+        synchronized (lock) {
+            if (index != null) {
+                modification.accept(index);
+            }
+            if (pending != null) {
+                pending.add(modification);
+            }
+        }
+    }
+
+    private void rebuild() {
+
+        rebuildScheduled.set(false);
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+
+        try {
+            long start = System.nanoTime();
+            Query query = new Query();
+            query.fields().include("name", "address");
+            List<Store> stores = new ArrayList<>();
+            operations.stream(query, Store.class).forEach(stores::add);
+            StoreTypeaheadIndex rebuilt = new StoreTypeaheadIndex(stores);
+
+            // replay what was saved or deleted meanwhile, the stream may or may not have seen it
+            synchronized (lock) {
+                pending.forEach(modification -> modification.accept(rebuilt));
+                index = rebuilt;
+            }
+
+            log.info("Indexed {} stores for typeahead in {} ms.", rebuilt.size(),
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("Failed to build the store typeahead index.", e);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.rslakra.retailsuite.stores.typeahead;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.geo.GeoMath;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over the words of the name, city and zip code of {@link Store}s. Words are normalized to
+ * lower case without diacritics and kept in a trie whose nodes list the stores having the word ending there, so that the
+ * stores matching a prefix are those listed in the subtree of the prefix node. A query matches a store if each of its
+ * words is the prefix of one of the store's words. Each node keeps the locations of its stores as unit vectors in a
+ * primitive array next to them, so that ranking the matches of a prefix by distance scans arrays of doubles and only
+ * the closest stores are looked at. Stores are added, replaced and removed one at a time as they change, and queries
+ * may run concurrently with those modifications.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreTypeaheadIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Candidate> FARTHEST_FIRST =
+        Comparator.comparingDouble((Candidate candidate) -> candidate.chord).reversed();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Creates a new {@link StoreTypeaheadIndex} for the given {@link Store}s.
+     *
+     * @param stores
+     */
+    public StoreTypeaheadIndex(Iterable<Store> stores) {
+        for (Store store : stores) {
+            put(store);
+        }
+    }
+
+    /**
+     * Adds the given {@link Store} or replaces the one with the same id. Stores without an id are ignored.
+     *
+     * @param store
+     */
+    public void put(Store store) {
+
+        if (store.getId() == null) {
+            return;
+        }
+
+        Entry entry = new Entry(store);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(entry.id, entry);
+            if (previous != null) {
+                unlink(previous);
+            }
+            for (String word : entry.words) {
+                root.insert(word, 0, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the {@link Store} with the given id, if any.
+     *
+     * @param id
+     */
+    public void remove(String id) {
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed stores.
+     *
+     * @return
+     */
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} stores matching the given query. Without a location, stores with a word equal to the
+     * query come first, followed by the others in the order of their matching words. With a location, the closest
+     * matching stores are returned, nearest first, along with their distances in kilometers; stores without a location
+     * come last.
+     *
+     * @param query
+     * @param limit
+     * @param near may be {@literal null}.
+     * @return
+     */
+    public List<StoreSuggestion> find(String query, int limit, Point near) {
+
+        List<String> prefixes = words(query);
+        if (prefixes.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+
+        // walk the trie for the longest prefix, which has the fewest stores, and check the others per store
+        String longest = Collections.max(prefixes, Comparator.comparingInt(String::length));
+        List<String> others = new ArrayList<>(prefixes);
+        others.remove(longest);
+
+        lock.readLock().lock();
+        try {
+            Node node = root.find(longest);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            return near == null ? collectInOrder(node, others, limit) : collectNearest(node, others, limit, near);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the normalized words of the given text.
+     *
+     * @param text may be {@literal null}.
+     * @return
+     */
+    static List<String> words(String text) {
+
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+
+        return words;
+    }
+
+    private List<StoreSuggestion> collectInOrder(Node node, List<String> others, int limit) {
+
+        List<Entry> matches = new ArrayList<>(limit);
+        node.visit(entry -> {
+            // a store having several words with the prefix is visited once per word
+            if (entry.matches(others) && !matches.contains(entry)) {
+                matches.add(entry);
+            }
+            return matches.size() < limit;
+        });
+
+        List<StoreSuggestion> suggestions = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            suggestions.add(entry.toSuggestion(null));
+        }
+
+        return suggestions;
+    }
+
+    private List<StoreSuggestion> collectNearest(Node node, List<String> others, int limit, Point near) {
+
+        PriorityQueue<Candidate> farthest = new PriorityQueue<>(limit + 1, FARTHEST_FIRST);
+        rank(node, unitVector(near), others, limit, farthest);
+
+        List<Candidate> candidates = new ArrayList<>(farthest);
+        candidates.sort(FARTHEST_FIRST.reversed());
+
+        List<StoreSuggestion> suggestions = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            Point location = candidate.entry.location;
+            Double kilometers = location == null
+                                ? null : GeoMath.angularDistance(near, location) * Metrics.KILOMETERS.getMultiplier();
+            suggestions.add(candidate.entry.toSuggestion(kilometers));
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Keeps the {@code limit} entries of the given subtree closest to the given unit vector in the given queue. The
+     * squared chord between two unit vectors grows with their angle, so it ranks the entries like their distance.
+     */
+    private static void rank(Node node, double[] center, List<String> others, int limit,
+                             PriorityQueue<Candidate> farthest) {
+
+        double[] vectors = node.vectors;
+        for (int i = 0, j = 0; i < node.size; i++, j += 3) {
+
+            double dx = vectors[j] - center[0];
+            double dy = vectors[j + 1] - center[1];
+            double dz = vectors[j + 2] - center[2];
+            double chord = dx * dx + dy * dy + dz * dz;
+            if (farthest.size() == limit && chord >= farthest.peek().chord) {
+                continue;
+            }
+
+            Entry entry = node.entries[i];
+            if (entry.matches(others) && !containsEntry(farthest, entry)) {
+                farthest.add(new Candidate(entry, chord));
+                if (farthest.size() > limit) {
+                    farthest.poll();
+                }
+            }
+        }
+
+        for (Node child : node.children) {
+            rank(child, center, others, limit, farthest);
+        }
+    }
+
+    private static boolean containsEntry(PriorityQueue<Candidate> candidates, Entry entry) {
+
+        for (Candidate candidate : candidates) {
+            if (candidate.entry == entry) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void unlink(Entry entry) {
+        for (String word : entry.words) {
+            root.delete(word, 0, entry);
+        }
+    }
+
+    /**
+     * Returns the unit vector of the given location, or infinite components for none, which rank it last.
+     */
+    private static double[] unitVector(Point location) {
+
+        if (location == null) {
+            return new double[] { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+        }
+
+        double latitude = Math.toRadians(location.getY());
+        double longitude = Math.toRadians(location.getX());
+
+        return new double[] { Math.cos(latitude) * Math.cos(longitude), Math.cos(latitude) * Math.sin(longitude),
+                              Math.sin(latitude) };
+    }
+
+    /**
+     * A matching store and the squared chord between its location and the location searched for.
+     */
+    private static final class Candidate {
+
+        private final Entry entry;
+        private final double chord;
+
+        Candidate(Entry entry, double chord) {
+            this.entry = entry;
+            this.chord = chord;
+        }
+    }
+
+    /**
+     * Node of the trie: its children by character, sorted for binary search, and the stores having the word ending here
+     * along with the unit vectors of their locations.
+     */
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+        private static final double[] NO_VECTORS = new double[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] entries = NO_ENTRIES;
+        private double[] vectors = NO_VECTORS; // x, y, z of entries[i] at 3 * i
+        private int size;
+
+        Node find(String prefix) {
+
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int slot = Arrays.binarySearch(node.keys, prefix.charAt(i));
+                node = slot < 0 ? null : node.children[slot];
+            }
+
+            return node;
+        }
+
+        void insert(String word, int position, Entry entry) {
+
+            if (position == word.length()) {
+                if (size == entries.length) {
+                    entries = Arrays.copyOf(entries, Math.max(4, size * 2));
+                    vectors = Arrays.copyOf(vectors, entries.length * 3);
+                }
+                entries[size] = entry;
+                System.arraycopy(entry.vector, 0, vectors, size * 3, 3);
+                size++;
+                return;
+            }
+
+            char key = word.charAt(position);
+            int slot = Arrays.binarySearch(keys, key);
+            if (slot < 0) {
+                slot = -slot - 1;
+                keys = insertAt(keys, slot, key);
+                children = insertAt(children, slot, new Node());
+            }
+
+            children[slot].insert(word, position + 1, entry);
+        }
+
+        /**
+         * Removes the given entry from the word and returns whether this node has become empty.
+         */
+        boolean delete(String word, int position, Entry entry) {
+
+            if (position == word.length()) {
+                for (int i = 0; i < size; i++) {
+                    if (entries[i] == entry) {
+                        System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+                        System.arraycopy(vectors, (i + 1) * 3, vectors, i * 3, (size - i - 1) * 3);
+                        entries[--size] = null;
+                        break;
+                    }
+                }
+            } else {
+                int slot = Arrays.binarySearch(keys, word.charAt(position));
+                if (slot >= 0 && children[slot].delete(word, position + 1, entry)) {
+                    keys = removeAt(keys, slot);
+                    children = removeAt(children, slot);
+                }
+            }
+
+            return size == 0 && keys.length == 0;
+        }
+
+        /**
+         * Visits the entries of this subtree in the alphabetical order of their words, as long as the visitor returns
+         * {@literal true}.
+         */
+        boolean visit(Predicate<Entry> visitor) {
+
+            for (int i = 0; i < size; i++) {
+                if (!visitor.test(entries[i])) {
+                    return false;
+                }
+            }
+            for (Node child : children) {
+                if (!child.visit(visitor)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static char[] insertAt(char[] array, int index, char value) {
+
+            char[] copy = new char[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+
+            return copy;
+        }
+
+        private static Node[] insertAt(Node[] array, int index, Node value) {
+
+            Node[] copy = new Node[array.length + 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            copy[index] = value;
+            System.arraycopy(array, index, copy, index + 1, array.length - index);
+
+            return copy;
+        }
+
+        private static char[] removeAt(char[] array, int index) {
+
+            char[] copy = new char[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 1, copy, index, copy.length - index);
+
+            return copy;
+        }
+
+        private static Node[] removeAt(Node[] array, int index) {
+
+            if (array.length == 1) {
+                return NO_CHILDREN;
+            }
+
+            Node[] copy = Arrays.copyOf(array, array.length - 1);
+            System.arraycopy(array, index + 1, copy, index, copy.length - index);
+
+            return copy;
+        }
+    }
+
+    /**
+     * An indexed store: the attributes returned as suggestion, the unit vector of its location and its distinct words.
+     */
+    private static final class Entry {
+
+        private final String id;
+        private final String name;
+        private final String city;
+        private final String zip;
+        private final Point location;
+        private final double[] vector;
+        private final String[] words;
+
+        Entry(Store store) {
+
+            Address address = store.getAddress();
+            this.id = store.getId();
+            this.name = store.getName();
+            this.city = address == null ? null : address.getCity();
+            this.zip = address == null ? null : address.getZip();
+            this.location = address == null ? null : address.getLocation();
+            this.vector = unitVector(location);
+
+            Set<String> words = new LinkedHashSet<>(words(name));
+            words.addAll(words(city));
+            words.addAll(words(zip));
+            this.words = words.toArray(new String[0]);
+        }
+
+        boolean matches(List<String> prefixes) {
+
+            for (String prefix : prefixes) {
+                boolean found = false;
+                for (int i = 0; i < words.length && !found; i++) {
+                    found = words[i].startsWith(prefix);
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        StoreSuggestion toSuggestion(Double distance) {
+            return new StoreSuggestion(id, name, city, zip, location, distance);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.rslakra.retailsuite.stores;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NearbyStoreSearch}.
+ *
+ * @author Rohtash Lakra
+ */
+public class NearbyStoreSearchTests {
+
+	StoreRepository repository = mock(StoreRepository.class);
+	List<Runnable> queries = new ArrayList<>();
+	NearbyStoreSearch search;
+
+	@BeforeEach
+	public void setUp() {
+
+		when(repository.findNearest(any(Point.class), any(), anyInt())).thenAnswer(invocation -> {
+			Point point = invocation.getArgument(0);
+			Store store = new Store("Store at " + point.getY() + "," + point.getX(),
+					new Address("street", "city", "zip", point));
+			return new GeoResults<>(List.of(new GeoResult<>(store, new Distance(0, Metrics.KILOMETERS))));
+		});
+
+		search = new NearbyStoreSearch(repository, new PointConverter(), query -> {
+			queries.add(query);
+			query.run();
+		});
+		search.setMaxLocations(3);
+		search.setMaxLimit(5);
+	}
+
+	@Test
+	public void queriesIdenticalLocationsOnce() {
+
+		List<NearbyStores> result = search.findNearby(request(List.of("40.74,-73.99", "34.05,-118.24", "40.74,-73.99"),
+				2));
+
+		assertThat(result, hasSize(3));
+		assertThat(result.get(2).getStores(), is(result.get(0).getStores()));
+		assertThat(queries, hasSize(2));
+		verify(repository, times(1)).findNearest(eq(new Point(-73.99, 40.74)), any(), eq(2));
+		verify(repository, times(1)).findNearest(eq(new Point(-118.24, 34.05)), any(), eq(2));
+	}
+
+	@Test
+	public void returnsTheStoresInRequestOrder() {
+
+		List<NearbyStores> result = search.findNearby(request(List.of("40.74,-73.99", "34.05,-118.24", "41.88,-87.63"),
+				1));
+
+		assertThat(result.stream().map(NearbyStores::getLocation).toList(),
+				contains(new Point(-73.99, 40.74), new Point(-118.24, 34.05), new Point(-87.63, 41.88)));
+		assertThat(result.stream().map(it -> it.getStores().get(0).getStore().getName()).toList(),
+				contains("Store at 40.74,-73.99", "Store at 34.05,-118.24", "Store at 41.88,-87.63"));
+	}
+
+	@Test
+	public void rejectsTooManyLocations() {
+
+		assertThrows(IllegalArgumentException.class,
+				() -> search.findNearby(request(List.of("1,1", "2,2", "3,3", "4,4"), 1)));
+		verify(repository, never()).findNearest(any(Point.class), any(), anyInt());
+	}
+
+	@Test
+	public void rejectsMissingLocations() {
+
+		assertThrows(IllegalArgumentException.class, () -> search.findNearby(request(null, 1)));
+		assertThrows(IllegalArgumentException.class, () -> search.findNearby(request(List.of(), 1)));
+	}
+
+	@Test
+	public void rejectsLimitsOutOfRange() {
+
+		assertThrows(IllegalArgumentException.class, () -> search.findNearby(request(List.of("1,1"), 0)));
+		assertThrows(IllegalArgumentException.class, () -> search.findNearby(request(List.of("1,1"), 6)));
+		verify(repository, never()).findNearest(any(Point.class), any(), anyInt());
+	}
+
+	private static NearbyStoresRequest request(List<String> locations, int limit) {
+
+		NearbyStoresRequest request = new NearbyStoresRequest();
+		request.setLocations(locations);
+		request.setDistance("5km");
+		request.setLimit(limit);
+		return request;
+	}
+}
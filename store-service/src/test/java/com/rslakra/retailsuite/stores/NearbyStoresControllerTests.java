@@ -0,0 +1,127 @@
+package com.rslakra.retailsuite.stores;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import com.rslakra.retailsuite.stores.geo.StoreQueryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for {@link NearbyStoresController}.
+ *
+ * @author Rohtash Lakra
+ */
+public class NearbyStoresControllerTests {
+
+	StoreRepository repository = mock(StoreRepository.class);
+	MockMvc mvc;
+
+	@BeforeEach
+	public void setUp() {
+
+		Store chelsea = new Store("Chelsea", new Address("street", "New York", "10011", new Point(-74.004, 40.746)));
+		Store soho = new Store("Soho", new Address("street", "New York", "10012", new Point(-74.000, 40.723)));
+		when(repository.findNearest(any(Point.class), any(), any(StoreFilter.class), anyInt(), isNull()))
+				.thenReturn(new GeoResults<>(List.of(new GeoResult<>(chelsea, new Distance(0.5, Metrics.KILOMETERS)),
+						new GeoResult<>(soho, new Distance(2.1, Metrics.KILOMETERS)))));
+		when(repository.findNearest(any(Point.class), any(), anyInt())).thenReturn(
+				new GeoResults<>(List.of(new GeoResult<>(chelsea, new Distance(0.5, Metrics.KILOMETERS)))));
+
+		NearbyStoreSearch search = new NearbyStoreSearch(repository, new PointConverter(), Runnable::run);
+		search.setMaxLimit(10);
+		search.setMaxLocations(2);
+
+		mvc = MockMvcBuilders.standaloneSetup(new NearbyStoresController(search, new PointConverter()))
+				.setControllerAdvice(new GeospatialExceptionHandler(new StoreQueryMetrics(null, new SimpleMeterRegistry())))
+				.build();
+	}
+
+	@Test
+	public void findsTheNearestStoresPassingTheFilter() throws Exception {
+
+		mvc.perform(get("/stores/search/nearest").param("location", "40.74,-73.99").param("k", "2")
+				.param("distance", "5km").param("features", "Lunch", "Drive-Through").param("ownershipType", "Licensed"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].store.name", is("Chelsea")))
+				.andExpect(jsonPath("$[0].distance", is(0.5)))
+				.andExpect(jsonPath("$[1].store.name", is("Soho")));
+
+		verify(repository).findNearest(eq(new Point(-73.99, 40.74)), eq(new Distance(5, Metrics.KILOMETERS)),
+				eq(StoreFilter.of(List.of("Lunch", "Drive-Through"), "Licensed", null)), eq(2), isNull());
+	}
+
+	@Test
+	public void rejectsKOutOfRange() throws Exception {
+
+		mvc.perform(get("/stores/search/nearest").param("location", "40.74,-73.99").param("k", "11"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/stores/search/nearest").param("location", "40.74,-73.99").param("k", "0"))
+				.andExpect(status().isBadRequest());
+
+		verify(repository, never()).findNearest(any(Point.class), any(), any(StoreFilter.class), anyInt(), any());
+	}
+
+	@Test
+	public void rejectsInvalidLocations() throws Exception {
+
+		mvc.perform(get("/stores/search/nearest").param("location", "north"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void findsTheStoresNearManyLocations() throws Exception {
+
+		mvc.perform(post("/stores/search/by-locations").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"locations\": [\"40.74,-73.99\", \"34.05,-118.24\"], \"distance\": \"5km\", \"limit\": 1}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[1].location.x", is(-118.24)))
+				.andExpect(jsonPath("$[1].stores[0].store.name", is("Chelsea")));
+	}
+
+	@Test
+	public void rejectsTooManyLocations() throws Exception {
+
+		mvc.perform(post("/stores/search/by-locations").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"locations\": [\"1,1\", \"2,2\", \"3,3\"], \"limit\": 1}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void rejectsInvalidLocationsWithoutQueryingAny() throws Exception {
+
+		mvc.perform(post("/stores/search/by-locations").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"locations\": [\"40.74,-73.99\", \"north\"], \"limit\": 1}"))
+				.andExpect(status().isBadRequest());
+
+		verify(repository, never()).findNearest(any(Point.class), any(), anyInt());
+	}
+}
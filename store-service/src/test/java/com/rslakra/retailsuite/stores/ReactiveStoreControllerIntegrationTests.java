@@ -0,0 +1,141 @@
+package com.rslakra.retailsuite.stores;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Integration tests for {@link ReactiveStoreController} running with the {@code reactive} profile.
+ *
+ * @author Rohtash Lakra
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "stores.import.enabled=false")
+@ActiveProfiles(ReactiveStoreController.PROFILE)
+@AutoConfigureWebTestClient
+public class ReactiveStoreControllerIntegrationTests {
+
+	@Autowired ApplicationContext context;
+	@Autowired ReactiveStoreRepository repository;
+	@Autowired MongoTemplate mongoTemplate;
+	@Autowired WebTestClient client;
+	@Autowired MeterRegistry registry;
+
+	@BeforeEach
+	public void setUp() {
+		repository.deleteAll().block();
+		StoreIndexes.ensureLocation(mongoTemplate.indexOps(Store.class));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.deleteAll().block();
+	}
+
+	@Test
+	public void servesOnWebFlux() {
+
+		assertThat(context, is(instanceOf(ReactiveWebApplicationContext.class)));
+		assertThat(context.getBeanNamesForType(StoreSearchController.class).length, is(0));
+	}
+
+	@Test
+	public void findsStoresByLocation() {
+
+		repository.save(new Store("Foo", new Address("street", "city", "zip", new Point(-73.995146, 40.740337)))).block();
+		repository.save(new Store("Bar", new Address("street", "city", "zip", new Point(-74.172367, 40.735657)))).block();
+
+		client.get().uri("/stores/search/by-location?location=40.740337,-73.995146&distance=1km")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(1)
+				.jsonPath("$[0].name").isEqualTo("Foo");
+	}
+
+	@Test
+	public void rejectsLimitsOutOfRange() {
+
+		client.get().uri("/stores/search/nearest?location=40.740337,-73.995146&k=0")
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void streamsTheExportAsNdjson() {
+
+		repository.save(new Store("Foo", new Address("street", "city", "zip", new Point(-73.995146, 40.740337)))).block();
+		repository.save(new Store("Bar", new Address("street", "city", "zip", new Point(-74.172367, 40.735657)))).block();
+		double exported = registry.get("stores.export.stores").counter().count();
+
+		byte[] body = client.get().uri("/stores/export")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.expectBody().returnResult().getResponseBody();
+
+		String ndjson = new String(body, StandardCharsets.UTF_8);
+		assertThat(ndjson, endsWith("\n"));
+		List<String> lines = List.of(ndjson.split("\n"));
+		assertThat(lines, hasSize(2));
+		assertThat(lines.get(0).startsWith("{"), is(true));
+		assertThat(registry.get("stores.export.stores").counter().count() - exported, is(2.0));
+	}
+
+	@Test
+	public void rejectsInvalidIdsToResumeTheExportAfter() {
+
+		client.get().uri("/stores/export?after=not-an-id")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void linksToTheLocationSearchForHalClients() {
+
+		client.get().uri("/").accept(MediaTypes.HAL_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$._links.stores.href").value(href -> assertThat(href.toString().endsWith("/stores{?page,size}"), is(true)));
+
+		client.get().uri("/stores").accept(MediaTypes.HAL_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$._links.search.href").value(href -> assertThat(href.toString().endsWith("/stores/search"), is(true)));
+
+		client.get().uri("/stores/search").accept(MediaTypes.HAL_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$._links['by-location'].href")
+				.value(href -> assertThat(href.toString().endsWith("/stores/search/by-location{?location,distance,page,size}"), is(true)))
+				.jsonPath("$._links['by-location'].templated").isEqualTo(true);
+	}
+}
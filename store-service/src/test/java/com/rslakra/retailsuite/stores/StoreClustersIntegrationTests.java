@@ -0,0 +1,72 @@
+package com.rslakra.retailsuite.stores;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.geo.StoreCluster;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Integration tests for the map clusters and viewport stores answered by MongoDB, i.e. with the {@code $geoWithin}
+ * strips covering the viewport next to the coordinate ranges.
+ *
+ * @author Rohtash Lakra
+ */
+@SpringBootTest(properties = { "stores.import.enabled=false", "stores.index.enabled=false", "stores.map.precomputed=false" })
+public class StoreClustersIntegrationTests {
+
+	@Autowired StoreRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+
+		repository.deleteAll();
+		repository.saveAll(List.of(store("Chelsea", -73.995146, 40.740337), store("Soho", -74.000560, 40.723300),
+				store("Newark", -74.172367, 40.735657), store("Fiji", 179.999, -17.0), store("Samoa", -179.999, -17.0)));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	public void clustersAllStoresOfTheWorld() {
+		assertThat(count(repository.findClusters(new Box(new Point(-180, -90), new Point(180, 90)), 0)), is(5L));
+	}
+
+	@Test
+	public void clustersAcrossTheAntimeridian() {
+		assertThat(count(repository.findClusters(new Box(new Point(170, -20), new Point(-170, -10)), 6)), is(2L));
+	}
+
+	@Test
+	public void findsStoresAlongTheSouthernEdgeOfAWideViewport() {
+
+		// a geodesic from 170W to 170E along 40.7N passes far north of New York
+		Box bounds = new Box(new Point(-170, 40.7), new Point(170, 41));
+
+		assertThat(count(repository.findClusters(bounds, 2)), is(3L));
+		assertThat(repository.findWithin(bounds, 10).stream().map(Store::getName).toList(),
+				containsInAnyOrder("Chelsea", "Soho", "Newark"));
+	}
+
+	private static long count(List<StoreCluster> clusters) {
+		return clusters.stream().mapToLong(StoreCluster::getCount).sum();
+	}
+
+	private static Store store(String name, double longitude, double latitude) {
+		return new Store(name, new Address("street", "city", "zip", new Point(longitude, latitude)));
+	}
+}
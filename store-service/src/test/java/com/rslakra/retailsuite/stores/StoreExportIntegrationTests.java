@@ -0,0 +1,175 @@
+package com.rslakra.retailsuite.stores;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.geo.Point;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for {@link StoreExporter} and {@link StoreExportController}.
+ *
+ * @author Rohtash Lakra
+ */
+@SpringBootTest(properties = { "stores.import.enabled=false", "stores.export.batch-size=2" })
+@AutoConfigureMockMvc
+public class StoreExportIntegrationTests {
+
+	@Autowired StoreRepository repository;
+	@Autowired StoreExporter exporter;
+	@Autowired ObjectMapper mapper;
+	@Autowired MockMvc mvc;
+	@Autowired MeterRegistry registry;
+
+	List<Store> stores;
+
+	@BeforeEach
+	public void setUp() {
+		repository.deleteAll();
+		stores = new ArrayList<>();
+		repository.saveAll(List.of(
+				new Store("Chelsea", new Address("street", "New York", "10011", new Point(-74.004, 40.746))),
+				new Store("Soho", new Address("street", "New York", "10012", new Point(-74.000, 40.723))),
+				new Store("Zürich", new Address("street", "Zürich", "8001", new Point(8.540, 47.378)))))
+				.forEach(stores::add);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	public void exportsAllStoresOnePerLineInIdOrder() throws Exception {
+
+		List<String> lines = export(null);
+
+		assertThat(lines.size(), is(3));
+		assertThat(names(lines), contains("Chelsea", "Soho", "Zürich"));
+	}
+
+	@Test
+	public void resumesAfterTheGivenId() throws Exception {
+
+		List<String> lines = export(stores.get(0).getId());
+
+		assertThat(names(lines), contains("Soho", "Zürich"));
+		assertThat(export(stores.get(2).getId()).isEmpty(), is(true));
+	}
+
+	@Test
+	public void streamsTheExportOverHttp() throws Exception {
+
+		double exported = exportedStores();
+
+		MockHttpServletResponse response = mvc.perform(get("/stores/export").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+				.andReturn().getResponse();
+
+		assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING), is(nullValue()));
+		assertThat(names(lines(new ByteArrayInputStream(response.getContentAsByteArray()))),
+				contains("Chelsea", "Soho", "Zürich"));
+		assertThat(exportedStores() - exported, is(3.0));
+	}
+
+	@Test
+	public void gzipsTheExportForClientsAcceptingIt() throws Exception {
+
+		MockHttpServletResponse response = mvc.perform(get("/stores/export")
+						.param("after", stores.get(0).getId())
+						.accept(MediaType.APPLICATION_NDJSON)
+						.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andReturn().getResponse();
+
+		try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+			assertThat(names(lines(input)), contains("Soho", "Zürich"));
+		}
+	}
+
+	@Test
+	public void rejectsInvalidIdsToResumeAfter() throws Exception {
+
+		mvc.perform(get("/stores/export")
+						.param("after", "not-an-id")
+						.accept(MediaType.APPLICATION_NDJSON)
+						.header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(status().isBadRequest())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	public void negotiatesGzip() {
+
+		assertThat(StoreExportController.acceptsGzip("gzip, deflate, br"), is(true));
+		assertThat(StoreExportController.acceptsGzip("br;q=1.0, GZIP;q=0.5"), is(true));
+		assertThat(StoreExportController.acceptsGzip("gzip;q=0"), is(false));
+		assertThat(StoreExportController.acceptsGzip("identity"), is(false));
+		assertThat(StoreExportController.acceptsGzip(null), is(false));
+	}
+
+	private List<String> export(String after) throws Exception {
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		long count = exporter.export(after, output);
+
+		String ndjson = output.toString(StandardCharsets.UTF_8);
+		List<String> lines = ndjson.isEmpty() ? List.of() : List.of(ndjson.split("\n"));
+		assertThat((long) lines.size(), is(count));
+
+		return lines;
+	}
+
+	private double exportedStores() {
+		return registry.get("stores.export.stores").counter().count();
+	}
+
+	private static List<String> lines(InputStream input) throws Exception {
+
+		String ndjson = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		assertThat(ndjson.endsWith("\n"), is(true));
+
+		return List.of(ndjson.split("\n"));
+	}
+
+	private List<String> names(List<String> lines) throws Exception {
+
+		List<String> names = new ArrayList<>();
+		for (String line : lines) {
+			names.add(mapper.readTree(line).get("name").asText());
+		}
+
+		return names;
+	}
+}
@@ -0,0 +1,123 @@
+package com.rslakra.retailsuite.stores;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Integration tests for location searches with a {@link StoreFilter} answered by MongoDB, i.e. with the {@code $all}
+ * and equality predicates next to the geo query, on the keys of the compound {@link StoreIndexes#location()} index.
+ *
+ * @author Rohtash Lakra
+ */
+@SpringBootTest(properties = { "stores.import.enabled=false", "stores.index.enabled=false", "stores.cache.enabled=false" })
+public class StoreFilterIntegrationTests {
+
+	@Autowired StoreRepository repository;
+	@Autowired MongoTemplate mongoTemplate;
+
+	Point location = new Point(-73.995146, 40.740337);
+	Distance distance = new Distance(25, Metrics.KILOMETERS);
+
+	@BeforeEach
+	public void setUp() {
+
+		repository.deleteAll();
+		StoreIndexes.ensureLocation(mongoTemplate.indexOps(Store.class));
+
+		repository.saveAll(List.of(
+				store("Chelsea", -73.995, 40.741, List.of("Lunch", "Drive-Through"), "Company Owned", "Street"),
+				store("Soho", -74.000, 40.723, List.of("Lunch"), "Company Owned", "Street"),
+				store("JFK", -73.779, 40.641, List.of("Lunch", "Drive-Through"), "Licensed", "Airport"),
+				store("Newark", -74.172, 40.735, List.of(), "Licensed", "Street")));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	public void requiresAllFeatures() {
+
+		StoreFilter filter = StoreFilter.of(List.of("Lunch", "Drive-Through"), null, null);
+
+		assertThat(names(filter), contains("Chelsea", "JFK"));
+		assertThat(nearest(filter), contains("Chelsea", "JFK"));
+	}
+
+	@Test
+	public void matchesOwnershipAndVenueTypeExactly() {
+
+		assertThat(names(StoreFilter.of(null, "Licensed", null)), contains("Newark", "JFK"));
+		assertThat(names(StoreFilter.of(null, "Company Owned", "Street")), contains("Chelsea", "Soho"));
+		assertThat(nearest(StoreFilter.of(null, "Company", null)), is(empty()));
+	}
+
+	@Test
+	public void combinesFeaturesAndTypes() {
+
+		assertThat(names(StoreFilter.of(List.of("Lunch"), "Company Owned", "Street")), contains("Chelsea", "Soho"));
+		assertThat(nearest(StoreFilter.of(List.of("Drive-Through"), null, "Airport")), contains("JFK"));
+		assertThat(nearest(StoreFilter.of(List.of("Drive-Through"), "Licensed", "Street")), is(empty()));
+	}
+
+	@Test
+	public void replacesTheSingleFieldLocationIndex() {
+
+		IndexOperations indexOps = mongoTemplate.indexOps(Store.class);
+		indexOps.dropIndex(StoreIndexes.LOCATION_INDEX);
+		indexOps.ensureIndex(new GeospatialIndex("address.location").typed(GeoSpatialIndexType.GEO_2DSPHERE));
+
+		StoreIndexes.ensureLocation(indexOps);
+
+		List<String> names = indexOps.getIndexInfo().stream().map(IndexInfo::getName).toList();
+		assertThat(names, hasItem(StoreIndexes.LOCATION_INDEX));
+		assertThat(names, not(hasItem(StoreIndexes.SINGLE_FIELD_LOCATION_INDEX)));
+		assertThat(nearest(StoreFilter.of(List.of("Drive-Through"), null, "Airport")), contains("JFK"));
+	}
+
+	private List<String> names(StoreFilter filter) {
+		return repository.findByAddressLocationNear(location, distance, filter, PageRequest.of(0, 10)).getContent()
+				.stream().map(Store::getName).toList();
+	}
+
+	private List<String> nearest(StoreFilter filter) {
+		return repository.findNearest(location, distance, filter, 10, null).getContent().stream()
+				.map(GeoResult::getContent).map(Store::getName).toList();
+	}
+
+	private static Store store(String name, double longitude, double latitude, List<String> features,
+			String ownershipType, String venueType) {
+
+		Store store = new Store(name, new Address("street", "New York", "10011", new Point(longitude, latitude)));
+		store.setFeatures(features);
+		store.setOwnershipType(ownershipType);
+		store.setVenueType(venueType);
+		return store;
+	}
+}
@@ -7,17 +7,18 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.geo.Distance;
 import org.springframework.data.geo.Metrics;
 import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
-import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
 
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -25,19 +26,18 @@ import static org.hamcrest.MatcherAssert.assertThat;
  * 
  * @author Rohtash Lakra
  */
-@SpringBootTest
+@SpringBootTest(properties = "stores.import.enabled=false")
 public class StoreRepositoryIntegrationTests {
 
 	@Autowired StoreRepository repository;
 	@Autowired MongoTemplate mongoTemplate;
+	@Autowired ApplicationContext context;
 
 	@BeforeEach
 	public void setUp() {
 		repository.deleteAll();
 		// Ensure geospatial index exists for location queries
-		mongoTemplate.indexOps(Store.class).ensureIndex(
-			new GeospatialIndex("address.location").typed(GeoSpatialIndexType.GEO_2DSPHERE)
-		);
+		StoreIndexes.ensureLocation(mongoTemplate.indexOps(Store.class));
 	}
 
     @AfterEach
@@ -59,4 +59,9 @@ public class StoreRepositoryIntegrationTests {
 		assertThat(stores.getContent(), hasSize(1));
 		assertThat(stores.getContent(), hasItem(store));
 	}
+
+	@Test
+	public void doesNotCreateTheReactiveClientOutsideTheReactiveProfile() {
+		assertThat(context.getBeanNamesForType(ReactiveMongoOperations.class).length, is(0));
+	}
 }
@@ -0,0 +1,117 @@
+package com.rslakra.retailsuite.stores;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.rest.webmvc.BasePathAwareController;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.rslakra.retailsuite.stores.geo.StoreFilter;
+import com.rslakra.retailsuite.stores.geo.StoreQueryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for the filter parameters of {@link StoreSearchController} and {@link StoreScrollController}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreSearchControllerTests {
+
+	StoreRepository repository = mock(StoreRepository.class);
+	Store chelsea = new Store("Chelsea", new Address("street", "New York", "10011", new Point(-74.004, 40.746)));
+	MockMvc mvc;
+
+	@BeforeEach
+	public void setUp() {
+
+		when(repository.findSummariesByAddressLocationNear(any(Point.class), any(), any(StoreFilter.class),
+				any(Pageable.class))).thenReturn(new PageImpl<>(List.of(chelsea)));
+		when(repository.findNearest(any(Point.class), any(), any(StoreFilter.class), anyInt(), isNull()))
+				.thenReturn(new GeoResults<>(List.of(new GeoResult<>(chelsea, new Distance(0.5, Metrics.KILOMETERS)))));
+
+		NearbyStoreSearch search = new NearbyStoreSearch(repository, new PointConverter(), Runnable::run);
+		PointConverter pointConverter = new PointConverter();
+
+		mvc = MockMvcBuilders.standaloneSetup(new StoreSearchController(repository, pointConverter),
+						new StoreScrollController(search, pointConverter))
+				.setCustomHandlerMapping(RepositoryRestControllerMapping::new)
+				.setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+				.setMessageConverters(new StoreSummariesHttpMessageConverter(), new MappingJackson2HttpMessageConverter())
+				.setControllerAdvice(new GeospatialExceptionHandler(new StoreQueryMetrics(null, new SimpleMeterRegistry())))
+				.build();
+	}
+
+	@Test
+	public void searchesByLocationWithTheFilter() throws Exception {
+
+		mvc.perform(get("/stores/search/by-location").accept(StoreSummaries.JSON_VALUE)
+				.param("location", "40.74,-73.99").param("distance", "5km")
+				.param("features", "Lunch", "Drive-Through").param("ownershipType", "Licensed").param("venueType", "Airport"))
+				.andExpect(status().isOk());
+
+		verify(repository).findSummariesByAddressLocationNear(eq(new Point(-73.99, 40.74)),
+				eq(new Distance(5, Metrics.KILOMETERS)),
+				eq(StoreFilter.of(List.of("Lunch", "Drive-Through"), "Licensed", "Airport")), any(Pageable.class));
+	}
+
+	@Test
+	public void ignoresBlankFilterParameters() throws Exception {
+
+		mvc.perform(get("/stores/search/by-location").accept(StoreSummaries.JSON_VALUE)
+				.param("location", "40.74,-73.99").param("features", "").param("ownershipType", " "))
+				.andExpect(status().isOk());
+
+		verify(repository).findSummariesByAddressLocationNear(eq(new Point(-73.99, 40.74)), isNull(),
+				eq(StoreFilter.NONE), any(Pageable.class));
+	}
+
+	@Test
+	public void scrollsByLocationWithTheFilter() throws Exception {
+
+		mvc.perform(get("/stores/search/by-location-scroll").param("location", "40.74,-73.99").param("size", "5")
+				.param("features", "Lunch").param("venueType", "Airport"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].store.name", is("Chelsea")));
+
+		verify(repository).findNearest(eq(new Point(-73.99, 40.74)), isNull(),
+				eq(StoreFilter.of(List.of("Lunch"), null, "Airport")), eq(6), isNull());
+	}
+
+	/**
+	 * Maps the {@link org.springframework.data.rest.webmvc.RepositoryRestController}s, which aren't {@code @Controller}s
+	 * and are otherwise only mapped by Spring Data REST, next to the plain controllers.
+	 */
+	static class RepositoryRestControllerMapping extends RequestMappingHandlerMapping {
+
+		@Override
+		protected boolean isHandler(Class<?> beanType) {
+			return super.isHandler(beanType) || AnnotatedElementUtils.hasAnnotation(beanType, BasePathAwareController.class);
+		}
+	}
+}
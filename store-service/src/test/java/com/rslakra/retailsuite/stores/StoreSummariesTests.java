@@ -0,0 +1,117 @@
+package com.rslakra.retailsuite.stores;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link StoreSummaries}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreSummariesTests {
+
+	Point timesSquare = new Point(-73.985130, 40.758896);
+
+	@Test
+	public void summarizesStoresWithTheirDistances() {
+
+		StoreSummaries summaries = summaries();
+
+		assertThat(summaries.getCount(), is(2));
+		assertThat(summaries.getIds()[0], is("1"));
+		assertThat(summaries.getLatitudes()[0], is(40.7559));
+		assertThat(summaries.getLongitudes()[0], is(-73.9866));
+		assertThat(summaries.getDistances()[0], closeTo(0.36, 0.01));
+		assertThat(summaries.getUnit(), is("km"));
+		assertThat(Double.isNaN(summaries.getDistances()[1]), is(true));
+		assertThat(summaries.getTotalElements(), is(12L));
+		assertThat(summaries.getTotalPages(), is(6));
+		assertThat(summaries.getNumber(), is(1));
+	}
+
+	@Test
+	public void writesLeanJson() throws Exception {
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		summaries().writeJson(output);
+		String json = output.toString(StandardCharsets.UTF_8);
+
+		assertThat(json, containsString("{\"id\":\"1\",\"name\":\"Times Square\",\"lat\":40.7559,\"lon\":-73.9866,"
+				+ "\"distance\":0.3"));
+		assertThat(json, containsString("{\"id\":\"2\",\"name\":\"Café Zürich\",\"lat\":null,\"lon\":null,"
+				+ "\"distance\":null}"));
+		assertThat(json, containsString("\"page\":{\"size\":2,\"totalElements\":12,\"totalPages\":6,\"number\":1}"));
+	}
+
+	@Test
+	public void roundTripsTheBinaryEncoding() throws Exception {
+
+		StoreSummaries summaries = summaries();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		summaries.writeBinary(output);
+
+		StoreSummaries read = StoreSummaries.readBinary(new ByteArrayInputStream(output.toByteArray()));
+
+		assertThat(read.getIds(), is(summaries.getIds()));
+		assertThat(read.getNames(), is(summaries.getNames()));
+		assertThat(read.getLatitudes(), is(summaries.getLatitudes()));
+		assertThat(read.getLongitudes(), is(summaries.getLongitudes()));
+		assertThat(read.getDistances()[0], is(summaries.getDistances()[0]));
+		assertThat(read.getUnit(), is("km"));
+		assertThat(read.getTotalElements(), is(12L));
+		assertThat(read.getNumber(), is(1));
+		assertThat(output.size(), lessThan(150));
+	}
+
+	@Test
+	public void rejectsOtherBinaryInput() {
+		assertThrows(IllegalArgumentException.class,
+				() -> StoreSummaries.readBinary(new ByteArrayInputStream(new byte[] { 0, 0, 0, 1, 0, 0, 0, 1 })));
+	}
+
+	@Test
+	public void leavesOutDistancesWithoutALocation() {
+
+		StoreSummaries summaries = StoreSummaries.of(new PageImpl<>(List.of(store("1", "Times Square",
+				new Point(-73.9866, 40.7559)))), null, new Distance(1, Metrics.MILES));
+
+		assertThat(Double.isNaN(summaries.getDistances()[0]), is(true));
+		assertThat(summaries.getUnit(), is("mi"));
+		assertThat(summaries.getNames()[0], is("Times Square"));
+		assertThat(StoreSummaries.of(new PageImpl<>(List.of(store(null, null, null))), timesSquare, null)
+				.getIds()[0], is(nullValue()));
+	}
+
+	private StoreSummaries summaries() {
+
+		List<Store> stores = List.of(store("1", "Times Square", new Point(-73.9866, 40.7559)),
+				store("2", "Café Zürich", null));
+
+		return StoreSummaries.of(new PageImpl<>(stores, PageRequest.of(1, 2), 12), timesSquare, null);
+	}
+
+	private static Store store(String id, String name, Point location) {
+
+		Store store = new Store(name, new Address(null, null, null, location));
+		store.setId(id);
+		return store;
+	}
+}
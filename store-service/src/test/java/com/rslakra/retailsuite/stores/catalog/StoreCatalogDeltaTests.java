@@ -0,0 +1,110 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreFieldSetMapper;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreCatalogDelta}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogDeltaTests {
+
+	@Test
+	public void classifiesRowsAgainstStoredStores() {
+
+		Store unchanged = stored("1", "10", "Chelsea", -73.99, 40.74);
+		Store changed = stored("2", "20", "Soho", -74.0, 40.72);
+		Store gone = stored("3", "30", "Newark", -74.17, 40.73);
+		StoreCatalogDelta delta = new StoreCatalogDelta(Arrays.asList(unchanged, changed, gone));
+
+		assertThat(delta.classify(row("1", "10", "Chelsea", -73.99, 40.74)), is(StoreCatalogDelta.Change.UNCHANGED));
+		assertThat(delta.classify(row("2", "20", "Soho", -74.01, 40.72)), is(StoreCatalogDelta.Change.UPDATED));
+		assertThat(delta.classify(row("4", "40", "Hoboken", -74.03, 40.74)), is(StoreCatalogDelta.Change.INSERTED));
+
+		assertThat(delta.getStored(row("2", "20", "Soho", -74.01, 40.72)), is(changed));
+		assertThat(delta.getRemoved(), contains(gone));
+	}
+
+	@Test
+	public void matchesRowsByStoreNumberAndFacilityId() {
+
+		Store relocated = stored("1", "10", "Chelsea", -73.99, 40.74);
+		StoreCatalogDelta delta = new StoreCatalogDelta(List.of(relocated));
+
+		// the store number moved on to a new facility
+		assertThat(delta.classify(row("1", "11", "Chelsea", -73.98, 40.75)), is(StoreCatalogDelta.Change.INSERTED));
+		assertThat(delta.getRemoved(), contains(relocated));
+	}
+
+	@Test
+	public void skipsRepeatedRowsAndRemovesStoredDuplicates() {
+
+		Store first = stored("1", "10", "Chelsea", -73.99, 40.74);
+		Store duplicate = stored("1", "10", "Chelsea", -73.99, 40.74);
+		StoreCatalogDelta delta = new StoreCatalogDelta(Arrays.asList(first, duplicate));
+
+		assertThat(delta.classify(row("1", "10", "Chelsea", -73.99, 40.74)), is(StoreCatalogDelta.Change.UNCHANGED));
+		assertThat(delta.classify(row("1", "10", "Chelsea", -73.99, 40.74)), is(StoreCatalogDelta.Change.SKIPPED));
+		assertThat(delta.getRemoved(), contains(duplicate));
+	}
+
+	@Test
+	public void leavesStoresWithoutStoreNumberAlone() {
+
+		Store created = new Store("Pop-up", new Address("street", "city", "zip", new Point(0, 0)));
+		StoreCatalogDelta delta = new StoreCatalogDelta(List.of(created));
+
+		assertThat(delta.classify(new Store("Pop-up", created.getAddress())), is(StoreCatalogDelta.Change.SKIPPED));
+		assertThat(delta.getRemoved(), is(empty()));
+	}
+
+	@Test
+	public void hashesAllCatalogAttributes() {
+
+		Store store = row("1", "10", "Chelsea", -73.99, 40.74);
+		Store other = row("1", "10", "Chelsea", -73.99, 40.74);
+		assertThat(StoreFieldSetMapper.catalogHash(other), is(store.getCatalogHash()));
+
+		other.setFeatures(List.of("Drive-Through"));
+		assertThat(StoreFieldSetMapper.catalogHash(other), is(not(store.getCatalogHash())));
+
+		// moving text between columns changes the hash as well
+		Store shifted = new Store("Chelsea", new Address("street city", "", "zip", new Point(-73.99, 40.74)));
+		Store original = new Store("Chelsea", new Address("street", " city", "zip", new Point(-73.99, 40.74)));
+		assertThat(StoreFieldSetMapper.catalogHash(shifted), is(not(StoreFieldSetMapper.catalogHash(original))));
+	}
+
+	private static Store row(String storeNumber, String facilityId, String name, double longitude, double latitude) {
+
+		Store store = new Store(name, new Address("street", "city", "zip", new Point(longitude, latitude)));
+		store.setStoreNumber(storeNumber);
+		store.setFacilityId(facilityId);
+		store.setCatalogHash(StoreFieldSetMapper.catalogHash(store));
+
+		return store;
+	}
+
+	private static Store stored(String storeNumber, String facilityId, String name, double longitude,
+			double latitude) {
+
+		Store store = row(storeNumber, facilityId, name, longitude, latitude);
+		store.setId(storeNumber + "/" + facilityId + "/" + System.identityHashCode(store));
+
+		return store;
+	}
+}
@@ -0,0 +1,49 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link StoreCatalogLocations}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogLocationsTests {
+
+	StoreCatalogProperties properties = new StoreCatalogProperties();
+	StoreCatalogLocations locations = new StoreCatalogLocations(new DefaultResourceLoader(), properties);
+
+	@Test
+	public void acceptsTheConfiguredCatalog() {
+
+		assertThat(locations.check(null), is("classpath:starbucks.csv"));
+		assertThat(locations.check(""), is("classpath:starbucks.csv"));
+		assertThat(locations.check("classpath:starbucks.csv"), is("classpath:starbucks.csv"));
+	}
+
+	@Test
+	public void rejectsOtherLocationsByDefault() {
+
+		assertThrows(IllegalArgumentException.class, () -> locations.check("file:/etc/passwd"));
+		assertThrows(IllegalArgumentException.class, () -> locations.check("http://169.254.169.254/latest/meta-data"));
+	}
+
+	@Test
+	public void acceptsCatalogsWithinAllowedLocationsOnly() {
+
+		properties.setAllowedLocations(List.of("file:/data/catalogs"));
+
+		assertThat(locations.check("file:/data/catalogs/2024.csv"), is("file:/data/catalogs/2024.csv"));
+		assertThrows(IllegalArgumentException.class, () -> locations.check("file:/data/catalogs-old/2024.csv"));
+		assertThrows(IllegalArgumentException.class, () -> locations.check("file:/data/catalogs/../secrets.csv"));
+		assertThrows(IllegalArgumentException.class, () -> locations.check("file:/data/catalogs/%2e%2e/secrets.csv"));
+		assertThrows(IllegalArgumentException.class, () -> locations.check("http://localhost/data/catalogs/2024.csv"));
+	}
+}
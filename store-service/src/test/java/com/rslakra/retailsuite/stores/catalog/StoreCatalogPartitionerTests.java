@@ -0,0 +1,84 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreCatalogPartitioner}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogPartitionerTests {
+
+	static final String CATALOG = "Store Number,Name,Street Address\r\n"
+			+ "1,Café,\"5 Main\r\nSt\"\r\n"
+			+ "2,Soho,\"7 \"\"Spring\"\"\nSt\"\n"
+			+ "3,Chelsea,9 Broadway\n"
+			+ "4,Newark,1 Market St";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void opensFilesAtTheFirstRecordOfEveryPartition() throws IOException {
+
+		Path file = directory.resolve("catalog.csv");
+		Files.writeString(file, CATALOG);
+
+		assertPartitions(new FileSystemResource(file));
+	}
+
+	@Test
+	public void skipsOtherResourcesToTheFirstRecordOfEveryPartition() throws IOException {
+		assertPartitions(new ByteArrayResource(CATALOG.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void createsASinglePartitionForAnEmptyCatalog() {
+
+		Map<String, ExecutionContext> partitions = new StoreCatalogPartitioner(
+				new ByteArrayResource("Store Number,Name\n".getBytes(StandardCharsets.UTF_8))).partition(4);
+
+		assertThat(partitions.size(), is(1));
+		assertThat(partitions.get("partition0").getInt(StoreCatalogPartitioner.ITEM_COUNT), is(0));
+	}
+
+	private static void assertPartitions(Resource resource) throws IOException {
+
+		Map<String, ExecutionContext> partitions = new StoreCatalogPartitioner(resource).partition(2);
+
+		List<String> firstLines = new ArrayList<>();
+		List<Integer> itemCounts = new ArrayList<>();
+		for (ExecutionContext context : partitions.values()) {
+			try (InputStream stream = StoreCatalogPartitioner.open(resource,
+					context.getLong(StoreCatalogPartitioner.START_OFFSET));
+					BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+				firstLines.add(reader.readLine());
+			}
+			itemCounts.add(context.getInt(StoreCatalogPartitioner.ITEM_COUNT));
+		}
+
+		assertThat(firstLines, contains("1,Café,\"5 Main", "3,Chelsea,9 Broadway"));
+		assertThat(itemCounts, contains(2, 2));
+	}
+}
@@ -0,0 +1,75 @@
+
+package com.rslakra.retailsuite.stores.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.StoreInitializer;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreCatalogReader}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogReaderTests {
+
+	@Test
+	public void readsSameStoresAsFlatFileItemReader() throws Exception {
+
+		List<Store> stores = StoreCatalogReader.readAll(new ClassPathResource("starbucks.csv"));
+
+		assertThat(stores, is(StoreInitializer.readStores()));
+	}
+
+	@Test
+	public void handlesQuotedFieldsAndLineBreaks() throws Exception {
+
+		String catalog = "Store Number,Facility ID,Name,Street Address,City,Zip,Latitude,Longitude\r\n"
+				+ "1,2,\"Joe \"\"Cafe\"\", Inc\",\" 5 Main\r\nSt \",X,Y,1.5,-2e1\r\n\r\n"
+				+ "3,4,N,S,C,Z,+10,7";
+
+		try (StoreCatalogReader reader = new StoreCatalogReader(
+				ByteBuffer.wrap(catalog.getBytes(StandardCharsets.UTF_8)))) {
+
+			Store first = reader.read();
+			assertThat(first.getName(), is("Joe \"Cafe\", Inc"));
+			assertThat(first.getAddress().getStreet(), is("5 Main\r\nSt"));
+			assertThat(first.getAddress().getLocation(), is(new Point(-20, 1.5)));
+
+			Store second = reader.read();
+			assertThat(second.getStoreNumber(), is("3"));
+			assertThat(second.getAddress().getLocation(), is(new Point(7, 10)));
+
+			assertThat(reader.read(), is(nullValue()));
+		}
+	}
+
+	@Test
+	public void remapsRecordsCrossingTheMappingWindow() throws Exception {
+
+		ClassPathResource resource = new ClassPathResource("starbucks.csv");
+
+		try (StoreCatalogReader reader = new StoreCatalogReader(resource.getFile().toPath(), 4096)) {
+			List<Store> stores = new ArrayList<>();
+			for (Store store = reader.read(); store != null; store = reader.read()) {
+				stores.add(store);
+			}
+
+			assertThat(stores, hasSize(StoreInitializer.readStores().size()));
+			assertThat(stores, is(StoreCatalogReader.readAll(resource)));
+		}
+	}
+}
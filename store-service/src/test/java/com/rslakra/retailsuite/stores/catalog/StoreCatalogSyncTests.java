@@ -0,0 +1,29 @@
+package com.rslakra.retailsuite.stores.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.DefaultResourceLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the catalog locations {@link StoreCatalogSync} accepts.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreCatalogSyncTests {
+
+	StoreCatalogProperties properties = new StoreCatalogProperties();
+	StoreCatalogSync sync = new StoreCatalogSync(null, new DefaultResourceLoader(), properties,
+			new StoreCatalogLocations(new DefaultResourceLoader(), properties), null, null, null, null,
+			new SimpleMeterRegistry());
+
+	@Test
+	public void rejectsLocationsOutsideTheAllowedOnes() {
+
+		assertThrows(IllegalArgumentException.class, () -> sync.sync("file:/etc/passwd"));
+		assertThrows(IllegalArgumentException.class, () -> sync.sync("http://169.254.169.254/latest/meta-data"));
+	}
+}
@@ -0,0 +1,85 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link GeoCursor}.
+ *
+ * @author Rohtash Lakra
+ */
+public class GeoCursorTests {
+
+	Store chelsea = store("1", "Chelsea", -73.995146, 40.740337);
+	Store mall = store("2", "Mall", -74.000560, 40.723300);
+	Store kiosk = store("3", "Kiosk", -74.000560, 40.723300);
+	Store newark = store("4", "Newark", -74.172367, 40.735657);
+
+	StoreLocationIndex index = new StoreLocationIndex(Arrays.asList(newark, kiosk, mall, chelsea), 0.5);
+
+	@Test
+	public void scrollsThroughStoresAtTheSameDistance() {
+
+		Point location = chelsea.getAddress().getLocation();
+		List<Store> stores = new ArrayList<>();
+		GeoCursor cursor = null;
+
+		do {
+			GeoResults<Store> window = findNearest(location, cursor);
+			window.forEach(it -> stores.add(it.getContent()));
+			cursor = GeoCursor.after(window, cursor);
+		} while (cursor != null && stores.size() < 10);
+
+		assertThat(stores.get(0), is(chelsea));
+		assertThat(stores.subList(1, 3), containsInAnyOrder(mall, kiosk));
+		assertThat(stores.get(3), is(newark));
+		assertThat(stores.size(), is(4));
+	}
+
+	@Test
+	public void encodesAndDecodesCursor() {
+
+		GeoCursor cursor = new GeoCursor(0.0012, new LinkedHashSet<>(Arrays.asList("2", "3")));
+
+		assertThat(GeoCursor.decode(cursor.encode()), is(cursor));
+	}
+
+	private GeoResults<Store> findNearest(Point location, GeoCursor after) {
+
+		List<Neighbor> neighbors = after == null ? index.findNearest(location, 1, Double.POSITIVE_INFINITY)
+				: index.findNearest(location, 1, after.getDistance(), Double.POSITIVE_INFINITY, StoreFilter.NONE,
+						store -> !after.getIds().contains(store.getId()));
+
+		List<GeoResult<Store>> results = new ArrayList<>();
+		for (Neighbor neighbor : neighbors) {
+			results.add(new GeoResult<>(neighbor.getStore(), new Distance(
+					neighbor.getDistance() * Metrics.KILOMETERS.getMultiplier(), Metrics.KILOMETERS)));
+		}
+
+		return new GeoResults<>(results, Metrics.KILOMETERS);
+	}
+
+	private static Store store(String id, String name, double longitude, double latitude) {
+
+		Store store = new Store(name, new Address("street", "city", "zip", new Point(longitude, latitude)));
+		store.setId(id);
+		return store;
+	}
+}
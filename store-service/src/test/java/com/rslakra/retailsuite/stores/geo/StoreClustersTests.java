@@ -0,0 +1,88 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreClusters}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreClustersTests {
+
+	Store chelsea = store("Chelsea", -73.995146, 40.740337);
+	Store soho = store("Soho", -74.000560, 40.723300);
+	Store newark = store("Newark", -74.172367, 40.735657);
+	Store fiji = store("Fiji", 179.999, -17.0);
+	Store samoa = store("Samoa", -179.999, -17.0);
+
+	StoreClusters clusters = new StoreClusters(Arrays.asList(chelsea, soho, newark, fiji, samoa), new StoreMapProperties());
+
+	Box world = new Box(new Point(-180, -90), new Point(180, 90));
+
+	@Test
+	public void clustersAllStoresWhenZoomedOut() {
+
+		List<StoreCluster> found = clusters.find(world, 0);
+
+		assertThat(found.stream().mapToLong(StoreCluster::getCount).sum(), is(5L));
+	}
+
+	@Test
+	public void placesClustersAtTheCentroidOfTheirStores() {
+
+		List<StoreCluster> found = clusters.find(new Box(new Point(-75, 40), new Point(-73, 41)), 8);
+
+		assertThat(found, hasSize(1));
+		assertThat(found.get(0).getCount(), is(3L));
+		assertThat(found.get(0).getLatitude(), is(closeTo((40.740337 + 40.723300 + 40.735657) / 3, 1e-9)));
+	}
+
+	@Test
+	public void separatesStoresWhenZoomedIn() {
+
+		List<StoreCluster> found = clusters.find(new Box(new Point(-75, 40), new Point(-73, 41)), 12);
+
+		assertThat(found, hasSize(3));
+	}
+
+	@Test
+	public void findsOnlyTheCellsWithinTheBounds() {
+
+		List<StoreCluster> found = clusters.find(new Box(new Point(-74.1, 40.73), new Point(-73, 41)), 12);
+
+		assertThat(found, hasSize(2));
+		assertThat(found.stream().mapToDouble(StoreCluster::getLongitude).min().getAsDouble(), is(closeTo(-74.0, 0.01)));
+	}
+
+	@Test
+	public void findsClustersAcrossTheAntimeridian() {
+
+		List<StoreCluster> found = clusters.find(new Box(new Point(179, -18), new Point(-179, -16)), 10);
+
+		assertThat(found, hasSize(2));
+	}
+
+	@Test
+	public void findsNothingOutsideTheBounds() {
+		assertThat(clusters.find(new Box(new Point(0, 0), new Point(10, 10)), 5), is(empty()));
+	}
+
+	private static Store store(String name, double longitude, double latitude) {
+		return new Store(name, new Address("street", "city", "zip", new Point(longitude, latitude)));
+	}
+}
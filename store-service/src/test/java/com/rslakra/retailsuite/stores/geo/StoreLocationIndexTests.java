@@ -0,0 +1,171 @@
+
+package com.rslakra.retailsuite.stores.geo;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreLocationIndex}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreLocationIndexTests {
+
+	Store chelsea = store("Chelsea", -73.995146, 40.740337);
+	Store soho = store("Soho", -74.000560, 40.723300);
+	Store newark = store("Newark", -74.172367, 40.735657);
+	Store fiji = store("Fiji", 179.999, -17.0);
+	Store samoa = store("Samoa", -179.999, -17.0);
+
+	StoreLocationIndex index = new StoreLocationIndex(Arrays.asList(newark, soho, chelsea, fiji, samoa), 0.5);
+
+	@Test
+	public void findsStoresWithinRadiusOrderedByDistance() {
+
+		List<Neighbor> neighbors = index.findWithin(chelsea.getAddress().getLocation(), radians(5));
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(chelsea, soho));
+		assertThat(neighbors.get(0).getDistance(), is(0.0));
+	}
+
+	@Test
+	public void includesStoresAtTheEdgeOfLargerRadius() {
+
+		List<Neighbor> neighbors = index.findWithin(chelsea.getAddress().getLocation(), radians(20));
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(chelsea, soho, newark));
+	}
+
+	@Test
+	public void findsStoresAcrossTheAntimeridian() {
+
+		List<Neighbor> neighbors = index.findWithin(new Point(179.9, -17.0), radians(50));
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(fiji, samoa));
+	}
+
+	@Test
+	public void findsNearestStoresWithoutRadius() {
+
+		List<Neighbor> neighbors = index.findNearest(new Point(-74.1, 40.73), 2, Double.POSITIVE_INFINITY);
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(newark, soho));
+	}
+
+	@Test
+	public void findsNearestStoresFarAwayAndAcrossTheAntimeridian() {
+
+		List<Neighbor> neighbors = index.findNearest(new Point(179.0, -16.0), 3, Double.POSITIVE_INFINITY);
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(fiji, samoa, newark));
+	}
+
+	@Test
+	public void limitsNearestStoresToMaximumDistance() {
+
+		List<Neighbor> neighbors = index.findNearest(chelsea.getAddress().getLocation(), 5, radians(5));
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(chelsea, soho));
+	}
+
+	@Test
+	public void findsAllStoresWhenAskedForMore() {
+
+		List<Neighbor> neighbors = index.findNearest(chelsea.getAddress().getLocation(), 100, Double.POSITIVE_INFINITY);
+
+		assertThat(neighbors.stream().map(Neighbor::getStore).toList(), contains(chelsea, soho, newark, samoa, fiji));
+	}
+
+	@Test
+	public void findsAllMatchingStoresWhenAskedForMore() {
+
+		soho.setOwnershipType("Licensed");
+		fiji.setOwnershipType("Licensed");
+		StoreLocationIndex index = new StoreLocationIndex(Arrays.asList(newark, soho, chelsea, fiji, samoa), 0.5);
+
+		assertThat(index.findNearest(chelsea.getAddress().getLocation(), 10, 0, Double.POSITIVE_INFINITY,
+				StoreFilter.of(null, "Licensed", null), store -> true).stream().map(Neighbor::getStore).toList(),
+				contains(soho, fiji));
+	}
+
+	@Test
+	public void findsStoresWithAllRequiredFeatures() {
+
+		chelsea.setFeatures(Arrays.asList("Lunch", "Drive-Through"));
+		soho.setFeatures(Arrays.asList("Lunch"));
+		newark.setFeatures(Arrays.asList("Drive-Through", "Lunch", "Wireless Hotspot"));
+		StoreLocationIndex index = new StoreLocationIndex(Arrays.asList(newark, soho, chelsea, fiji, samoa), 0.5);
+
+		StoreFilter filter = StoreFilter.of(Arrays.asList("Drive-Through", "Lunch"), null, null);
+
+		assertThat(index.findWithin(chelsea.getAddress().getLocation(), radians(20), filter).stream()
+				.map(Neighbor::getStore).toList(), contains(chelsea, newark));
+		assertThat(index.findNearest(soho.getAddress().getLocation(), 1, 0, Double.POSITIVE_INFINITY, filter,
+				store -> true).stream().map(Neighbor::getStore).toList(), contains(chelsea));
+	}
+
+	@Test
+	public void findsStoresOfOwnershipAndVenueType() {
+
+		soho.setOwnershipType("Licensed");
+		newark.setOwnershipType("Licensed");
+		newark.setVenueType("Airport");
+		chelsea.setOwnershipType("Company Owned");
+		StoreLocationIndex index = new StoreLocationIndex(Arrays.asList(newark, soho, chelsea, fiji, samoa), 0.5);
+
+		assertThat(index.findWithin(chelsea.getAddress().getLocation(), radians(20),
+				StoreFilter.of(null, "Licensed", null)).stream().map(Neighbor::getStore).toList(),
+				contains(soho, newark));
+		assertThat(index.findNearest(chelsea.getAddress().getLocation(), 5, 0, Double.POSITIVE_INFINITY,
+				StoreFilter.of(null, "Licensed", "Airport"), store -> true).stream().map(Neighbor::getStore).toList(),
+				contains(newark));
+	}
+
+	@Test
+	public void findsNothingForUnknownAttributes() {
+
+		StoreFilter filter = StoreFilter.of(Arrays.asList("Drive-Through"), null, null);
+
+		assertThat(index.findWithin(chelsea.getAddress().getLocation(), radians(20), filter), is(empty()));
+		assertThat(index.findNearest(chelsea.getAddress().getLocation(), 5, 0, Double.POSITIVE_INFINITY, filter,
+				store -> true), is(empty()));
+	}
+
+	@Test
+	public void findsStoresWithFineGrainedCells() {
+
+		StoreLocationIndex index = new StoreLocationIndex(Arrays.asList(newark, soho, chelsea, fiji, samoa), 0.0001);
+
+		assertThat(index.findWithin(chelsea.getAddress().getLocation(), radians(5)).stream().map(Neighbor::getStore)
+				.toList(), contains(chelsea, soho));
+		assertThat(index.findNearest(new Point(-74.1, 40.73), 1, radians(10)).stream().map(Neighbor::getStore)
+				.toList(), contains(newark));
+	}
+
+	@Test
+	public void returnsNothingFarAwayFromStores() {
+		assertThat(index.findWithin(new Point(0, 0), radians(100)), is(empty()));
+	}
+
+	private static double radians(double kilometers) {
+		return new Distance(kilometers, Metrics.KILOMETERS).getNormalizedValue();
+	}
+
+	private static Store store(String name, double longitude, double latitude) {
+		return new Store(name, new Address("street", "city", "zip", new Point(longitude, latitude)));
+	}
+}
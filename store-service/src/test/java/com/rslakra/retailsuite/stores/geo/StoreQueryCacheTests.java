@@ -0,0 +1,214 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreQueryCache}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreQueryCacheTests {
+
+	// snapped to the cell center (-73.985, 40.755), about 430m south of it
+	Point timesSquare = new Point(-73.985130, 40.758896);
+	Point center = new Point(-73.985, 40.755);
+	Distance distance = new Distance(1, Metrics.KILOMETERS);
+
+	// about 950m north of Times Square, but 1.4km from the cell center
+	Store north = store("1", "North", -73.985130, 40.767400);
+	// about 890m south of the cell center, but 1.3km from Times Square
+	Store south = store("2", "South", -73.985, 40.747);
+	Store near = store("3", "Near", -73.985130, 40.759000);
+	List<Store> stores = List.of(north, south, near);
+
+	StoreQueryCache cache = new StoreQueryCache(new SimpleMeterRegistry());
+	AtomicInteger queries = new AtomicInteger();
+	List<String> fetched = new ArrayList<>();
+
+	@BeforeEach
+	public void setUp() {
+		cache.setEnabled(true);
+		cache.initialize();
+	}
+
+	@Test
+	public void sharesEntriesBetweenLocationsInTheSameCell() {
+
+		query(timesSquare);
+		query(new Point(timesSquare.getX() + 0.001, timesSquare.getY() - 0.001));
+
+		assertThat(queries.get(), is(1));
+	}
+
+	@Test
+	public void findsStoresWithinTheDistanceOfTheQueryPointButNotOfTheCellCenter() {
+
+		query(center);
+
+		assertThat(query(timesSquare).getContent(), contains(near, north));
+		assertThat(queries.get(), is(1));
+	}
+
+	@Test
+	public void dropsStoresWithinTheDistanceOfTheCellCenterButNotOfTheQueryPoint() {
+
+		assertThat(query(timesSquare).getContent(), contains(near, north));
+		assertThat(query(center).getContent(), contains(near, south));
+		assertThat(queries.get(), is(1));
+	}
+
+	@Test
+	public void cutsPagesOrderedByDistanceFromTheQueryPoint() {
+
+		Page<Store> page = cache.get(timesSquare, distance, StoreFilter.NONE, PageRequest.of(1, 1), this::search,
+				this::fetch);
+
+		assertThat(page.getContent(), contains(north));
+		assertThat(page.getTotalElements(), is(2L));
+	}
+
+	@Test
+	public void fetchesOnlyTheStoresOfThePage() {
+
+		cache.get(timesSquare, distance, StoreFilter.NONE, PageRequest.of(1, 1), this::search, this::fetch);
+		assertThat(fetched, contains(north.getId()));
+
+		fetched.clear();
+		cache.get(timesSquare, distance, StoreFilter.NONE, PageRequest.of(2, 1), this::search, this::fetch);
+		assertThat(fetched, is(empty()));
+	}
+
+	@Test
+	public void leavesSearchesFindingMoreThanAnEntryHoldsToTheDatabase() {
+
+		cache.setMaximumEntrySize(2);
+
+		assertThat(query(timesSquare).getContent(), contains(near, north));
+		assertThat(query(timesSquare).getContent(), contains(near, north));
+
+		// the capped load finding too many stores, then each search on its own
+		assertThat(queries.get(), is(3));
+		assertThat(fetched, is(empty()));
+	}
+
+	@Test
+	public void evictsEntriesCoveringModifiedLocations() {
+
+		query(timesSquare);
+		cache.invalidate(List.of(new Point(-73.985, 40.76)));
+		query(timesSquare);
+
+		assertThat(queries.get(), is(2));
+	}
+
+	@Test
+	public void keepsEntriesNotCoveringModifiedLocations() {
+
+		query(timesSquare);
+		cache.invalidate(List.of(new Point(-74.172367, 40.735657)));
+		query(timesSquare);
+
+		assertThat(queries.get(), is(1));
+	}
+
+	@Test
+	public void evictsEntriesHoldingStoresMovedAway() {
+
+		query(timesSquare);
+		Store moved = store(north.getId(), north.getName(), -74.172367, 40.735657);
+		cache.onAfterSave(new AfterSaveEvent<>(moved, new Document(), "store"));
+		query(timesSquare);
+
+		assertThat(queries.get(), is(2));
+	}
+
+	@Test
+	public void evictsEntriesCoveringStoresMovedIn() {
+
+		query(timesSquare);
+		cache.onAfterSave(new AfterSaveEvent<>(store("4", "New", -73.985, 40.756), new Document(), "store"));
+		query(timesSquare);
+
+		assertThat(queries.get(), is(2));
+	}
+
+	@Test
+	public void evictsEntriesHoldingDeletedStores() {
+
+		query(timesSquare);
+		cache.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "4"), Store.class, "store"));
+		query(timesSquare);
+
+		assertThat(queries.get(), is(1));
+
+		cache.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", south.getId()), Store.class, "store"));
+		query(timesSquare);
+
+		assertThat(queries.get(), is(2));
+	}
+
+	private Page<Store> query(Point location) {
+		return cache.get(location, distance, StoreFilter.NONE, PageRequest.of(0, 20), this::search, this::fetch);
+	}
+
+	/**
+	 * Finds the {@link #stores} within the given distance of the given location, closest first.
+	 */
+	private Page<Store> search(Point location, Distance distance, Pageable pageable) {
+
+		queries.incrementAndGet();
+		return new PageImpl<>(stores.stream()
+				.filter(store -> angularDistance(location, store) <= distance.getNormalizedValue())
+				.sorted(Comparator.comparingDouble(store -> angularDistance(location, store)))
+				.limit(pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Long.MAX_VALUE)
+				.skip(pageable.isPaged() ? pageable.getOffset() : 0)
+				.toList());
+	}
+
+	/**
+	 * Loads the {@link #stores} with the given ids, in reverse order.
+	 */
+	private List<Store> fetch(List<String> ids) {
+
+		fetched.addAll(ids);
+		return stores.stream().filter(store -> ids.contains(store.getId())).toList().reversed();
+	}
+
+	private static double angularDistance(Point location, Store store) {
+		return GeoMath.angularDistance(location, store.getAddress().getLocation());
+	}
+
+	private static Store store(String id, String name, double longitude, double latitude) {
+
+		Store store = new Store(name, new Address("street", "city", "zip", new Point(longitude, latitude)));
+		store.setId(id);
+		return store;
+	}
+}
@@ -0,0 +1,178 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.rslakra.retailsuite.stores.Store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link StoreQueryMetrics}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreQueryMetricsTests {
+
+	Point timesSquare = new Point(-73.985130, 40.758896);
+
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	StoreQueryMetrics metrics = new StoreQueryMetrics(null, registry);
+
+	@Test
+	public void bucketsDistancesAndPageSizes() {
+
+		assertThat(StoreQueryMetrics.distanceBucket(null), is("unbounded"));
+		assertThat(StoreQueryMetrics.distanceBucket(new Distance(0.5, Metrics.NEUTRAL)), is("planar"));
+		assertThat(StoreQueryMetrics.distanceBucket(new Distance(1, Metrics.KILOMETERS)), is("1km"));
+		assertThat(StoreQueryMetrics.distanceBucket(new Distance(10, Metrics.MILES)), is("50km"));
+		assertThat(StoreQueryMetrics.distanceBucket(new Distance(5000, Metrics.KILOMETERS)), is("more"));
+
+		assertThat(StoreQueryMetrics.pageSizeBucket(Pageable.unpaged()), is("unpaged"));
+		assertThat(StoreQueryMetrics.pageSizeBucket(PageRequest.of(3, 20)), is("20"));
+		assertThat(StoreQueryMetrics.pageSizeBucket(PageRequest.of(0, 21)), is("50"));
+		assertThat(StoreQueryMetrics.pageSizeBucket(PageRequest.of(0, 500)), is("more"));
+	}
+
+	@Test
+	public void recordsLatencyAndResultsByQueryShape() {
+
+		StoreQueryMetrics.Sample sample = metrics.start(timesSquare, new Distance(3, Metrics.KILOMETERS),
+				PageRequest.of(0, 20));
+		sample.fromIndex();
+		sample.stop(page(2, 7));
+
+		assertThat(registry.get("stores.search.location").tags("distance", "5km", "page.size", "20", "source", "index",
+				"outcome", "success").timer().count(), is(1L));
+		assertThat(registry.get("stores.search.location.region").tags("region", "d", "source", "index", "outcome",
+				"success").timer().count(), is(1L));
+		assertThat(registry.get("stores.search.location.results").tags("distance", "5km").summary().totalAmount(),
+				is(2.0));
+		assertThat(registry.get("stores.search.location.matches").tags("distance", "5km").summary().totalAmount(),
+				is(7.0));
+		assertThat(registry.find("stores.search.location.slow").counter(), is(nullValue()));
+		assertThat(metrics.findSlowQueries(), is(empty()));
+	}
+
+	@Test
+	public void keepsTheMostRecentSlowQueries() {
+
+		metrics.setSlowQueryThreshold(Duration.ZERO);
+		metrics.setSlowQueryCapacity(2);
+
+		for (int i = 0; i < 3; i++) {
+			StoreQueryMetrics.Sample sample = metrics.start(timesSquare, null, PageRequest.of(i, 10));
+			sample.fromMongo(new Query(), mock(MongoOperations.class));
+			sample.stop(page(0, 0));
+		}
+
+		List<StoreQueryMetrics.SlowQuery> slowQueries = metrics.findSlowQueries();
+		assertThat(slowQueries, hasSize(2));
+		assertThat(slowQueries.get(0).getSource(), is("mongo"));
+		assertThat(registry.get("stores.search.location.slow").tags("distance", "unbounded").counter().count(),
+				is(3.0));
+	}
+
+	@Test
+	public void recordsTheLatencyOfFailedSearches() {
+
+		StoreQueryMetrics.Sample sample = metrics.start(timesSquare, new Distance(3, Metrics.KILOMETERS),
+				PageRequest.of(0, 20));
+		sample.fromMongo(new Query(), mock(MongoOperations.class));
+		RuntimeException e = new IllegalStateException("Partition unavailable");
+
+		assertThat(sample.stop(e), is(sameInstance(e)));
+		assertThat(registry.get("stores.search.location").tags("source", "mongo", "outcome", "error").timer().count(),
+				is(1L));
+		assertThat(registry.get("stores.search.location.region").tags("outcome", "error").timer().count(), is(1L));
+		assertThat(registry.find("stores.search.location.results").summary(), is(nullValue()));
+	}
+
+	@Test
+	public void explainsSlowQueriesWhereTheyRan() {
+
+		MongoOperations primary = mock(MongoOperations.class);
+		when(primary.getConverter())
+				.thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+		MongoOperations americas = partition();
+		MongoOperations europe = partition();
+
+		StoreQueryMetrics metrics = new StoreQueryMetrics(primary, registry);
+		metrics.setSlowQueryThreshold(Duration.ZERO);
+		metrics.setExplainInterval(Duration.ZERO);
+
+		try {
+			StoreQueryMetrics.Sample sample = metrics.start(timesSquare, null, PageRequest.of(0, 10));
+			Query query = new Query(Criteria.where("name").is("Times Square"));
+			sample.fromMongo(query, americas);
+			sample.fromMongo(query, europe);
+			sample.stop(page(0, 0));
+
+			verify(americas, timeout(5_000)).execute(eq(Store.class), any());
+			verify(europe, timeout(5_000)).execute(eq(Store.class), any());
+			verify(primary, never()).execute(eq(Store.class), any());
+		}
+		finally {
+			metrics.shutdown();
+		}
+	}
+
+	@Test
+	public void countsIndexMisses() {
+
+		metrics.indexMissed();
+
+		assertThat(registry.get("stores.search.index.misses").counter().count(), is(1.0));
+	}
+
+	private static MongoOperations partition() {
+
+		MongoOperations partition = mock(MongoOperations.class);
+		when(partition.execute(eq(Store.class), any(CollectionCallback.class)))
+				.thenReturn(new Document("executionStats", new Document("nReturned", 0)));
+		return partition;
+	}
+
+	private static Page<Store> page(int size, long total) {
+
+		List<Store> stores = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			stores.add(new Store("Store " + i, null));
+		}
+
+		return new PageImpl<>(stores, PageRequest.of(0, Math.max(size, 1)), total);
+	}
+}
@@ -0,0 +1,80 @@
+package com.rslakra.retailsuite.stores.geo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+import com.rslakra.retailsuite.stores.catalog.StoreCatalogReader;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreSnapshot}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreSnapshotTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void readsTheStoresOfTheCatalogBack() throws Exception {
+
+		List<Store> stores = StoreCatalogReader.readAll(new ClassPathResource("starbucks.csv"));
+		for (int i = 0; i < stores.size(); i++) {
+			stores.get(i).setId(Integer.toHexString(i));
+		}
+
+		Path file = directory.resolve("stores.snapshot");
+		StoreSnapshot.write(stores, file);
+
+		assertThat(StoreSnapshot.read(file), is(stores));
+	}
+
+	@Test
+	public void keepsMissingAndEmptyValues() throws Exception {
+
+		Store unnamed = new Store(null, new Address(null, "Zürich", "", null));
+		unnamed.setFeatures(List.of());
+		Store homeless = new Store("Kiosk", null);
+		Store featured = new Store("Drive", new Address("1 Main St", "Springfield", "12345", new Point(-73.5, 40.25)));
+		featured.setFeatures(Arrays.asList("Drive-Through", "Lunch"));
+		featured.setOwnershipType("Licensed");
+
+		Path file = directory.resolve("stores.snapshot");
+		StoreSnapshot.write(Arrays.asList(unnamed, homeless, featured), file);
+
+		assertThat(StoreSnapshot.read(file), is(Arrays.asList(unnamed, homeless, featured)));
+	}
+
+	@Test
+	public void replacesAnExistingSnapshot() throws Exception {
+
+		Path file = directory.resolve("stores.snapshot");
+		StoreSnapshot.write(List.of(new Store("Old", null)), file);
+		StoreSnapshot.write(List.of(new Store("New", null)), file);
+
+		assertThat(StoreSnapshot.read(file), is(List.of(new Store("New", null))));
+		assertThat(Files.list(directory).count(), is(1L));
+	}
+
+	@Test
+	public void rejectsOtherFiles() throws Exception {
+
+		Path file = Files.writeString(directory.resolve("stores.csv"), "Name,Street Address\nChelsea,Main St\n");
+
+		assertThrows(IllegalArgumentException.class, () -> StoreSnapshot.read(file));
+	}
+}
@@ -0,0 +1,109 @@
+package com.rslakra.retailsuite.stores.partition;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Box;
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.geo.GeoHash;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link StorePartitionLayout} and {@link GeoHash}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StorePartitionLayoutTests {
+
+	private static final double EARTH_RADIUS_KM = 6378.137;
+
+	@Test
+	public void encodesLocationsAsGeohashes() {
+
+		Point newYork = new Point(-73.99, 40.74);
+		assertThat(GeoHash.encode(newYork, 5), is("dr5ru"));
+
+		Box cell = GeoHash.bounds("dr5ru");
+		assertThat(cell.getFirst().getX(), lessThanOrEqualTo(newYork.getX()));
+		assertThat(cell.getSecond().getX(), greaterThanOrEqualTo(newYork.getX()));
+		assertThat(cell.getFirst().getY(), lessThanOrEqualTo(newYork.getY()));
+		assertThat(cell.getSecond().getY(), greaterThanOrEqualTo(newYork.getY()));
+
+		assertThat(GeoHash.bounds(""), is(new Box(new Point(-180, -90), new Point(180, 90))));
+		assertThrows(IllegalArgumentException.class, () -> GeoHash.bounds("dr5a"));
+	}
+
+	@Test
+	public void assignsLocationsToTheLongestPrefix() {
+
+		StorePartitionLayout layout = layout();
+
+		assertThat(layout.ownerOf(new Point(-73.99, 40.74)), is("new-york"));
+		assertThat(layout.ownerOf(new Point(-122.33, 47.61)), is("americas"));
+		assertThat(layout.ownerOf(new Point(8.54, 47.38)), is("world"));
+		assertThat(layout.ownerOf(null), is(nullValue()));
+	}
+
+	@Test
+	public void selectsThePartitionsOverlappingASearch() {
+
+		StorePartitionLayout layout = layout();
+
+		assertThat(layout.overlapping(new Point(8.54, 47.38), km(50), true), containsInAnyOrder("world"));
+		assertThat(layout.overlapping(new Point(-73.8, 40.1), km(5), true), containsInAnyOrder("new-york"));
+		assertThat(layout.overlapping(new Point(-73.99, 40.74), km(500), true),
+				containsInAnyOrder("new-york", "americas"));
+
+		// around Greenwich and across the antimeridian
+		assertThat(layout.overlapping(new Point(-0.01, 51.48), km(5), true), containsInAnyOrder("americas", "world"));
+		assertThat(layout.overlapping(new Point(179.9, -17.7), km(50), true), containsInAnyOrder("americas", "world"));
+
+		// on the plane, in degrees
+		assertThat(layout.overlapping(new Point(8.54, 47.38), 1, false), containsInAnyOrder("world"));
+		assertThat(layout.overlapping(new Point(8.54, 47.38), 10, false), containsInAnyOrder("americas", "world"));
+
+		assertThat(layout.overlapping(new Point(8.54, 47.38), Double.POSITIVE_INFINITY, true),
+				containsInAnyOrder("new-york", "americas", "world"));
+	}
+
+	@Test
+	public void rejectsInvalidLayouts() {
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new StorePartitionLayout(Map.of("a", List.of("dr5", "a"), "b", List.of())));
+		assertThrows(IllegalArgumentException.class,
+				() -> new StorePartitionLayout(Map.of("a", List.of("dr5"), "b", List.of("DR5"), "c", List.of())));
+		assertThrows(IllegalArgumentException.class,
+				() -> new StorePartitionLayout(Map.of("a", List.of(), "b", List.of())));
+		assertThrows(IllegalArgumentException.class,
+				() -> new StorePartitionLayout(Map.of("a", List.of("0", "1"))));
+	}
+
+	/**
+	 * New York within the Americas (the western hemisphere) and the rest of the world.
+	 */
+	private static StorePartitionLayout layout() {
+
+		Map<String, List<String>> geohashes = new LinkedHashMap<>();
+		geohashes.put("new-york", List.of("dr5"));
+		geohashes.put("americas", List.of("0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "b", "c", "d", "e", "f", "g"));
+		geohashes.put("world", List.of());
+
+		return new StorePartitionLayout(geohashes);
+	}
+
+	private static double km(double kilometers) {
+		return kilometers / EARTH_RADIUS_KM;
+	}
+}
@@ -0,0 +1,171 @@
+package com.rslakra.retailsuite.stores.partition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Integration tests for {@link StorePartitions}, partitioning the stores of a primary database across two further
+ * databases of the local MongoDB instance.
+ *
+ * @author Rohtash Lakra
+ */
+public class StorePartitionsIntegrationTests {
+
+	static final String URI = "mongodb://localhost:27017/";
+	static final List<String> DATABASES = List.of("stores-partitions-primary", "stores-partitions-americas",
+			"stores-partitions-world");
+
+	MongoClient client;
+	MongoTemplate primary;
+	StorePartitions partitions;
+
+	Store chelsea = store("Chelsea", -73.995, 40.741);
+	Store berlin = store("Berlin", 13.405, 52.520);
+
+	@BeforeEach
+	public void setUp() {
+
+		client = MongoClients.create(URI);
+		DATABASES.forEach(database -> client.getDatabase(database).drop());
+
+		primary = new MongoTemplate(client, DATABASES.get(0));
+		primary.insertAll(List.of(chelsea, berlin));
+	}
+
+	@AfterEach
+	public void tearDown() {
+
+		if (partitions != null) {
+			partitions.shutdown();
+		}
+		DATABASES.forEach(database -> client.getDatabase(database).drop());
+		client.close();
+	}
+
+	@Test
+	public void copiesTheStoresIntoTheirPartitions() {
+
+		partitions = partitions(primary, URI + DATABASES.get(1));
+		assertThat(partitions.isReady(), is(false));
+
+		partitions.sync();
+
+		assertThat(partitions.isReady(), is(true));
+		assertThat(names(DATABASES.get(1)), containsInAnyOrder("Chelsea"));
+		assertThat(names(DATABASES.get(2)), containsInAnyOrder("Berlin"));
+		assertThat(nearby(new Point(-73.99, 40.74)), containsInAnyOrder("Chelsea"));
+	}
+
+	@Test
+	public void replaysTheModificationsMadeDuringACopy() {
+
+		Store soho = store("Soho", -74.000, 40.723);
+		soho.setId("soho");
+
+		// a store saved while the copy reads the primary isn't part of the copy, but has to end up in the partition
+		MongoTemplate spied = spy(primary);
+		doAnswer(invocation -> {
+			partitions.onAfterSave(new AfterSaveEvent<>(soho, null, "store"));
+			return invocation.callRealMethod();
+		}).when(spied).stream(any(Query.class), eq(Store.class));
+
+		partitions = partitions(spied, URI + DATABASES.get(1));
+		partitions.sync();
+
+		assertThat(names(DATABASES.get(1)), containsInAnyOrder("Chelsea", "Soho"));
+		assertThat(nearby(new Point(-73.99, 40.74)), containsInAnyOrder("Chelsea", "Soho"));
+	}
+
+	@Test
+	public void routesSavedAndRemovedStoresWithoutCopyingAgain() {
+
+		partitions = partitions(primary, URI + DATABASES.get(1));
+		partitions.sync();
+
+		// a catalog sync moving Berlin to Newark and deleting Chelsea
+		berlin.setAddress(new Address("street", "city", "zip", new Point(-74.172, 40.736)));
+		partitions.onAfterSave(new AfterSaveEvent<>(berlin, null, "store"));
+		partitions.remove(List.of(chelsea.getId()));
+
+		assertThat(names(DATABASES.get(1)), containsInAnyOrder("Berlin"));
+		assertThat(names(DATABASES.get(2)), is(List.of()));
+	}
+
+	@Test
+	public void leavesSearchesToThePrimaryWhileAPartitionIsMissing() {
+
+		partitions = partitions(primary, "mongodb://localhost:1/stores-partitions-missing?serverSelectionTimeoutMS=200");
+
+		partitions.sync();
+
+		assertThat(partitions.isReady(), is(false));
+		assertThat(partitions.queryNear(new Point(-73.99, 40.74), new Distance(10, Metrics.KILOMETERS),
+				partition -> partition.findAll(Store.class)), is(nullValue()));
+	}
+
+	StorePartitions partitions(MongoTemplate primary, String americas) {
+
+		StorePartitionProperties properties = new StorePartitionProperties();
+		properties.getInstances().add(partition("americas", americas, List.of("9", "b", "c", "d", "f", "6", "7")));
+		properties.getInstances().add(partition("world", URI + DATABASES.get(2), List.of()));
+
+		StorePartitions partitions = new StorePartitions(primary, primary.getConverter(), properties);
+		partitions.initialize();
+		return partitions;
+	}
+
+	List<String> nearby(Point location) {
+
+		List<String> names = new ArrayList<>();
+		partitions.queryNear(location, new Distance(10, Metrics.KILOMETERS), partition -> partition.findAll(Store.class))
+				.forEach(stores -> stores.forEach(store -> names.add(store.getName())));
+		return names;
+	}
+
+	List<String> names(String database) {
+
+		MongoTemplate partition = new MongoTemplate(client, database);
+		try (Stream<Store> stores = partition.stream(new Query(), Store.class)) {
+			return stores.map(Store::getName).toList();
+		}
+	}
+
+	static StorePartitionProperties.Partition partition(String name, String uri, List<String> geohashes) {
+
+		StorePartitionProperties.Partition partition = new StorePartitionProperties.Partition();
+		partition.setName(name);
+		partition.setUri(uri);
+		partition.setGeohashes(new ArrayList<>(geohashes));
+		return partition;
+	}
+
+	static Store store(String name, double x, double y) {
+		return new Store(name, new Address("street", "city", "zip", new Point(x, y)));
+	}
+}
@@ -0,0 +1,114 @@
+package com.rslakra.retailsuite.stores.typeahead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.geo.Point;
+
+import com.rslakra.retailsuite.stores.Address;
+import com.rslakra.retailsuite.stores.Store;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link StoreTypeaheadIndex}.
+ *
+ * @author Rohtash Lakra
+ */
+public class StoreTypeaheadIndexTests {
+
+	@Test
+	public void matchesPrefixesOfNameCityAndZipWords() {
+
+		StoreTypeaheadIndex index = new StoreTypeaheadIndex(Arrays.asList(
+				store("1", "West Chelsea", "New York", "10011", -74.004, 40.746),
+				store("2", "Chelsea Market", "New York", "10011-4512", -74.006, 40.742),
+				store("3", "Zürich Hauptbahnhof", "Zürich", "8001", 8.540, 47.378),
+				store("4", "Chelmsford", "Chelmsford", "01824", -71.367, 42.600)));
+
+		assertThat(ids(index.find("chelsea", 10, null)), contains("1", "2"));
+		assertThat(ids(index.find("Chel", 10, null)), contains("4", "1", "2"));
+		assertThat(ids(index.find("zuri", 10, null)), contains("3"));
+		assertThat(ids(index.find("new york 4512", 10, null)), contains("2"));
+		assertThat(ids(index.find("1001", 10, null)), contains("1", "2"));
+		assertThat(index.find("chelsea boston", 10, null), is(empty()));
+		assertThat(index.find(" - ", 10, null), is(empty()));
+	}
+
+	@Test
+	public void ranksExactWordsFirstAndLimitsTheMatches() {
+
+		StoreTypeaheadIndex index = new StoreTypeaheadIndex(Arrays.asList(
+				store("1", "Parkside", "Seattle", "98101", -122.33, 47.61),
+				store("2", "Park", "Seattle", "98102", -122.32, 47.62),
+				store("3", "Park Avenue", "Seattle", "98103", -122.34, 47.65)));
+
+		assertThat(ids(index.find("park", 10, null)), contains("2", "3", "1"));
+		assertThat(ids(index.find("park", 2, null)), contains("2", "3"));
+	}
+
+	@Test
+	public void ranksByDistanceToALocation() {
+
+		StoreTypeaheadIndex index = new StoreTypeaheadIndex(Arrays.asList(
+				store("1", "Union Square", "San Francisco", "94108", -122.407, 37.788),
+				store("2", "Union Square", "New York", "10003", -73.990, 40.736),
+				store("3", "Union Station", "Washington", "20002", -77.006, 38.897),
+				unlocated("4", "Union Pop-up")));
+
+		List<StoreSuggestion> suggestions = index.find("union", 3, new Point(-74.006, 40.713));
+
+		assertThat(ids(suggestions), contains("2", "3", "1"));
+		assertThat(suggestions.get(0).getDistance(), is(closeTo(2.9, 0.1)));
+		assertThat(ids(index.find("union", 10, new Point(-74.006, 40.713))), contains("2", "3", "1", "4"));
+		assertThat(index.find("union", 10, new Point(-74.006, 40.713)).get(3).getDistance(), is(nullValue()));
+	}
+
+	@Test
+	public void replacesAndRemovesStores() {
+
+		StoreTypeaheadIndex index = new StoreTypeaheadIndex(List.of(store("1", "Chelsea", "New York", "10011", 0, 0)));
+
+		index.put(store("1", "Soho", "New York", "10012", 0, 0));
+		assertThat(index.find("chelsea", 10, null), is(empty()));
+		assertThat(ids(index.find("soho", 10, null)), contains("1"));
+
+		index.remove("1");
+		assertThat(index.find("new", 10, null), is(empty()));
+		assertThat(index.size(), is(0));
+	}
+
+	private static Store unlocated(String id, String name) {
+
+		Store store = new Store(name, null);
+		store.setId(id);
+
+		return store;
+	}
+
+	private static Store store(String id, String name, String city, String zip, double longitude, double latitude) {
+
+		Store store = new Store(name, new Address(name + " Street", city, zip, new Point(longitude, latitude)));
+		store.setId(id);
+
+		return store;
+	}
+
+	private static List<String> ids(List<StoreSuggestion> suggestions) {
+
+		List<String> ids = new ArrayList<>(suggestions.size());
+		for (StoreSuggestion suggestion : suggestions) {
+			ids.add(suggestion.getId());
+		}
+
+		return ids;
+	}
+}
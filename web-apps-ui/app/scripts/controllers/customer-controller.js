@@ -24,7 +24,8 @@ angular.module('customersStoresUiApp')
             });
         };
         $scope.loadCustomers = function () {
-            var customerPromise = $http.get(appConfiguration.customerApiUrl + '/customers');
+            var customerPromise = $http.get(appConfiguration.customerApiUrl + '/customers',
+                {params: {projection: 'withNearbyStores'}});
             customerPromise.then(function (customers) {
                 $log.info('Retrieved customers', customers);
                 if (customers.data._embedded) {
@@ -185,7 +186,8 @@ angular.module('customersStoresUiApp')
     })
     .controller('CustomerDetailsController', function ($scope, $state, $stateParams, $http, $log, appConfiguration) {
         var customerId = $stateParams.customerId;
-        var customerPromise = $http.get(appConfiguration.customerApiUrl + '/customers/' + customerId);
+        var customerPromise = $http.get(appConfiguration.customerApiUrl + '/customers/' + customerId,
+            {params: {projection: 'withNearbyStores'}});
 
         $scope.customer = {
             firstName: '',
@@ -211,32 +213,23 @@ angular.module('customersStoresUiApp')
             };
             $log.info('Map Data', $scope.Map);
 
-            $scope.findStoresNearby($scope.customer._links["stores-nearby"].href);
+            $scope.showStoresNearby($scope.customer.nearbyStores);
         });
 
         $scope.goBack = function () {
             $state.go('customers');
         };
-        $scope.findStoresNearby = function (url) {
-            if (url) {
-                $log.info('Which Starbucks location are close to', url);
-                var locationPromise = $http.get(url);
-                locationPromise.then(function (locations) {
-                    $log.info('Nearby locations', locations);
-                    if (locations.data._embedded) {
-                        $scope.stores = locations.data._embedded.stores;
-                        _($scope.stores).forEach(function (store) {
-                            var latitude = store.address.location.y;
-                            var longitude = store.address.location.x;
-                            // $log.info(store);
-                            store.latitude = latitude;
-                            store.longitude = longitude;
-                            store.icon = 'starbucks_logo.png';
-                        });
-                    }
-                    $log.info('Nearby locations2', locations);
-                });
-            }
+        $scope.showStoresNearby = function (nearbyStores) {
+            $log.info('Nearby locations', nearbyStores);
+            $scope.stores = _.map(nearbyStores || [], function (nearbyStore) {
+                var store = nearbyStore.store;
+                store.latitude = store.address.location.y;
+                store.longitude = store.address.location.x;
+                store.distance = nearbyStore.distance;
+                store.unit = nearbyStore.unit;
+                store.icon = 'starbucks_logo.png';
+                return store;
+            });
         };
 
         $scope.map = {
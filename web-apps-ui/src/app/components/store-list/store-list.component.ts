@@ -1,12 +1,13 @@
-import { Component, OnInit, AfterViewInit, ChangeDetectorRef } from '@angular/core';
+import { Component, OnInit, AfterViewInit, ChangeDetectorRef, ViewChild } from '@angular/core';
 import { CommonModule } from '@angular/common';
+import { GoogleMap, MapMarker } from '@angular/google-maps';
 import { StoreService } from '../../services/store.service';
-import { Store } from '../../models/store.model';
+import { Store, StoreCluster } from '../../models/store.model';
 
 @Component({
   selector: 'app-store-list',
   standalone: false,
-  imports: [CommonModule],
+  imports: [CommonModule, GoogleMap, MapMarker],
   templateUrl: './store-list.component.html',
   styleUrl: './store-list.component.css'
 })
@@ -15,6 +16,16 @@ export class StoreListComponent implements OnInit, AfterViewInit {
   error: string | null = null;
   showDebug: boolean = false;
 
+  @ViewChild(GoogleMap) map?: GoogleMap;
+
+  mapOptions: google.maps.MapOptions = {
+    center: { lat: 39.8, lng: -98.6 },
+    zoom: 4
+  };
+
+  clusters: StoreCluster[] = [];
+  mapStores: Store[] = [];
+
   constructor(
     private storeService: StoreService,
     private cdr: ChangeDetectorRef
@@ -29,6 +40,37 @@ export class StoreListComponent implements OnInit, AfterViewInit {
     this.loadStores();
   }
 
+  loadViewport(): void {
+    const bounds = this.map?.getBounds();
+    const zoom = this.map?.getZoom();
+    if (!bounds || zoom === undefined) {
+      return;
+    }
+
+    this.storeService.getViewport(bounds.toJSON(), zoom).subscribe((viewport) => {
+      this.clusters = viewport.clusters;
+      this.mapStores = viewport.stores;
+      this.cdr.detectChanges();
+    });
+  }
+
+  clusterPosition(cluster: StoreCluster): google.maps.LatLngLiteral {
+    return { lat: cluster.latitude, lng: cluster.longitude };
+  }
+
+  clusterLabel(cluster: StoreCluster): google.maps.MarkerLabel {
+    return { text: String(cluster.count), color: 'white', fontSize: '11px' };
+  }
+
+  storePosition(store: Store): google.maps.LatLngLiteral {
+    return { lat: store.address.location.y, lng: store.address.location.x };
+  }
+
+  zoomInto(cluster: StoreCluster): void {
+    this.map?.googleMap?.setCenter(this.clusterPosition(cluster));
+    this.map?.googleMap?.setZoom((this.map.getZoom() || 0) + 2);
+  }
+
   loadStores(): void {
     this.error = null;
     this.stores = [];
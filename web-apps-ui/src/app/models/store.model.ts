@@ -24,3 +24,14 @@ export interface StoreResponse {
   };
 }
 
+export interface StoreCluster {
+  latitude: number;
+  longitude: number;
+  count: number;
+}
+
+export interface StoreViewport {
+  zoom: number;
+  clusters: StoreCluster[];
+  stores: Store[];
+}
@@ -2,7 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable, of } from 'rxjs';
 import { map, catchError } from 'rxjs/operators';
-import { Store, StoreResponse } from '../models/store.model';
+import { Store, StoreResponse, StoreViewport } from '../models/store.model';
 
 @Injectable({
   providedIn: 'root'
@@ -29,6 +29,23 @@ export class StoreService {
     );
   }
 
+  getViewport(bounds: google.maps.LatLngBoundsLiteral, zoom: number): Observable<StoreViewport> {
+    // The server aggregates stores into clusters when zoomed out, so only what is drawn is transferred
+    const params = {
+      south: bounds.south,
+      west: bounds.west,
+      north: bounds.north,
+      east: bounds.east,
+      zoom: Math.round(zoom)
+    };
+    return this.http.get<StoreViewport>('/api/stores/search/viewport', { params }).pipe(
+      catchError((error) => {
+        console.error('Error loading stores in viewport:', error);
+        return of({ zoom, clusters: [], stores: [] });
+      })
+    );
+  }
+
   getStoresNearby(url: string): Observable<Store[]> {
     return this.http.get<StoreResponse>(url).pipe(
       map((response: StoreResponse) => {